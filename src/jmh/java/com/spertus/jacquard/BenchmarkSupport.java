@@ -0,0 +1,81 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.common.*;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Utilities for benchmarks. Resources are copied to temporary files, since
+ * the benchmarks may be run from a jar.
+ */
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Initializes the Autograder with no timeout and clears the metrics
+     * report, which would otherwise grow throughout the run.
+     */
+    public static void initAutograder() {
+        Autograder.initForTest();
+    }
+
+    /**
+     * Copies a test resource to a temporary file.
+     *
+     * @param name the name of the resource, such as "good/Mob.java"
+     * @return a target for the copy
+     * @throws IOException if the resource cannot be copied
+     */
+    public static Target copyResource(String name) throws IOException {
+        Path dir = Files.createTempDirectory("jacquard-benchmark");
+        Path file = dir.resolve(Path.of(name).getFileName().toString());
+        try (InputStream is = BenchmarkSupport.class.getClassLoader().getResourceAsStream(name)) {
+            if (is == null) {
+                throw new FileNotFoundException(name);
+            }
+            Files.copy(is, file);
+        }
+        file.toFile().deleteOnExit();
+        dir.toFile().deleteOnExit();
+        return Target.fromPath(file);
+    }
+
+    /**
+     * Generates a syntactically valid Java source file containing the
+     * specified number of methods, each with loops, conditionals, string
+     * concatenation, and method calls.
+     *
+     * @param numMethods the number of methods
+     * @return a target for the generated file
+     * @throws IOException if the file cannot be written
+     */
+    public static Target generateSource(int numMethods) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.*;\nimport java.io.IOException;\n\n");
+        sb.append("/** A generated class. */\npublic class Generated {\n");
+        for (int i = 0; i < numMethods; i++) {
+            sb.append("    // Method ").append(i).append('\n');
+            sb.append("    public int method").append(i).append("(List<Integer> values) {\n");
+            sb.append("        int total = 0;\n");
+            sb.append("        for (int j = 0; j < values.size(); j++) {\n");
+            sb.append("            if (values.get(j) % 2 == 0) {\n");
+            sb.append("                total += values.get(j) * ").append(i).append(";\n");
+            sb.append("            } else {\n");
+            sb.append("                System.out.println(\"odd: \" + values.get(j));\n");
+            sb.append("            }\n");
+            sb.append("        }\n");
+            sb.append("        while (total > 1000) {\n");
+            sb.append("            total /= 2;\n");
+            sb.append("        }\n");
+            sb.append("        return total;\n");
+            sb.append("    }\n\n");
+        }
+        sb.append("}\n");
+        Path file = Files.createTempFile("Generated", ".java");
+        Files.writeString(file, sb.toString());
+        file.toFile().deleteOnExit();
+        return Target.fromPath(file);
+    }
+}
@@ -0,0 +1,40 @@
+package com.spertus.jacquard.coverage;
+
+import com.spertus.jacquard.BenchmarkSupport;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.coveragetests.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures instrumenting {@link PrimeChecker}, running its tests, and
+ * analyzing their coverage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CodeCoverageTesterBenchmark {
+    private CodeCoverageTester tester;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.initAutograder();
+        tester = new CodeCoverageTester(
+                new LinearScorer(.5, 10), PrimeChecker.class, PrimeCheckerTest.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearMetrics() {
+        Autograder.getInstance().getMetricsReport().clear();
+    }
+
+    @Benchmark
+    public List<Result> run() {
+        return tester.run();
+    }
+}
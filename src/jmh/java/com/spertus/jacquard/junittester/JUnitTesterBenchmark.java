@@ -0,0 +1,37 @@
+package com.spertus.jacquard.junittester;
+
+import com.spertus.jacquard.BenchmarkSupport;
+import com.spertus.jacquard.common.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures running the graded tests in {@link SampleTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JUnitTesterBenchmark {
+    private JUnitTester tester;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.initAutograder();
+        tester = new JUnitTester(SampleTest.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearMetrics() {
+        Autograder.getInstance().getMetricsReport().clear();
+    }
+
+    @Benchmark
+    public List<Result> run() {
+        return tester.run();
+    }
+}
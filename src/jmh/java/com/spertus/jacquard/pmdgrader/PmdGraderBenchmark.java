@@ -0,0 +1,41 @@
+package com.spertus.jacquard.pmdgrader;
+
+import com.spertus.jacquard.BenchmarkSupport;
+import com.spertus.jacquard.common.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures PMD analysis with the rule set used by the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PmdGraderBenchmark {
+    private PmdGrader grader;
+    private Target target;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkSupport.initAutograder();
+        Target ruleSet = BenchmarkSupport.copyResource("pmd-ruleset.xml");
+        grader = PmdGrader.createFromRuleSetPaths(1.0, 5.0, ruleSet.toPathString());
+        target = BenchmarkSupport.copyResource("good/FavoritesIterator.java");
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearMetrics() {
+        Autograder.getInstance().getMetricsReport().clear();
+    }
+
+    @Benchmark
+    public List<Result> grade() {
+        return grader.grade(target);
+    }
+}
@@ -0,0 +1,40 @@
+package com.spertus.jacquard.publisher;
+
+import com.spertus.jacquard.BenchmarkSupport;
+import com.spertus.jacquard.common.Result;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing a large number of results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GradescopePublisherBenchmark {
+    private static final int NUM_RESULTS = 1_000;
+
+    private GradescopePublisher publisher;
+    private List<Result> results;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.initAutograder();
+        publisher = new GradescopePublisher();
+        results = new ArrayList<>();
+        for (int i = 0; i < NUM_RESULTS; i++) {
+            results.add(Result.makeResult(
+                    "test " + i, i % 3, 2, "Expected <" + i + "> but was <" + (i + 1) + ">"));
+        }
+    }
+
+    @Benchmark
+    public String serializeResults() {
+        return publisher.serializeResults(results);
+    }
+}
@@ -0,0 +1,38 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.spertus.jacquard.BenchmarkSupport;
+import com.spertus.jacquard.exceptions.SubmissionException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of small, medium, and very large student files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParserBenchmark {
+    @Param({"5", "100", "5000"})
+    private int numMethods;
+
+    private Parser parser;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkSupport.initAutograder();
+        parser = new Parser();
+        file = BenchmarkSupport.generateSource(numMethods).toFile();
+    }
+
+    @Benchmark
+    public CompilationUnit parse() throws SubmissionException {
+        return parser.parse(file);
+    }
+}
@@ -0,0 +1,67 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.spertus.jacquard.BenchmarkSupport;
+import com.spertus.jacquard.common.Result;
+import com.spertus.jacquard.exceptions.SubmissionException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the traversal of an already-parsed compilation unit by syntax
+ * graders. This is in the same package as the graders so it can call
+ * {@link SyntaxGrader#grade(CompilationUnit)} directly, excluding parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SyntaxGraderBenchmark {
+    @Param({"100", "5000"})
+    private int numMethods;
+
+    private CompilationUnit cu;
+    private SyntaxConditionCountGrader conditionGrader;
+    private SyntaxConditionCountGrader typedConditionGrader;
+    private SyntaxCountGrader countGrader;
+    private ImportRequiredGrader importGrader;
+
+    @Setup
+    public void setup() throws IOException, SubmissionException {
+        BenchmarkSupport.initAutograder();
+        cu = new Parser().parse(BenchmarkSupport.generateSource(numMethods).toFile());
+        conditionGrader = new SyntaxConditionGrader(
+                1, "for loop", 1, node -> node instanceof ForStmt);
+        // The node index is built on the first call and reused afterward.
+        typedConditionGrader = SyntaxConditionGrader.forNodeType(
+                1, "for loop", 1, ForStmt.class, node -> true);
+        countGrader = new StringInterpolationCountGrader(1, 1, Integer.MAX_VALUE);
+        importGrader = new ImportRequiredGrader(1, List.of("java.util.*", "java.io.IOException"));
+    }
+
+    @Benchmark
+    public List<Result> syntaxConditionCountGrader() {
+        return conditionGrader.grade(cu);
+    }
+
+    @Benchmark
+    public List<Result> syntaxConditionCountGraderWithNodeType() {
+        return typedConditionGrader.grade(cu);
+    }
+
+    @Benchmark
+    public List<Result> syntaxCountGrader() {
+        return countGrader.grade(cu);
+    }
+
+    @Benchmark
+    public List<Result> importRequiredGrader() {
+        return importGrader.grade(cu);
+    }
+}
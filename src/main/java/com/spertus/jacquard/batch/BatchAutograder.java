@@ -0,0 +1,291 @@
+package com.spertus.jacquard.batch;
+
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.publisher.*;
+import com.spertus.jacquard.syntaxgrader.*;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import java.util.zip.*;
+
+/**
+ * An autograder that grades many submissions with one configuration inside
+ * a single JVM, such as when regrading a whole section after a rubric
+ * change. Each submission is a directory (the submission root) containing
+ * the files to be graded. The submissions are graded concurrently on a
+ * work-stealing pool.
+ * <p>
+ * The {@link Autograder} must be initialized before this is used. The
+ * submissions are graded in the caller's current {@link GradingContext},
+ * so a batch can be graded with a configuration of its own by calling
+ * {@link #grade(Path)} through {@link GradingContext#apply}. Each
+ * {@link Grader} is shared by all submissions and may grade several of
+ * them at once, so graders must not keep state while grading. All the
+ * built-in graders are safe to share.
+ * <p>
+ * Testers are created separately for each submission by a
+ * {@link TesterFactory}, which is given a class loader for the
+ * submission's compiled classes. Each submission must have been compiled
+ * beforehand, such as by running its build. The testers are run on the
+ * {@link Autograder}'s shared grading threads with the timeout and deadline
+ * of the current {@link GradingContext}, so one submission whose tests do
+ * not finish does not hold up the others.
+ */
+public class BatchAutograder {
+    private static final String RESULTS_SUFFIX = ".json";
+    private static final String ZIP_SUFFIX = ".zip";
+    private static final String BATCH_NAME = "batch autograder";
+
+    private final List<Grader> graders;
+    // Whether any of the graders parse their targets, and the cheapest
+    // profile that satisfies all of them.
+    private final boolean hasSyntaxGraders;
+    private final ParseProfile parseProfile;
+    private final List<String> targetPaths;
+    private final List<String> classPaths;
+    private final TesterFactory testerFactory;
+    private final int parallelism;
+    private final Publisher publisher = new GradescopePublisher();
+
+    /**
+     * Creates a batch autograder that runs the graders on the specified files
+     * of each submission and then runs the testers created for the submission.
+     *
+     * @param graders       the graders, which are run in order on all targets
+     * @param targetPaths   the paths of the files to grade, relative to each
+     *                      submission root, such as
+     *                      {@code "src/main/java/student/Main.java"}
+     * @param classPaths    the paths of the directories and jar files holding
+     *                      each submission's compiled classes (including its
+     *                      test classes), relative to its root, such as
+     *                      {@code "build/classes/java/main"}
+     * @param testerFactory a function that creates the testers for a
+     *                      submission
+     * @param parallelism   the number of submissions to grade concurrently
+     * @throws ClientException if parallelism is not positive
+     */
+    public BatchAutograder(
+            final List<Grader> graders,
+            final List<String> targetPaths,
+            final List<String> classPaths,
+            final TesterFactory testerFactory,
+            final int parallelism) {
+        if (parallelism <= 0) {
+            throw new ClientException("parallelism must be positive");
+        }
+        this.graders = List.copyOf(graders);
+        hasSyntaxGraders = graders.stream().anyMatch(SyntaxGrader.class::isInstance);
+        parseProfile = ParseProfile.cheapestFor(graders);
+        this.targetPaths = List.copyOf(targetPaths);
+        this.classPaths = List.copyOf(classPaths);
+        this.testerFactory = testerFactory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Creates a batch autograder that runs the graders on the specified files
+     * of each submission, grading as many submissions concurrently as there
+     * are available processors.
+     *
+     * @param graders     the graders, which are run in order on all targets
+     * @param targetPaths the paths of the files to grade, relative to each
+     *                    submission root, such as
+     *                    {@code "src/main/java/student/Main.java"}
+     */
+    public BatchAutograder(final List<Grader> graders, final List<String> targetPaths) {
+        this(graders, targetPaths, List.of(), (root, loader) -> List.of(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Grades every submission in a directory or zip archive. Each
+     * subdirectory of the directory (or each top-level directory of the
+     * archive) is a submission root, whose name identifies the student.
+     *
+     * @param submissions a directory or zip archive of submission roots
+     * @return the results for each student, ordered by student name
+     * @throws ClientException if submissions is neither a directory nor a
+     *                         readable zip archive
+     */
+    public Map<String, List<Result>> grade(final Path submissions) {
+        if (isZipArchive(submissions)) {
+            final Path dir = extract(submissions);
+            try {
+                return gradeDirectory(dir);
+            } finally {
+                delete(dir);
+            }
+        }
+        if (!Files.isDirectory(submissions)) {
+            throw new ClientException(submissions + " is not a directory or zip archive.");
+        }
+        return gradeDirectory(submissions);
+    }
+
+    private Map<String, List<Result>> gradeDirectory(final Path dir) {
+        final List<Path> roots = listSubmissionRoots(dir);
+        final GradingContext context = GradingContext.current();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<ForkJoinTask<List<Result>>> tasks = roots.stream()
+                    .map(root -> pool.submit(() -> context.apply(() -> gradeSubmission(root))))
+                    .collect(Collectors.toList());
+            final Map<String, List<Result>> results = new LinkedHashMap<>(); // NOPMD (one thread)
+            for (int i = 0; i < roots.size(); i++) {
+                results.put(roots.get(i).getFileName().toString(), tasks.get(i).join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Grades every submission in a directory or zip archive, as
+     * {@link #grade(Path)} does, and writes each student's results to a
+     * JSON file named after the student in the output directory. The files
+     * have the format Gradescope expects in {@code results/results.json}.
+     *
+     * @param submissions a directory or zip archive of submission roots
+     * @param outputDir   the directory in which to write the results, which
+     *                    is created if it does not exist
+     * @return the results for each student, ordered by student name
+     * @throws ClientException if submissions is neither a directory nor a
+     *                         readable zip archive or if the results cannot
+     *                         be written
+     */
+    public Map<String, List<Result>> gradeAndWrite(final Path submissions, final Path outputDir) {
+        final Map<String, List<Result>> results = grade(submissions);
+        try {
+            Files.createDirectories(outputDir);
+            for (final Map.Entry<String, List<Result>> entry : results.entrySet()) {
+                Files.writeString(
+                        outputDir.resolve(entry.getKey() + RESULTS_SUFFIX),
+                        publisher.serializeResults(entry.getValue()));
+            }
+        } catch (IOException e) {
+            throw new ClientException("Unable to write results to " + outputDir, e);
+        }
+        return results;
+    }
+
+    private List<Result> gradeSubmission(final Path root) {
+        final List<Result> results = new ArrayList<>();
+        try {
+            final List<Target> targets = targetPaths.stream()
+                    .map(path -> Target.fromPath(root.resolve(path).toAbsolutePath().normalize()))
+                    .collect(Collectors.toList());
+            if (hasSyntaxGraders) {
+                parseAll(targets);
+            }
+            for (final Grader grader : graders) {
+                results.addAll(grader.grade(targets));
+            }
+            results.addAll(runTesters(root));
+        } catch (RuntimeException | ClassNotFoundException | IOException e) { // NOPMD
+            // Don't let one submission's problem prevent others from being graded.
+            results.add(Result.makeError(BATCH_NAME, e));
+        }
+        return results;
+    }
+
+    // Runs the submission's testers with its class loader as the context
+    // class loader, which JUnit uses to find tests in packages. Each tester
+    // is run with the current context's timeout and deadline, so tests that
+    // do not finish produce an error result for this submission only.
+    private List<Result> runTesters(final Path root) throws ClassNotFoundException, IOException {
+        final URL[] urls = new URL[classPaths.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = root.resolve(classPaths.get(i)).toUri().toURL();
+        }
+        final Thread thread = Thread.currentThread();
+        final ClassLoader originalLoader = thread.getContextClassLoader();
+        try (SubmissionClassLoader loader = new SubmissionClassLoader(
+                root.getFileName().toString(), urls, BatchAutograder.class.getClassLoader())) { // NOPMD (shares Jacquard and JUnit)
+            thread.setContextClassLoader(loader);
+            final List<Result> results = new ArrayList<>();
+            for (final Tester tester : testerFactory.create(root, loader)) {
+                results.addAll(tester.runTimed(tester.getClass().getSimpleName()));
+            }
+            return results;
+        } finally {
+            thread.setContextClassLoader(originalLoader);
+        }
+    }
+
+    // Parses each target once with a profile that satisfies all the syntax
+    // graders, so they share the parse.
+    private void parseAll(final List<Target> targets) {
+        for (final Target target : targets) {
+            try {
+                ParseCache.getInstance().parse(target, parseProfile);
+            } catch (SubmissionException e) { // NOPMD
+                // The syntax graders will report the problem.
+            }
+        }
+    }
+
+    private static List<Path> listSubmissionRoots(final Path dir) {
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths
+                    .filter(Files::isDirectory)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new ClientException("Unable to access directory " + dir, e);
+        }
+    }
+
+    private static boolean isZipArchive(final Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().endsWith(ZIP_SUFFIX);
+    }
+
+    // Deletes a directory extracted from an archive and everything in it.
+    private static void delete(final Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            // Delete the contents of directories before the directories.
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        } catch (IOException e) { // NOPMD
+            // Grading is complete, so the directory is left for the operating
+            // system to clean up.
+        }
+    }
+
+    private static Path extract(final Path archive) {
+        final Path dir;
+        try {
+            dir = Files.createTempDirectory("jacquard-batch");
+        } catch (IOException e) {
+            throw new ClientException("Unable to create a directory to extract " + archive, e);
+        }
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                final Path path = dir.resolve(entry.getName()).normalize();
+                // Reject entries that would be written outside the directory.
+                if (!path.startsWith(dir)) {
+                    throw new ClientException("Archive entry is outside the archive: " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(path);
+                } else {
+                    Files.createDirectories(path.getParent());
+                    Files.copy(zis, path);
+                }
+            }
+            return dir;
+        } catch (IOException e) {
+            delete(dir);
+            throw new ClientException("Unable to read archive " + archive, e);
+        } catch (ClientException e) {
+            delete(dir);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.spertus.jacquard.batch;
+
+import java.net.*;
+
+/**
+ * A class loader for one submission's compiled classes. Unlike most class
+ * loaders, it looks for a class in the submission before asking its parent,
+ * so a submission's classes are used even if classes of the same name
+ * (such as those of a reference solution) are on the autograder's
+ * classpath. Classes not in the submission, such as those of JUnit and
+ * Jacquard, are loaded by the parent, so they are shared by all
+ * submissions.
+ * <p>
+ * Worker JVMs (see {@link com.spertus.jacquard.common.WorkerPool}) load a
+ * submission's classes with a class loader of this type for the same
+ * locations, so tests find the same classes there.
+ */
+public final class SubmissionClassLoader extends URLClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * Creates a class loader for classes in the specified locations.
+     *
+     * @param name   the name of the submission
+     * @param urls   the directories and jar files holding the classes
+     * @param parent the class loader for everything else
+     */
+    public SubmissionClassLoader(final String name, final URL[] urls, final ClassLoader parent) {
+        super(name, urls, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                try {
+                    clazz = findClass(name);
+                } catch (ClassNotFoundException e) { // NOPMD
+                    // The class is not part of the submission.
+                    clazz = getParent().loadClass(name);
+                }
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+}
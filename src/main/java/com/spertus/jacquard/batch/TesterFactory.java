@@ -0,0 +1,28 @@
+package com.spertus.jacquard.batch;
+
+import com.spertus.jacquard.common.Tester;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A function that creates the testers for one submission in a
+ * {@link BatchAutograder}.
+ * <p>
+ * Test classes must be loaded through the class loader that is passed in,
+ * such as by {@code new JUnitTester(loader.loadClass("student.MainTest"))},
+ * so that they test the submission's classes rather than whatever classes
+ * of the same name are on the autograder's classpath.
+ */
+@FunctionalInterface
+public interface TesterFactory {
+    /**
+     * Creates the testers for a submission.
+     *
+     * @param root   the submission root
+     * @param loader a class loader for the submission's compiled classes
+     * @return the testers
+     * @throws ClassNotFoundException if a test class cannot be loaded
+     */
+    List<Tester> create(Path root, ClassLoader loader) throws ClassNotFoundException;
+}
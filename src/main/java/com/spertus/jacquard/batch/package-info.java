@@ -0,0 +1,4 @@
+/**
+ * Grading of many submissions within a single JVM.
+ */
+package com.spertus.jacquard.batch;
@@ -2,6 +2,7 @@ package com.spertus.jacquard.checkstylegrader;
 
 import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.jfr.CheckstyleEvent;
 
 import org.w3c.dom.*;
 import org.xml.sax.SAXException;
@@ -139,18 +140,36 @@ public class CheckstyleGrader extends Grader {
         downloadCheckstyleIfNeeded();
         final List<String> arguments = new ArrayList<>(FIRST_COMMAND_PARTS);
         arguments.add(String.format(CONFIG_TEMPLATE, ruleFile));
+        final List<String> targetPaths = new ArrayList<>();
         for (Target target : targets) {
-            arguments.add(target.toPathString());
+            targetPaths.add(target.toPathString());
         }
+        arguments.addAll(targetPaths);
+        final String targetDescription = String.join(", ", targetPaths);
         final ProcessBuilder pb = new ProcessBuilder(arguments);
+        final CheckstyleEvent event = new CheckstyleEvent();
+        event.begin();
+        final Process p;
+        try {
+            p = pb.start(); // IOException
+        } catch (IOException e) {
+            event.finish(getName(), targetDescription, "failed to start");
+            throw new InternalException("Error running checkstyle ", e);
+        }
         try {
-            final Process p = pb.start(); // IOException
             final int result = p.waitFor(); // InterruptedException
+            if (event.isEnabled()) {
+                event.finish(getName(), targetDescription, "exit code " + result);
+            }
             // Positive exit codes mean that checkstyle found problems, not that it failed.
             if (result < 0) {
                 throw new InternalException("Exit code indicated checkstyle failure");
             }
-        } catch (InterruptedException | IOException e) {
+        } catch (InterruptedException e) {
+            event.finish(getName(), targetDescription, "interrupted");
+            // Don't leave the subprocess running if grading timed out.
+            p.destroyForcibly();
+            Thread.currentThread().interrupt();
             throw new InternalException("Error running checkstyle ", e);
         }
     }
@@ -176,6 +195,45 @@ public class CheckstyleGrader extends Grader {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key identifies the scoring and the path and hash of the contents
+     * of the rule file. It is empty if the rule file cannot be read.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return ResultCache.hashFileOrResource(ruleFile).map(hash ->
+                String.format("%s %s %s:%s", penalty, maxPoints, ruleFile, hash));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All targets are checked together and produce a single result.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isPerTarget() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the same for any number of targets, since they produce a
+     * single result.
+     *
+     * @return the maximum number of points
+     */
+    @Override
+    public double getMaxScore(final Target... targets) {
+        return maxPoints;
+    }
+
     @Override
     public Callable<List<Result>> getCallableSingleTarget(final Target target) {
         return () -> {
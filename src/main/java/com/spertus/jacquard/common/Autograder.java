@@ -2,15 +2,48 @@ package com.spertus.jacquard.common;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.spertus.jacquard.exceptions.*;
+import org.junit.platform.launcher.*;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.nio.file.Path;
+import java.util.*;
 
 /**
  * A singleton class containing configuration information. The client must
  * initialize the Autograder before calling other Jacquard code. This can
- * be done throw {@link Builder} or {@link #init()}.
+ * be done throw {@link Builder} or {@link #init()}. The configuration is
+ * the default {@link GradingContext} (see {@link #getContext()}); other
+ * contexts can be used to grade with different configurations in the same
+ * JVM.
+ * <p>
+ * The Autograder also owns the threads used to enforce timeouts on
+ * {@link Grader}s. All graders share a single pool of
+ * {@link #numThreads} threads, which is created only when first needed
+ * (and never if timeouts are disabled). They are daemon threads, so they
+ * do not prevent the JVM from exiting, but they can be released earlier
+ * by calling {@link #close()}. If {@link Builder#virtualThreads(boolean)}
+ * is enabled, graders that are not CPU-intensive are instead run on
+ * virtual threads, and only CPU-intensive graders use the pool.
+ * <p>
+ * Similarly, the Autograder owns the JUnit {@link LauncherSession} shared
+ * by all {@link Tester}s (see {@link #getLauncher()}), so test engines are
+ * discovered and set up once rather than for each run, and, if enabled,
+ * the {@link WorkerPool} in which testers run tests outside this JVM.
  */
-public final class Autograder {
+@SuppressWarnings({"PMD.TooManyFields", "PMD.TooManyMethods"})
+public final class Autograder implements AutoCloseable {
     private static Autograder instance;
 
+    // Resources to be released by close().
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private final MetricsReport metricsReport = new MetricsReport();
+    // These are created when first needed and replaced if closed.
+    private GradingExecutor executor;
+    private GradingExecutor virtualExecutor;
+    private GradingExecutor coordinator;
+    private LauncherSession launcherSession;
+    private WorkerPool workerPool;
+
     /**
      * The Java level of student code.
      */
@@ -26,6 +59,45 @@ public final class Autograder {
      */
     public final Visibility visibility;
 
+    /**
+     * The maximum number of threads used to run timed {@link Grader}s.
+     */
+    public final int numThreads;
+
+    /**
+     * The maximum number of milliseconds for all grading, measured from
+     * when the Autograder was built, or 0 if there is no deadline.
+     */
+    public final long deadlineMillis;
+
+    /**
+     * Whether graders that are not CPU-intensive are run on virtual threads.
+     */
+    public final boolean virtualThreads;
+
+    /**
+     * The number of worker JVMs in which tests are run, or 0 if tests are
+     * run in this JVM.
+     */
+    public final int workerJvms;
+
+    /**
+     * The number of tasks after which a worker JVM is replaced.
+     */
+    public final int workerMaxRuns;
+
+    /**
+     * Whether JUnit's parallel execution is enabled for tests run by
+     * {@link Tester}s.
+     */
+    public final boolean parallelTests;
+
+    // The default context, which holds the configuration above.
+    private final GradingContext context;
+
+    // The result cache, or null if results are not cached.
+    private final ResultCache resultCache;
+
     /**
      * A singleton class for building the Autograder.
      */
@@ -46,12 +118,31 @@ public final class Autograder {
          */
         public static final Visibility DEFAULT_VISIBILITY = Visibility.VISIBLE;
 
+        /**
+         * The default number of threads used to run timed {@link Grader}s,
+         * which is the number of available processors.
+         */
+        public static final int DEFAULT_NUM_THREADS =
+                Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The default number of tasks after which a worker JVM is replaced.
+         */
+        public static final int DEFAULT_WORKER_MAX_RUNS = 20;
+
         private static final Builder INSTANCE = new Builder();
 
         private boolean built = false;
         private long timeoutMillis = DEFAULT_TIMEOUT_MS;
         private int javaLevel = DEFAULT_JAVA_LEVEL;
         private Visibility visibility = DEFAULT_VISIBILITY;
+        private int numThreads = DEFAULT_NUM_THREADS;
+        private long deadlineMillis;
+        private boolean virtualThreads;
+        private Path resultCacheDirectory;
+        private int workerJvms;
+        private int workerMaxRuns = DEFAULT_WORKER_MAX_RUNS;
+        private boolean parallelTests;
 
         private Builder() {
         }
@@ -113,6 +204,154 @@ public final class Autograder {
             return this;
         }
 
+        /**
+         * Sets the maximum number of threads used to run {@link Grader}s
+         * when a timeout is in effect. The threads are shared by all
+         * graders, so the number of threads does not depend on the number
+         * of graders. If this method is not called,
+         * {@link #DEFAULT_NUM_THREADS} is used.
+         *
+         * @param numThreads the number of threads
+         * @return the builder
+         * @throws ClientException if this builder has already been built or
+         *                         if {@code numThreads} is not positive
+         */
+        public Builder numThreads(final int numThreads) {
+            verifyMutability();
+            if (numThreads <= 0) {
+                throw new ClientException("numThreads must be positive");
+            }
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * Sets a deadline for all grading, measured from when
+         * {@link #build()} is called. This should be less than the time
+         * after which the grading platform stops the autograder. No
+         * {@link Grader} will be permitted to run past the deadline, and
+         * graders called after the deadline produce "not run" results.
+         * If this method is not called, or if it is called with 0, there is
+         * no deadline.
+         *
+         * @param deadline the number of milliseconds, or 0 for no deadline
+         * @return the builder
+         * @throws ClientException if this builder has already been built or
+         *                         if {@code deadline} is negative
+         * @see GradingSchedule
+         */
+        public Builder deadline(final long deadline) {
+            verifyMutability();
+            if (deadline < 0) {
+                throw new ClientException("deadline must not be negative");
+            }
+            deadlineMillis = deadline;
+            return this;
+        }
+
+        /**
+         * Sets whether {@link Grader}s that are not CPU-intensive, such as
+         * ones that mostly wait for a subprocess, are run on virtual
+         * threads when a timeout is in effect. CPU-intensive graders (see
+         * {@link Grader#isCpuIntensive()}) always run on the pool of
+         * platform threads whose size is set by {@link #numThreads(int)}.
+         * Virtual threads require Java 21 or later; on earlier versions,
+         * each such grader is run on its own platform thread. If this
+         * method is not called, virtual threads are not used.
+         *
+         * @param virtualThreads whether to use virtual threads
+         * @return the builder
+         * @throws ClientException if this builder has already been built
+         */
+        public Builder virtualThreads(final boolean virtualThreads) {
+            verifyMutability();
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Sets a directory in which the results of {@link Grader}s are
+         * cached, so that files resubmitted unchanged are not graded again.
+         * Only graders that describe their configuration (see
+         * {@link Grader#getConfigurationKey()}) are cached. The directory
+         * is created if needed. If this method is not called, or if it is
+         * called with {@code null}, results are not cached.
+         *
+         * @param directory the cache directory or {@code null}
+         * @return the builder
+         * @throws ClientException if this builder has already been built
+         * @see ResultCache
+         */
+        public Builder resultCache(final Path directory) {
+            verifyMutability();
+            resultCacheDirectory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker JVMs in which {@link Tester}s run
+         * tests, isolating the autograder from student code that calls
+         * {@link System#exit(int)}, changes static state, or leaves threads
+         * running. The workers are started when the Autograder is built.
+         * If this method is not called, or if it is called with 0, tests
+         * are run in the autograder's JVM.
+         *
+         * @param count the number of worker JVMs, or 0 for none
+         * @return the builder
+         * @throws ClientException if the count is negative or if this
+         *                         builder has already been built
+         * @see WorkerPool
+         */
+        public Builder workerJvms(final int count) {
+            verifyMutability();
+            if (count < 0) {
+                throw new ClientException("The number of worker JVMs must not be negative.");
+            }
+            workerJvms = count;
+            return this;
+        }
+
+        /**
+         * Sets the number of tasks after which a worker JVM is replaced by
+         * a fresh one, limiting how much state can accumulate in it. If this
+         * method is not called, {@link #DEFAULT_WORKER_MAX_RUNS} is used.
+         *
+         * @param maxRuns the number of tasks
+         * @return the builder
+         * @throws ClientException if the number is not positive or if this
+         *                         builder has already been built
+         * @see #workerJvms(int)
+         */
+        public Builder workerMaxRuns(final int maxRuns) {
+            verifyMutability();
+            if (maxRuns <= 0) {
+                throw new ClientException("The number of runs per worker JVM must be positive.");
+            }
+            workerMaxRuns = maxRuns;
+            return this;
+        }
+
+        /**
+         * Sets whether JUnit Jupiter's parallel execution is enabled for
+         * tests run by {@link Tester}s. If it is, tests annotated with
+         * {@code @Execution(ExecutionMode.CONCURRENT)} (or all tests, if
+         * {@code junit.jupiter.execution.parallel.mode.default} is set to
+         * {@code concurrent} in {@code junit-platform.properties}) are run
+         * concurrently on JUnit's threads, whose CPU time and memory
+         * allocation are not included in the tester's {@link GradingMetrics}.
+         * If this method is not called, tests are run one at a time on the
+         * tester's thread.
+         *
+         * @param parallelTests whether to enable parallel execution
+         * @return the builder
+         * @throws ClientException if this builder has already been built
+         */
+        public Builder parallelTests(final boolean parallelTests) {
+            verifyMutability();
+            this.parallelTests = parallelTests;
+            return this;
+        }
+
         /**
          * Builds the Autograder using information from this builder. This
          * may be called only once per program execution (unless
@@ -133,6 +372,13 @@ public final class Autograder {
             timeout(DEFAULT_TIMEOUT_MS);
             javaLevel(DEFAULT_JAVA_LEVEL);
             visibility(DEFAULT_VISIBILITY);
+            numThreads(DEFAULT_NUM_THREADS);
+            deadline(0);
+            virtualThreads(false);
+            resultCache(null);
+            workerJvms(0);
+            workerMaxRuns(DEFAULT_WORKER_MAX_RUNS);
+            parallelTests(false);
         }
     }
 
@@ -140,6 +386,178 @@ public final class Autograder {
         javaLevel = builder.javaLevel;
         timeoutMillis = builder.timeoutMillis;
         visibility = builder.visibility;
+        numThreads = builder.numThreads;
+        deadlineMillis = builder.deadlineMillis;
+        virtualThreads = builder.virtualThreads;
+        context = new GradingContext(javaLevel, timeoutMillis, visibility, deadlineMillis);
+        resultCache = builder.resultCacheDirectory == null
+                ? null : new ResultCache(builder.resultCacheDirectory);
+        workerJvms = builder.workerJvms;
+        workerMaxRuns = builder.workerMaxRuns;
+        parallelTests = builder.parallelTests;
+        // Start the workers now so they are warm when tests are run.
+        getWorkerPool();
+    }
+
+    /**
+     * Gets the default {@link GradingContext}, which has the Java level,
+     * timeout, visibility, and deadline of this Autograder. This is the
+     * context used unless another one is put into effect, and it can be
+     * used to create contexts that differ from it.
+     *
+     * @return the default context
+     */
+    public GradingContext getContext() {
+        return context;
+    }
+
+    /**
+     * Gets the cache of grader results set with
+     * {@link Builder#resultCache(Path)}.
+     *
+     * @return the result cache, or empty if results are not cached
+     */
+    public Optional<ResultCache> getResultCache() {
+        return Optional.ofNullable(resultCache);
+    }
+
+    /**
+     * Gets the report of the resources used by each {@link Grader} and
+     * {@link Tester} run so far.
+     *
+     * @return the metrics report
+     */
+    public MetricsReport getMetricsReport() {
+        return metricsReport;
+    }
+
+    /**
+     * Gets the number of milliseconds remaining before the deadline set
+     * with {@link Builder#deadline(long)}.
+     *
+     * @return the number of milliseconds remaining (0 if the deadline has
+     * passed), or {@link Long#MAX_VALUE} if there is no deadline
+     */
+    public long getRemainingMillis() {
+        return context.getRemainingMillis();
+    }
+
+    /**
+     * Gets the executor shared by graders for running with a timeout,
+     * creating it if needed.
+     *
+     * @param cpuIntensive whether the grader to be run is CPU-intensive
+     * @return the executor
+     */
+    /* default */ GradingExecutor getExecutor(final boolean cpuIntensive) {
+        synchronized (resources) {
+            if (virtualThreads && !cpuIntensive) {
+                if (virtualExecutor == null || virtualExecutor.isClosed()) {
+                    virtualExecutor = GradingExecutor.createVirtual("jacquard-io-grader");
+                    resources.add(virtualExecutor);
+                }
+                return virtualExecutor;
+            }
+            if (executor == null || executor.isClosed()) {
+                executor = new GradingExecutor("jacquard-grader", numThreads);
+                resources.add(executor);
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Gets the unbounded executor shared by tasks that only wait for work
+     * run on the executor returned by {@link #getExecutor(boolean)}, such
+     * as the nodes of a {@link GradingGraph}, creating it if needed. Since
+     * the waiting tasks run here, they do not take up the threads doing
+     * the work.
+     *
+     * @return the executor
+     */
+    /* default */ GradingExecutor getCoordinator() {
+        synchronized (resources) {
+            if (coordinator == null || coordinator.isClosed()) {
+                coordinator = GradingExecutor.createVirtual("jacquard-coordinator");
+                resources.add(coordinator);
+            }
+            return coordinator;
+        }
+    }
+
+    /**
+     * Gets the JUnit launcher shared by all {@link Tester}s in all grading
+     * contexts, opening a {@link LauncherSession} if needed. Because the
+     * launcher is shared, listeners must not be registered with it; instead,
+     * they should be passed to
+     * {@link Launcher#execute(LauncherDiscoveryRequest, TestExecutionListener...)},
+     * which applies
+     * them to that request only. The session is closed by {@link #close()}.
+     *
+     * @return the shared launcher
+     */
+    public Launcher getLauncher() {
+        synchronized (resources) {
+            if (launcherSession == null) {
+                launcherSession = LauncherFactory.openSession();
+                resources.add(launcherSession);
+            }
+            return launcherSession.getLauncher();
+        }
+    }
+
+    /**
+     * Gets the pool of worker JVMs in which {@link Tester}s run tests,
+     * starting the workers if needed.
+     *
+     * @return the pool, or empty if tests are run in this JVM
+     * @see Builder#workerJvms(int)
+     */
+    public Optional<WorkerPool> getWorkerPool() {
+        if (workerJvms == 0) {
+            return Optional.empty();
+        }
+        synchronized (resources) {
+            if (workerPool == null) {
+                workerPool = new WorkerPool(workerJvms, workerMaxRuns, javaLevel, visibility, parallelTests);
+                resources.add(workerPool);
+            }
+            return Optional.of(workerPool);
+        }
+    }
+
+    /**
+     * Registers a resource to be closed when this Autograder is closed.
+     *
+     * @param resource the resource
+     */
+    /* default */ void register(final AutoCloseable resource) {
+        synchronized (resources) {
+            resources.add(resource);
+        }
+    }
+
+    /**
+     * Releases the threads and other resources used for grading, stopping
+     * any grading in progress. The configuration remains in effect, and
+     * resources will be created again if grading continues.
+     */
+    @Override
+    public void close() {
+        final List<AutoCloseable> toClose;
+        synchronized (resources) {
+            toClose = new ArrayList<>(resources);
+            resources.clear();
+            launcherSession = null;
+            workerPool = null;
+        }
+        for (final AutoCloseable resource : toClose) { // NOPMD (closed in loop)
+            try {
+                resource.close();
+            } catch (Exception e) { // NOPMD
+                // Continue closing the remaining resources.
+            }
+        }
     }
 
     private static void makeAutograder(final Builder builder) {
@@ -190,6 +608,9 @@ public final class Autograder {
      */
     @VisibleForTesting
     public static void resetForTest() {
+        if (instance != null) {
+            instance.close();
+        }
         instance = null;
         Builder.getInstance().resetForTest();
     }
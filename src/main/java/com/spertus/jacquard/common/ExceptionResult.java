@@ -11,6 +11,18 @@ public class ExceptionResult extends Result {
      * @param throwable the underlying {@link Error} or {@link Exception}
      */
     public ExceptionResult(final String name, final Throwable throwable) {
-        super(name, 0, 0, throwable.getMessage());
+        this(name, throwable, 0);
+    }
+
+    /**
+     * Makes a result indicating an exceptional event occurred, which is
+     * worth the specified number of points, none of which are earned.
+     *
+     * @param name      the name
+     * @param throwable the underlying {@link Error} or {@link Exception}
+     * @param maxScore  the number of points possible
+     */
+    public ExceptionResult(final String name, final Throwable throwable, final double maxScore) {
+        super(name, 0, maxScore, throwable.getMessage());
     }
 }
@@ -2,6 +2,7 @@ package com.spertus.jacquard.common;
 
 import com.spertus.jacquard.exceptions.*;
 import com.spertus.jacquard.exceptions.TimeoutException;
+import com.spertus.jacquard.jfr.GraderEvent;
 
 import java.io.IOException;
 import java.util.*;
@@ -11,9 +12,10 @@ import java.util.stream.*;
 /**
  * The superclass of all graders.
  */
-@SuppressWarnings("PMD.TooManyMethods")
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.GodClass"})
 public abstract class Grader {
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    /* default */ static final String DEADLINE_REASON = "the grading deadline was reached";
+
     private final String name;
 
     /**
@@ -29,6 +31,75 @@ public abstract class Grader {
         this.name = name;
     }
 
+    /**
+     * Gets the name of this grader.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks whether this grader spends most of its time computing, rather
+     * than waiting (such as for a subprocess). CPU-intensive graders are
+     * never run on virtual threads (see
+     * {@link Autograder.Builder#virtualThreads(boolean)}). The default
+     * implementation returns false.
+     *
+     * @return true if this grader is CPU-intensive
+     */
+    public boolean isCpuIntensive() {
+        return false;
+    }
+
+    /**
+     * Gets a description of everything other than the targets that
+     * determines the results of this grader, such as its scoring and the
+     * elements it checks for. If this is present, the results of this
+     * grader may be stored in and retrieved from the {@link Autograder}'s
+     * {@link ResultCache}, if there is one. The grader's class and name
+     * are already part of the cache key and need not be included. The
+     * default implementation returns empty, so results are not cached,
+     * which is required for graders whose results depend on anything that
+     * cannot be described, such as a predicate or the state of the system.
+     *
+     * @return the configuration key, or empty if results should not be cached
+     * @see Autograder.Builder#resultCache(java.nio.file.Path)
+     */
+    public Optional<String> getConfigurationKey() {
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether this grader grades each target independently, so the
+     * results for multiple targets are the results for each target in
+     * turn. If so, each target is looked up separately in the
+     * {@link ResultCache}. The default implementation returns true, which
+     * is correct unless {@link #getCallableMultiTarget(Target...)} is
+     * overridden to handle multiple targets specially.
+     *
+     * @return true if this grader grades each target independently
+     */
+    public boolean isPerTarget() {
+        return true;
+    }
+
+    /**
+     * Gets the maximum number of points this grader can award for the
+     * specified targets, if that is known before grading. This is the
+     * maximum score of the result reported when this grader is not run
+     * because of the deadline or does not finish before its timeout, so
+     * its points are not dropped from the total. The default
+     * implementation returns 0, meaning that the maximum is not known.
+     *
+     * @param targets the targets
+     * @return the maximum number of points, or 0 if not known
+     */
+    public double getMaxScore(final Target... targets) {
+        return 0;
+    }
+
     /**
      * Gets a {@link Callable} through which this grader can be called on
      * a single target.
@@ -63,13 +134,23 @@ public abstract class Grader {
         };
     }
 
-    private List<Result> gradeUntimed(final Target... targets) {
+    // Gets a callable for grading the targets, which goes through the
+    // result cache if there is one and this grader can be cached.
+    private Callable<List<Result>> getCallable(final Target... targets) {
+        final Optional<ResultCache> cache = Autograder.getInstance().getResultCache();
+        final Optional<String> configurationKey = getConfigurationKey();
+        if (cache.isPresent() && configurationKey.isPresent()) {
+            return cache.get().getCallable(this, configurationKey.get(), targets);
+        }
+        return targets.length == 1 ? getCallableSingleTarget(targets[0])
+                : getCallableMultiTarget(targets);
+    }
+
+    private List<Result> gradeUntimed(final ResourceUsage usage, final Target... targets) {
         final List<Result> results = new ArrayList<>();
         try {
-            if (targets.length == 1) {
-                results.addAll(getCallableSingleTarget(targets[0]).call());
-            } else if (targets.length > 1) {
-                results.addAll(getCallableMultiTarget(targets).call());
+            if (targets.length > 0) {
+                results.addAll(usage.wrap(getCallable(targets)).call());
             }
         } catch (Exception e) { // NOPMD
             results.add(makeExceptionResult(new InternalException(e)));
@@ -77,20 +158,41 @@ public abstract class Grader {
         return results;
     }
 
-    private List<Result> gradeTimed(final Target... targets) {
+    private List<Result> gradeTimed(
+            final ResourceUsage usage,
+            final GradingContext context,
+            final long timeoutMillis,
+            final Target... targets) {
         final List<Result> results = new ArrayList<>();
         try {
-            final Future<List<Result>> future = executor.submit(
-                    targets.length == 1 ? getCallableMultiTarget(targets[0])
-                            : getCallableMultiTarget(targets));
-            results.addAll(future.get(Autograder.getInstance().timeoutMillis, TimeUnit.MILLISECONDS));
+            // The context is carried to the thread that does the work.
+            results.addAll(Autograder.getInstance().getExecutor(isCpuIntensive()).call(
+                    context.wrap(usage.wrap(getCallable(targets))),
+                    timeoutMillis,
+                    context.getDeadlineNanos()));
+        } catch (GradingExecutor.AbandonedTaskException e) {
+            results.add(makeTimeoutResult(
+                    new TimeoutException("Operation timed out. " + e.getMessage(), e), targets));
         } catch (java.util.concurrent.TimeoutException e) {
-            results.add(makeExceptionResult(
-                    new TimeoutException("Operation timed out")));
-        } catch (InterruptedException | ExecutionException e) {
-            // This currently returns after the first exception is thrown,
-            // rather than continuing to other targets.
-            results.add(makeExceptionResult(e.getCause() == null ? e : e.getCause()));
+            results.add(makeTimeoutResult(
+                    new TimeoutException("Operation timed out"), targets));
+        } catch (GradingExecutor.DeadlinePassedException e) {
+            results.add(makeNotRunResult(DEADLINE_REASON, targets));
+        } catch (CancellationException e) {
+            results.add(makeCancelledResult(e, targets));
+        } catch (InterruptedException e) {
+            // Let the caller, such as a cancelled task, see the interrupt.
+            Thread.currentThread().interrupt();
+            results.add(makeTimeoutResult(
+                    new TimeoutException("Operation was interrupted", e), targets));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException cancellation) {
+                results.add(makeCancelledResult(cancellation, targets));
+            } else {
+                // This currently returns after the first exception is thrown,
+                // rather than continuing to other targets.
+                results.add(makeExceptionResult(e.getCause() == null ? e : e.getCause()));
+            }
         }
         return results;
     }
@@ -107,18 +209,83 @@ public abstract class Grader {
     }
 
     /**
-     * Grades the provided targets.
+     * Grades the provided targets in the current {@link GradingContext},
+     * which is the {@link Autograder}'s unless another has been put into
+     * effect.
      *
      * @param targets the targets
      * @return the results
      * @throws ClientException if {@link Autograder} has not been initialized
      */
     public List<Result> grade(final Target... targets) {
-        if (Autograder.getInstance().timeoutMillis == 0) {
-            return gradeUntimed(targets);
-        } else {
-            return gradeTimed(targets);
+        return grade(GradingContext.current(), targets);
+    }
+
+    /**
+     * Grades the provided targets in the specified context, using its
+     * timeout, deadline, Java level, and visibility instead of the
+     * {@link Autograder}'s. Different contexts can be used concurrently.
+     *
+     * @param context the grading context
+     * @param targets the targets
+     * @return the results
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    public List<Result> grade(final GradingContext context, final Target... targets) {
+        return context.apply(() -> grade(context.timeoutMillis, targets));
+    }
+
+    /**
+     * Grades the provided targets with the specified timeout, which is
+     * shortened if needed to end by the deadline of the current
+     * {@link GradingContext}. If the deadline passes before grading
+     * starts (including while waiting for a free thread), a "not run"
+     * result is returned.
+     * Otherwise, the {@link GradingMetrics} of the call are attached to
+     * the results and added to the {@link Autograder}'s
+     * {@link MetricsReport}, and a {@link GraderEvent} is recorded if
+     * JDK Flight Recorder is running.
+     *
+     * @param timeoutMillis the timeout in milliseconds or 0 for no timeout
+     * @param targets       the targets
+     * @return the results
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    /* default */ List<Result> grade(final long timeoutMillis, final Target... targets) {
+        final GraderEvent event = new GraderEvent();
+        event.begin();
+        final GradingContext context = GradingContext.current();
+        if (context.getRemainingMillis() == 0) {
+            if (event.isEnabled()) {
+                event.finish(name, describe(targets), "not run");
+            }
+            return List.of(makeNotRunResult(DEADLINE_REASON, targets));
+        }
+        final ResourceUsage usage = new ResourceUsage(name);
+        final List<Result> results = usage.finish(timeoutMillis == 0 && context.getDeadlineNanos().isEmpty()
+                ? gradeUntimed(usage, targets)
+                : gradeTimed(usage, context, timeoutMillis == 0 ? Long.MAX_VALUE : timeoutMillis, targets));
+        if (event.isEnabled()) {
+            event.finish(name, describe(targets), summarize(results));
+        }
+        return results;
+    }
+
+    // Describes the targets for a GraderEvent.
+    private static String describe(final Target... targets) {
+        return Arrays.stream(targets)
+                .map(Target::toPathString)
+                .collect(Collectors.joining(", "));
+    }
+
+    // Summarizes the outcome of grading for a GraderEvent.
+    private static String summarize(final List<Result> results) {
+        if (results.stream().anyMatch(ExceptionResult.class::isInstance)) {
+            return "error";
         }
+        return String.format("%.1f/%.1f points",
+                results.stream().mapToDouble(Result::getScore).sum(),
+                results.stream().mapToDouble(Result::getMaxScore).sum());
     }
 
     /**
@@ -138,6 +305,78 @@ public abstract class Grader {
         return results;
     }
 
+    /**
+     * Runs all graders on the provided target concurrently, using a pool of
+     * the specified number of threads, which is shut down before returning.
+     * The results are in the same order as if {@link #gradeAll(Target, Grader...)}
+     * had been called. Each grader should appear only once in the argument list.
+     *
+     * @param numThreads the number of threads to use
+     * @param target     the target for each of the graders
+     * @param graders    the graders
+     * @return the collected results
+     * @throws ClientException if {@link Autograder} has not been initialized
+     *                         or {@code numThreads} is not positive
+     */
+    public static List<Result> gradeAllConcurrently(
+            final int numThreads,
+            final Target target,
+            final Grader... graders) {
+        if (numThreads <= 0) {
+            throw new ClientException("numThreads must be positive");
+        }
+        final ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            return gradeAllConcurrently(pool, target, graders);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs all graders on the provided target concurrently, using the
+     * provided executor service, which is not shut down by this method.
+     * The results are in the same order as if {@link #gradeAll(Target, Grader...)}
+     * had been called. Each grader should appear only once in the argument list.
+     * The graders are run in the caller's current {@link GradingContext}.
+     *
+     * @param pool    the executor service through which to run the graders
+     * @param target  the target for each of the graders
+     * @param graders the graders
+     * @return the collected results
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    public static List<Result> gradeAllConcurrently(
+            final ExecutorService pool,
+            final Target target,
+            final Grader... graders) {
+        // Check initialization before submitting any work.
+        Autograder.getInstance();
+        final GradingContext context = GradingContext.current();
+        final List<Future<List<Result>>> futures = Arrays.stream(graders)
+                .map(grader -> pool.submit(() -> grader.grade(context, target)))
+                .collect(Collectors.toList());
+
+        // Collect results in the order the graders were passed, not the
+        // order in which they completed.
+        final List<Result> results = new ArrayList<>();
+        for (int i = 0; i < graders.length; i++) {
+            try {
+                results.addAll(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(graders[i].makeExceptionResult(e));
+            } catch (ExecutionException e) {
+                // Misuse of the API is reported as it would be by gradeAll().
+                if (e.getCause() instanceof ClientException clientException) {
+                    throw clientException;
+                }
+                results.add(graders[i].makeExceptionResult(e.getCause()));
+            }
+        }
+        return results;
+    }
+
     /**
      * Creates a one-element list holding a result indicating complete success.
      *
@@ -209,6 +448,31 @@ public abstract class Grader {
         return Result.makeError(name, throwable);
     }
 
+    /**
+     * Creates a result indicating that this grader was not run on the
+     * specified targets, which is worth {@link #getMaxScore(Target...)}
+     * points, none of which are earned.
+     *
+     * @param reason  the reason the grader was not run
+     * @param targets the targets
+     * @return the result
+     */
+    protected Result makeNotRunResult(final String reason, final Target... targets) {
+        return Result.makeNotRun(name, reason, getMaxScore(targets));
+    }
+
+    // Creates a result indicating that grading the targets timed out.
+    // Makes the result of a task cancelled before it finished, such as
+    // because the executor was closed, which counts as a timeout.
+    private Result makeCancelledResult(final CancellationException exception, final Target... targets) {
+        return makeTimeoutResult(new TimeoutException(
+                "Operation did not finish. " + exception.getMessage(), exception), targets);
+    }
+
+    private Result makeTimeoutResult(final TimeoutException exception, final Target... targets) {
+        return new ExceptionResult(name, exception, getMaxScore(targets));
+    }
+
     /**
      * Creates a result indicating partial credit.
      *
@@ -0,0 +1,235 @@
+package com.spertus.jacquard.common;
+
+import com.spertus.jacquard.exceptions.ClientException;
+
+import java.util.concurrent.*;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+/**
+ * An immutable grading configuration: the Java level of student code, the
+ * timeout for {@link Grader}s, the visibility of results, and an optional
+ * deadline. Graders, results, and parsers use the current context (see
+ * {@link #current()}), which is the context of the {@link Autograder}
+ * unless another one has been put into effect on the current thread by
+ * {@link Grader#grade(GradingContext, Target...)} or
+ * {@link #apply(Supplier)}.
+ * <p>
+ * This makes it possible for a single JVM to grade different assignments,
+ * or different submissions with their own deadlines, concurrently. For
+ * example:
+ * <pre>
+ * GradingContext context = Autograder.getInstance().getContext()
+ *         .withJavaLevel(11)
+ *         .withDeadline(60_000);
+ * List&lt;Result&gt; results = grader.grade(context, target);
+ * </pre>
+ * The threads and other resources used for grading are still owned by the
+ * {@link Autograder}, which must be initialized.
+ */
+public final class GradingContext {
+    private static final ThreadLocal<GradingContext> THREAD_CONTEXT = new ThreadLocal<>();
+
+    /**
+     * The Java level of student code.
+     */
+    public final int javaLevel;
+
+    /**
+     * The number of milliseconds graders should run before timing out, or
+     * 0 for no timeout.
+     */
+    public final long timeoutMillis;
+
+    /**
+     * The visibility level of {@link Grader} results.
+     */
+    public final Visibility visibility;
+
+    /**
+     * The maximum number of milliseconds for all grading in this context,
+     * measured from when the context was created, or 0 if there is no
+     * deadline.
+     */
+    public final long deadlineMillis;
+
+    // When the deadline began, according to System.nanoTime().
+    private final long startNanos;
+
+    /**
+     * Creates a context with the specified configuration.
+     *
+     * @param javaLevel      the Java level of student code
+     * @param timeoutMillis  the timeout in milliseconds, or 0 for no timeout
+     * @param visibility     the visibility of results
+     * @param deadlineMillis the number of milliseconds for all grading, or 0
+     *                       for no deadline
+     * @throws ClientException if {@code timeoutMillis} or
+     *                         {@code deadlineMillis} is negative
+     */
+    public GradingContext(
+            final int javaLevel,
+            final long timeoutMillis,
+            final Visibility visibility,
+            final long deadlineMillis) {
+        this(javaLevel, timeoutMillis, visibility, deadlineMillis, System.nanoTime());
+    }
+
+    private GradingContext(
+            final int javaLevel,
+            final long timeoutMillis,
+            final Visibility visibility,
+            final long deadlineMillis,
+            final long startNanos) {
+        if (timeoutMillis < 0) {
+            throw new ClientException("timeout must not be negative");
+        }
+        if (deadlineMillis < 0) {
+            throw new ClientException("deadline must not be negative");
+        }
+        this.javaLevel = javaLevel;
+        this.timeoutMillis = timeoutMillis;
+        this.visibility = visibility;
+        this.deadlineMillis = deadlineMillis;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Gets the context in effect on the current thread. This is the
+     * context of the {@link Autograder} unless another context has been
+     * put into effect.
+     *
+     * @return the current context
+     * @throws ClientException if no context is in effect and the
+     *                         {@link Autograder} has not been initialized
+     */
+    public static GradingContext current() {
+        final GradingContext context = THREAD_CONTEXT.get();
+        return context == null ? Autograder.getInstance().getContext() : context;
+    }
+
+    /**
+     * Creates a copy of this context with a different Java level. The
+     * deadline, if any, is unchanged.
+     *
+     * @param javaLevel the Java level of student code
+     * @return the new context
+     */
+    public GradingContext withJavaLevel(final int javaLevel) {
+        return new GradingContext(javaLevel, timeoutMillis, visibility, deadlineMillis, startNanos);
+    }
+
+    /**
+     * Creates a copy of this context with a different timeout. The
+     * deadline, if any, is unchanged.
+     *
+     * @param timeoutMillis the timeout in milliseconds, or 0 for no timeout
+     * @return the new context
+     * @throws ClientException if {@code timeoutMillis} is negative
+     */
+    public GradingContext withTimeout(final long timeoutMillis) {
+        return new GradingContext(javaLevel, timeoutMillis, visibility, deadlineMillis, startNanos);
+    }
+
+    /**
+     * Creates a copy of this context with a different visibility. The
+     * deadline, if any, is unchanged.
+     *
+     * @param visibility the visibility of results
+     * @return the new context
+     */
+    public GradingContext withVisibility(final Visibility visibility) {
+        return new GradingContext(javaLevel, timeoutMillis, visibility, deadlineMillis, startNanos);
+    }
+
+    /**
+     * Creates a copy of this context with a new deadline, measured from
+     * when this method is called.
+     *
+     * @param deadlineMillis the number of milliseconds for all grading, or 0
+     *                       for no deadline
+     * @return the new context
+     * @throws ClientException if {@code deadlineMillis} is negative
+     */
+    public GradingContext withDeadline(final long deadlineMillis) {
+        return new GradingContext(javaLevel, timeoutMillis, visibility, deadlineMillis);
+    }
+
+    /**
+     * Gets the number of milliseconds remaining before the deadline.
+     *
+     * @return the number of milliseconds remaining (0 if the deadline has
+     * passed), or {@link Long#MAX_VALUE} if there is no deadline
+     */
+    public long getRemainingMillis() {
+        if (deadlineMillis == 0) {
+            return Long.MAX_VALUE;
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return Math.max(0, deadlineMillis - elapsedMillis);
+    }
+
+    /**
+     * Gets when the deadline is, according to {@link System#nanoTime()}.
+     *
+     * @return the deadline, or empty if there is none
+     */
+    /* default */ OptionalLong getDeadlineNanos() {
+        return deadlineMillis == 0
+                ? OptionalLong.empty()
+                : OptionalLong.of(startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+    }
+
+    /**
+     * Gets a value with this context in effect on the current thread,
+     * restoring the previous context afterward. This can be used to run
+     * {@link Tester}s or other code that has no context parameter.
+     *
+     * @param supplier the supplier of the value
+     * @param <T>      the type of the value
+     * @return the value
+     */
+    public <T> T apply(final Supplier<T> supplier) {
+        final GradingContext previous = THREAD_CONTEXT.get();
+        THREAD_CONTEXT.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Wraps a callable so that it runs with this context in effect, on
+     * whatever thread calls it.
+     *
+     * @param callable the callable
+     * @param <T>      the type of the callable's result
+     * @return the wrapped callable
+     */
+    /* default */ <T> Callable<T> wrap(final Callable<T> callable) {
+        return () -> {
+            final GradingContext previous = THREAD_CONTEXT.get();
+            THREAD_CONTEXT.set(this);
+            try {
+                return callable.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(final GradingContext previous) {
+        if (previous == null) {
+            THREAD_CONTEXT.remove();
+        } else {
+            THREAD_CONTEXT.set(previous);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GradingContext[javaLevel=%d, timeout=%d ms, visibility=%s, deadline=%d ms]",
+                javaLevel, timeoutMillis, visibility, deadlineMillis);
+    }
+}
@@ -0,0 +1,301 @@
+package com.spertus.jacquard.common;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Runs grading tasks on daemon worker threads, enforcing timeouts. When a
+ * task times out, its thread is interrupted. If the task does not stop
+ * promptly (such as a student's infinite loop that ignores interrupts), it
+ * is abandoned, and a replacement thread is added so that later tasks are
+ * not blocked behind it. The replacement is retired if the abandoned task
+ * ever finishes. Tasks still waiting for a thread when the executor is
+ * closed are cancelled, so their callers do not wait forever.
+ * <p>
+ * An executor may instead be unbounded, running each task on its own
+ * virtual thread (see {@link #createVirtual(String)}).
+ */
+final class GradingExecutor implements AutoCloseable {
+    /**
+     * How long to wait for a cancelled task to stop before abandoning it.
+     */
+    /* default */ static final long CANCELLATION_GRACE_MS = 200L;
+
+    private final ExecutorService pool;
+    // Whether the pool has a fixed number of threads, which must be
+    // adjusted when a task is abandoned.
+    private final boolean bounded;
+    private final AtomicInteger abandonedCount = new AtomicInteger();
+
+    /**
+     * Signals that a task timed out and could not be stopped, so its thread
+     * was abandoned.
+     */
+    /* default */ static class AbandonedTaskException extends TimeoutException {
+        private static final long serialVersionUID = 1L;
+
+        /* default */ AbandonedTaskException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Signals that a task was not run because the deadline passed before
+     * it could start.
+     */
+    /* default */ static class DeadlinePassedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        /* default */ DeadlinePassedException() {
+            super("The deadline passed before the task could start");
+        }
+    }
+
+    /**
+     * Creates an executor with the specified number of worker threads.
+     *
+     * @param name       the prefix of the names of the worker threads
+     * @param numThreads the number of worker threads
+     */
+    /* default */ GradingExecutor(final String name, final int numThreads) {
+        this(new ThreadPoolExecutor(
+                numThreads, numThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                makeThreadFactory(name)), true);
+    }
+
+    private GradingExecutor(final ExecutorService pool, final boolean bounded) {
+        this.pool = pool;
+        this.bounded = bounded;
+    }
+
+    private static ThreadFactory makeThreadFactory(final String name) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            // Abandoned threads must not prevent the JVM from exiting.
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates an unbounded executor that runs each task on a new virtual
+     * thread, so tasks that block (such as waiting for a subprocess) do not
+     * each tie up a platform thread. If virtual threads are not supported
+     * by the running JVM (before Java 21), each task is instead run on a
+     * cached daemon platform thread.
+     *
+     * @param name the prefix of the names of any platform threads
+     * @return the executor
+     */
+    /* default */ static GradingExecutor createVirtual(final String name) {
+        ExecutorService pool;
+        try {
+            // This is called reflectively so Jacquard can run on Java 17.
+            pool = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            pool = Executors.newCachedThreadPool(makeThreadFactory(name));
+        }
+        return new GradingExecutor(pool, false);
+    }
+
+    /**
+     * Calls the callable on a worker thread, waiting at most the specified
+     * time after it starts running and not past the deadline. The time
+     * spent waiting for a free thread counts toward the deadline but not
+     * the timeout. If the deadline passes before the callable starts, it is
+     * not called.
+     *
+     * @param callable      the callable
+     * @param timeoutMillis the maximum number of milliseconds to wait, or
+     *                      {@link Long#MAX_VALUE} for no limit
+     * @param deadlineNanos when the deadline is, according to
+     *                      {@link System#nanoTime()}, or empty if there is
+     *                      none
+     * @return the value returned by the callable
+     * @throws TimeoutException     if the callable timed out but stopped when
+     *                              interrupted
+     * @throws AbandonedTaskException if the callable timed out and did not
+     *                              stop when interrupted
+     * @throws DeadlinePassedException if the deadline passed before the
+     *                              callable started
+     * @throws ExecutionException   if the callable threw an exception or
+     *                              this executor was closed before it ran
+     * @throws InterruptedException if the calling thread was interrupted,
+     *                              in which case the callable is cancelled
+     * @throws CancellationException if this executor was closed while the
+     *                              callable was being started
+     */
+    /* default */ List<Result> call(
+            final Callable<List<Result>> callable,
+            final long timeoutMillis,
+            final OptionalLong deadlineNanos)
+            throws TimeoutException, DeadlinePassedException, ExecutionException, InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        // When the task started, and whether it was skipped because the
+        // deadline had passed. These are set before started is counted down.
+        final AtomicLong startNanos = new AtomicLong();
+        final AtomicBoolean skipped = new AtomicBoolean();
+        // Guarded by itself. Set if the task has been abandoned.
+        final boolean[] abandoned = new boolean[1];
+        final FutureTask<List<Result>> future = new FutureTask<>(() -> {
+            startNanos.set(System.nanoTime());
+            if (deadlineNanos.isPresent() && deadlineNanos.getAsLong() - startNanos.get() <= 0) {
+                skipped.set(true);
+                started.countDown();
+                finished.countDown();
+                return List.of();
+            }
+            started.countDown();
+            try {
+                return callable.call();
+            } finally {
+                finished.countDown();
+                synchronized (abandoned) {
+                    if (abandoned[0]) {
+                        // The replacement thread is no longer needed.
+                        resize(-1);
+                    }
+                }
+            }
+        }) {
+            @Override
+            protected void done() {
+                // Stop waiting if the task was cancelled before it started.
+                started.countDown();
+            }
+        };
+        try {
+            pool.execute(future);
+        } catch (RejectedExecutionException e) {
+            throw new ExecutionException(e);
+        }
+
+        awaitStart(future, started, skipped, deadlineNanos);
+        try {
+            return future.get(getWaitNanos(startNanos.get(), timeoutMillis, deadlineNanos), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // No one is waiting for the task any longer.
+            future.cancel(true);
+            throw e;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            synchronized (abandoned) {
+                if (finished.await(CANCELLATION_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                    throw e;
+                }
+                abandoned[0] = true;
+                abandonedCount.incrementAndGet();
+                resize(1);
+            }
+            throw new AbandonedTaskException(
+                    "Grading thread did not stop when interrupted and was abandoned");
+        }
+    }
+
+    /**
+     * Runs a task with no timeout. This is meant for tasks that only wait
+     * for other tasks, which are run with {@link #call}, so it should be
+     * used only on unbounded executors.
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if this executor has been closed
+     */
+    /* default */ void execute(final Runnable task) {
+        pool.execute(task);
+    }
+
+    // Waits for a task to start, giving up and cancelling it if the
+    // deadline passes first. This throws an exception if the task was
+    // skipped or cancelled instead of being run.
+    private static void awaitStart(
+            final Future<?> future,
+            final CountDownLatch started,
+            final AtomicBoolean skipped,
+            final OptionalLong deadlineNanos)
+            throws InterruptedException, DeadlinePassedException, ExecutionException {
+        if (deadlineNanos.isPresent()
+                && !started.await(deadlineNanos.getAsLong() - System.nanoTime(), TimeUnit.NANOSECONDS)
+                && future.cancel(false)) {
+            throw new DeadlinePassedException();
+        }
+        // The task has started or been cancelled, or it is about to start.
+        started.await();
+        if (future.isCancelled()) {
+            throw new ExecutionException(
+                    new CancellationException("Grading executor was closed before the task ran"));
+        }
+        if (skipped.get()) {
+            throw new DeadlinePassedException();
+        }
+    }
+
+    // Gets how much longer to wait for a task that started at the specified
+    // time, which is until its timeout or the deadline, whichever is first.
+    private static long getWaitNanos(
+            final long startNanos,
+            final long timeoutMillis,
+            final OptionalLong deadlineNanos) {
+        long endNanos = timeoutMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE : startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (deadlineNanos.isPresent()
+                && (endNanos == Long.MAX_VALUE || deadlineNanos.getAsLong() - endNanos < 0)) {
+            endNanos = deadlineNanos.getAsLong();
+        }
+        return endNanos == Long.MAX_VALUE ? Long.MAX_VALUE : endNanos - System.nanoTime();
+    }
+
+    // This must be called while holding the lock of an abandoned task.
+    private void resize(final int delta) {
+        if (!bounded) {
+            return;
+        }
+        final ThreadPoolExecutor threadPool = (ThreadPoolExecutor) pool;
+        synchronized (threadPool) {
+            if (delta > 0) {
+                threadPool.setMaximumPoolSize(threadPool.getMaximumPoolSize() + delta);
+                threadPool.setCorePoolSize(threadPool.getCorePoolSize() + delta);
+            } else {
+                threadPool.setCorePoolSize(threadPool.getCorePoolSize() + delta);
+                threadPool.setMaximumPoolSize(threadPool.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tasks that have been abandoned because they did not
+     * stop when interrupted.
+     *
+     * @return the number of abandoned tasks
+     */
+    /* default */ int getAbandonedCount() {
+        return abandonedCount.get();
+    }
+
+    /**
+     * Checks whether this executor has been closed.
+     *
+     * @return true if this executor has been closed
+     */
+    /* default */ boolean isClosed() {
+        return pool.isShutdown();
+    }
+
+    /**
+     * Shuts down this executor, interrupting any running tasks.
+     */
+    @Override
+    public void close() {
+        for (final Runnable queued : pool.shutdownNow()) {
+            if (queued instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.spertus.jacquard.common;
+
+import com.spertus.jacquard.exceptions.ClientException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.Collectors;
+
+/**
+ * A set of {@link Grader}s and {@link Tester}s with dependencies between
+ * them. A node runs only if each of its dependencies has finished and
+ * satisfied the node's {@link Gate} for it. Otherwise, the node (and any
+ * node depending on it) is skipped, producing a "not run" result. This
+ * makes it possible, for example, to run tests only on submissions that
+ * parse and to measure code coverage only if the tests pass.
+ * <p>
+ * Nodes whose dependencies are satisfied run in parallel on the
+ * {@link Autograder}'s shared grading threads, with the timeout and
+ * deadline of the caller's {@link GradingContext}. Dependencies must be
+ * added before their dependents, so the graph is always acyclic.
+ * <p>
+ * Here is an example:
+ * <pre>
+ *     GradingGraph graph = new GradingGraph();
+ *     GradingGraph.Node syntax = graph.add(syntaxGrader, target);
+ *     GradingGraph.Node tests = graph.add(junitTester)
+ *             .after(syntax, GradingGraph.Gate.NO_ERRORS);
+ *     graph.add(coverageTester).after(tests, GradingGraph.Gate.ALL_PASSED);
+ *     List&lt;Result&gt; results = graph.run();
+ * </pre>
+ */
+public final class GradingGraph {
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * A condition on the results of a dependency that must hold for a
+     * dependent node to run.
+     */
+    public enum Gate {
+        /**
+         * The dependency ran, regardless of its results.
+         */
+        COMPLETED("did not run", results -> true),
+
+        /**
+         * The dependency ran without producing any {@link ExceptionResult}s,
+         * such as those produced when a submission cannot be parsed.
+         */
+        NO_ERRORS("had errors",
+                results -> results.stream().noneMatch(ExceptionResult.class::isInstance)),
+
+        /**
+         * The dependency ran, and every one of its results earned full credit.
+         */
+        ALL_PASSED("did not fully pass", results -> NO_ERRORS.isSatisfiedBy(results)
+                && results.stream().allMatch(r -> r.getScore() == r.getMaxScore()));
+
+        private final String failureDescription;
+        private final Predicate<List<Result>> predicate;
+
+        Gate(final String failureDescription, final Predicate<List<Result>> predicate) {
+            this.failureDescription = failureDescription;
+            this.predicate = predicate;
+        }
+
+        private boolean isSatisfiedBy(final List<Result> results) {
+            return predicate.test(results);
+        }
+    }
+
+    // The outcome of running (or skipping) a node.
+    private record Outcome(List<Result> results, boolean skipped) {
+    }
+
+    /**
+     * A grader or tester in a {@link GradingGraph}.
+     */
+    @SuppressWarnings("PMD.ShortClassName")
+    public final class Node {
+        private final String name;
+        private final Callable<List<Result>> task;
+        // Makes the result if this node is skipped, given the reason.
+        private final Function<String, Result> notRun;
+        private final Map<Node, Gate> dependencies = new LinkedHashMap<>(); // NOPMD (one thread)
+
+        private Node(
+                final String name,
+                final Callable<List<Result>> task,
+                final Function<String, Result> notRun) {
+            this.name = name;
+            this.task = task;
+            this.notRun = notRun;
+        }
+
+        /**
+         * Gets the name of this node.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Makes this node depend on another node, which must have been
+         * added to the same graph before this one.
+         *
+         * @param dependency the node that must run first
+         * @param gate       the condition on the dependency's results for
+         *                   this node to run
+         * @return this node
+         * @throws ClientException if the dependency is not an earlier node
+         *                         of the same graph
+         */
+        public Node after(final Node dependency, final Gate gate) {
+            final int index = nodes.indexOf(dependency);
+            if (index < 0 || index >= nodes.indexOf(this)) {
+                throw new ClientException(
+                        "Dependency " + dependency.name + " must be added to the graph before " + name);
+            }
+            dependencies.put(dependency, gate);
+            return this;
+        }
+
+        private Outcome run(final Map<Node, Outcome> outcomes) {
+            for (final Map.Entry<Node, Gate> entry : dependencies.entrySet()) {
+                final Node dependency = entry.getKey();
+                final Outcome outcome = outcomes.get(dependency);
+                if (outcome.skipped) {
+                    return skip(dependency.name + " did not run");
+                }
+                final Gate gate = entry.getValue();
+                if (!gate.isSatisfiedBy(outcome.results)) {
+                    return skip(dependency.name + " " + gate.failureDescription);
+                }
+            }
+            try {
+                return new Outcome(task.call(), false);
+            } catch (Exception e) { // NOPMD
+                // Misuse of the API is reported to the caller.
+                if (e instanceof ClientException clientException) { // NOPMD
+                    throw clientException;
+                }
+                return new Outcome(List.of(Result.makeError(name, e)), false);
+            }
+        }
+
+        private Outcome skip(final String reason) {
+            return new Outcome(List.of(notRun.apply(reason)), true);
+        }
+    }
+
+    /**
+     * Creates an empty grading graph.
+     */
+    public GradingGraph() {
+        // Nodes are added with the add() methods.
+    }
+
+    private Node add(
+            final String name,
+            final Callable<List<Result>> task,
+            final Function<String, Result> notRun) {
+        final Node node = new Node(name, task, notRun);
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * Adds a node that runs a grader on the specified targets. If the node
+     * is skipped, its "not run" result is worth the grader's maximum score
+     * (see {@link Grader#getMaxScore(Target...)}).
+     *
+     * @param grader  the grader
+     * @param targets the targets
+     * @return the new node
+     */
+    public Node add(final Grader grader, final Target... targets) {
+        return add(grader.getName(), () -> grader.grade(targets),
+                reason -> grader.makeNotRunResult(reason, targets));
+    }
+
+    /**
+     * Adds a node that runs a tester. Its name is the name of the class
+     * of the tester.
+     *
+     * @param tester the tester
+     * @return the new node
+     */
+    public Node add(final Tester tester) {
+        return add(tester.getClass().getSimpleName(), tester);
+    }
+
+    /**
+     * Adds a node that runs a tester (see {@link Tester#runTimed(String)}).
+     *
+     * @param name   the name of the node, used in "not run" and timeout
+     *               results
+     * @param tester the tester
+     * @return the new node
+     */
+    public Node add(final String name, final Tester tester) {
+        return add(name, () -> tester.runTimed(name), reason -> Result.makeNotRun(name, reason));
+    }
+
+    /**
+     * Runs the graph. Graders and testers run on the {@link Autograder}'s
+     * shared grading threads, so at most {@link Autograder#numThreads}
+     * CPU-intensive nodes run at once.
+     *
+     * @return the results of all nodes, in the order the nodes were added
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    public List<Result> run() {
+        // Nodes run in the caller's context, whichever thread runs them.
+        final GradingContext context = GradingContext.current();
+        // The nodes only wait for the graders and testers they start.
+        final Executor coordinator = Autograder.getInstance().getCoordinator()::execute;
+        final Map<Node, Outcome> outcomes = new ConcurrentHashMap<>();
+        final Map<Node, CompletableFuture<Void>> futures = new HashMap<>(); // NOPMD (one thread)
+        for (final Node node : nodes) {
+            final CompletableFuture<?>[] dependencyFutures = node.dependencies.keySet()
+                    .stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture<?>[]::new);
+            futures.put(node, CompletableFuture.allOf(dependencyFutures).thenRunAsync(
+                    () -> outcomes.put(node, context.apply(() -> node.run(outcomes))), coordinator));
+        }
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ClientException clientException) {
+                throw clientException;
+            }
+            throw e;
+        }
+        return nodes.stream()
+                .flatMap(node -> outcomes.get(node).results.stream())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,135 @@
+package com.spertus.jacquard.common;
+
+import java.lang.management.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measurements of the resources used by one call to {@link Grader#grade}
+ * or {@link Tester#run()}. These are attached to the call's results
+ * (see {@link Result#getMetrics()}) and collected in the
+ * {@link MetricsReport} of the {@link Autograder}. They are intended for
+ * instructors and are never shown to students.
+ * <p>
+ * CPU time and allocated bytes are measured on the thread that did the
+ * work, using {@link ThreadMXBean}. If the JVM does not support these
+ * measurements, if the work timed out, or if it was done in a worker JVM
+ * (see {@link WorkerPool}), they are {@link #UNAVAILABLE}, and only the
+ * wall-clock time is measured.
+ */
+@SuppressWarnings("PMD.DataClass")
+public final class GradingMetrics {
+    /**
+     * The value of a measurement that could not be made.
+     */
+    public static final long UNAVAILABLE = -1;
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    /**
+     * Creates metrics with the specified measurements.
+     *
+     * @param name           the name of the grader or tester
+     * @param wallNanos      the elapsed wall-clock time in nanoseconds
+     * @param cpuNanos       the CPU time in nanoseconds, or
+     *                       {@link #UNAVAILABLE}
+     * @param allocatedBytes the number of bytes allocated, or
+     *                       {@link #UNAVAILABLE}
+     */
+    public GradingMetrics(
+            final String name,
+            final long wallNanos,
+            final long cpuNanos,
+            final long allocatedBytes) {
+        this.name = name;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Runs code that produces results on the current thread, recording its
+     * metrics as {@link Tester#run()} does. The metrics are attached to the
+     * results and added to the {@link Autograder}'s {@link MetricsReport}.
+     * This is for code that is neither a {@link Grader} nor a
+     * {@link Tester}, such as a
+     * {@link com.spertus.jacquard.crosstester.CrossTester}.
+     *
+     * @param name the name under which to record the metrics
+     * @param work the code that produces the results
+     * @return the results
+     */
+    public static List<Result> measure(final String name, final Supplier<List<Result>> work) {
+        final ResourceUsage usage = new ResourceUsage(name);
+        return usage.finish(usage.run(work));
+    }
+
+    /**
+     * Gets the name of the grader or tester that was measured.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the elapsed wall-clock time.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Gets the CPU time used by the thread doing the work.
+     *
+     * @return the time in nanoseconds, or {@link #UNAVAILABLE}
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the thread doing the work.
+     *
+     * @return the number of bytes, or {@link #UNAVAILABLE}
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: wall %d ms, cpu %d ms, allocated %d bytes",
+                name,
+                TimeUnit.NANOSECONDS.toMillis(wallNanos),
+                cpuNanos == UNAVAILABLE ? UNAVAILABLE : TimeUnit.NANOSECONDS.toMillis(cpuNanos),
+                allocatedBytes);
+    }
+
+    /* default */ static long getCurrentThreadCpuNanos() {
+        if (THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled()) {
+            return THREAD_BEAN.getCurrentThreadCpuTime();
+        }
+        return UNAVAILABLE;
+    }
+
+    /* default */ static long getCurrentThreadAllocatedBytes() {
+        // This is supported by HotSpot and OpenJ9 but not part of the
+        // standard ThreadMXBean interface.
+        if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()
+                && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return UNAVAILABLE;
+    }
+}
@@ -0,0 +1,149 @@
+package com.spertus.jacquard.common;
+
+import com.spertus.jacquard.exceptions.ClientException;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sequence of graders, each with a time budget, to be run within a total
+ * time limit. Budgets may be fixed (a number of milliseconds) or weighted
+ * (a share of the time not reserved for fixed budgets). Weighted budgets
+ * are computed just before each grader runs from the time actually
+ * remaining, so time left over by fast graders rolls over to later ones.
+ * <p>
+ * The total time is the time remaining before the deadline of the current
+ * {@link GradingContext} (see {@link Autograder.Builder#deadline(long)}),
+ * further limited by the total passed to the constructor, if any. If there
+ * is no limit, weighted graders use the context's ordinary
+ * {@link GradingContext#timeoutMillis}.
+ * Graders that cannot be started before time runs out produce "not run"
+ * results.
+ */
+public final class GradingSchedule {
+    private static final String OUT_OF_TIME_REASON = "the time for grading ran out";
+
+    private final long totalMillis;
+    private final List<Entry> entries = new ArrayList<>();
+
+    private record Entry(Grader grader, double weight, long fixedMillis) {
+        private boolean isFixed() {
+            return fixedMillis > 0;
+        }
+    }
+
+    /**
+     * Creates a schedule limited only by the {@link Autograder} deadline.
+     */
+    public GradingSchedule() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a schedule with the specified total time, which is also
+     * limited by the {@link Autograder} deadline.
+     *
+     * @param totalMillis the total number of milliseconds for all graders
+     * @throws ClientException if {@code totalMillis} is not positive
+     */
+    public GradingSchedule(final long totalMillis) {
+        if (totalMillis <= 0) {
+            throw new ClientException("totalMillis must be positive");
+        }
+        this.totalMillis = totalMillis;
+    }
+
+    /**
+     * Adds a grader whose budget is a share of the available time,
+     * proportional to its weight.
+     *
+     * @param grader the grader
+     * @param weight the weight of the grader
+     * @return this schedule
+     * @throws ClientException if {@code weight} is not positive
+     */
+    public GradingSchedule addWeighted(final Grader grader, final double weight) {
+        if (weight <= 0) {
+            throw new ClientException("weight must be positive");
+        }
+        entries.add(new Entry(grader, weight, 0));
+        return this;
+    }
+
+    /**
+     * Adds a grader with a fixed budget, which is shortened only if less
+     * time than that remains.
+     *
+     * @param grader      the grader
+     * @param fixedMillis the budget in milliseconds
+     * @return this schedule
+     * @throws ClientException if {@code fixedMillis} is not positive
+     */
+    public GradingSchedule addFixed(final Grader grader, final long fixedMillis) {
+        if (fixedMillis <= 0) {
+            throw new ClientException("fixedMillis must be positive");
+        }
+        entries.add(new Entry(grader, 0, fixedMillis));
+        return this;
+    }
+
+    /**
+     * Runs the graders in the order in which they were added.
+     *
+     * @param targets the targets to grade
+     * @return the results of all the graders
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    public List<Result> grade(final List<Target> targets) {
+        return grade(targets.toArray(new Target[0]));
+    }
+
+    /**
+     * Runs the graders in the order in which they were added.
+     *
+     * @param targets the targets to grade
+     * @return the results of all the graders
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    public List<Result> grade(final Target... targets) {
+        final GradingContext context = GradingContext.current();
+        final long startNanos = System.nanoTime();
+        final List<Result> results = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            final Entry entry = entries.get(i);
+            final long elapsedMillis =
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            final long availableMillis = Math.min(
+                    totalMillis == Long.MAX_VALUE ? Long.MAX_VALUE : totalMillis - elapsedMillis,
+                    context.getRemainingMillis());
+            if (availableMillis <= 0) {
+                results.add(entry.grader.makeNotRunResult(OUT_OF_TIME_REASON, targets));
+            } else if (availableMillis == Long.MAX_VALUE) {
+                results.addAll(entry.grader.grade(
+                        entry.isFixed() ? entry.fixedMillis : context.timeoutMillis,
+                        targets));
+            } else {
+                results.addAll(entry.grader.grade(getBudget(i, availableMillis), targets));
+            }
+        }
+        return results;
+    }
+
+    // Computes the budget for the entry at the given index, which is
+    // never more than the available time or less than 1 ms.
+    private long getBudget(final int index, final long availableMillis) {
+        final Entry entry = entries.get(index);
+        if (entry.isFixed()) {
+            return Math.min(entry.fixedMillis, availableMillis);
+        }
+        long reservedMillis = 0;
+        double remainingWeight = 0;
+        for (final Entry later : entries.subList(index, entries.size())) {
+            reservedMillis += later.fixedMillis;
+            remainingWeight += later.weight;
+        }
+        final long budget = (long) ((availableMillis - reservedMillis)
+                * entry.weight / remainingWeight);
+        return Math.max(1, Math.min(budget, availableMillis));
+    }
+}
@@ -0,0 +1,90 @@
+package com.spertus.jacquard.common;
+
+import java.util.*;
+
+/**
+ * The {@link GradingMetrics} for the graders and testers run with an
+ * {@link Autograder}, in the order in which they finished. Only the most
+ * recent {@link #CAPACITY} are kept, so a long-lived autograder (such as
+ * one used by a {@link com.spertus.jacquard.batch.BatchAutograder}) does
+ * not keep using more memory. Older metrics are discarded but still count
+ * toward {@link #getTotalWallNanos()}.
+ *
+ * @see Autograder#getMetricsReport()
+ * @see com.spertus.jacquard.publisher.GradescopePublisher#publishMetrics(MetricsReport)
+ */
+public final class MetricsReport {
+    /**
+     * The maximum number of metrics kept.
+     */
+    public static final int CAPACITY = 10_000;
+
+    // Guarded by metrics.
+    private final Deque<GradingMetrics> metrics = new ArrayDeque<>();
+    private long discardedCount;
+    private long discardedWallNanos;
+
+    /* default */ MetricsReport() {
+        // Instances are created by Autograder.
+    }
+
+    /* default */ void add(final GradingMetrics entry) {
+        synchronized (metrics) {
+            if (metrics.size() == CAPACITY) {
+                final GradingMetrics oldest = metrics.removeFirst();
+                discardedCount++;
+                discardedWallNanos += oldest.getWallNanos();
+            }
+            metrics.addLast(entry);
+        }
+    }
+
+    /**
+     * Gets a copy of the metrics collected so far, except any that were
+     * discarded to stay within {@link #CAPACITY}.
+     *
+     * @return the metrics
+     */
+    public List<GradingMetrics> getMetrics() {
+        synchronized (metrics) {
+            return List.copyOf(metrics);
+        }
+    }
+
+    /**
+     * Gets the number of metrics discarded to stay within
+     * {@link #CAPACITY}.
+     *
+     * @return the number of metrics discarded
+     */
+    public long getDiscardedCount() {
+        synchronized (metrics) {
+            return discardedCount;
+        }
+    }
+
+    /**
+     * Gets the total wall-clock time of all the graders and testers,
+     * including those whose metrics were discarded. This may exceed the
+     * elapsed time if they ran in parallel.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalWallNanos() {
+        synchronized (metrics) {
+            return discardedWallNanos
+                    + metrics.stream().mapToLong(GradingMetrics::getWallNanos).sum();
+        }
+    }
+
+    /**
+     * Discards the metrics collected so far.
+     */
+    public void clear() {
+        synchronized (metrics) {
+            metrics.clear();
+            discardedCount = 0;
+            discardedWallNanos = 0;
+        }
+    }
+}
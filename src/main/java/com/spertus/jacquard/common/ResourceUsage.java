@@ -0,0 +1,89 @@
+package com.spertus.jacquard.common;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Records the wall-clock time, CPU time, and memory allocation of a grader
+ * or tester call, which may run on another thread, and produces
+ * {@link GradingMetrics} from them.
+ */
+/* default */ final class ResourceUsage {
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    // These are written by the thread doing the work.
+    private volatile long cpuNanos = GradingMetrics.UNAVAILABLE; // NOPMD
+    private volatile long allocatedBytes = GradingMetrics.UNAVAILABLE; // NOPMD
+
+    /**
+     * Starts recording resource usage, including wall-clock time.
+     *
+     * @param name the name of the grader or tester
+     */
+    /* default */ ResourceUsage(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Wraps a callable so the CPU time and memory allocation of its
+     * thread are recorded. The callable should be called at most once.
+     *
+     * @param callable the callable
+     * @param <T>      the return type of the callable
+     * @return the wrapped callable
+     */
+    /* default */ <T> Callable<T> wrap(final Callable<T> callable) {
+        return () -> {
+            final long startCpu = GradingMetrics.getCurrentThreadCpuNanos();
+            final long startAllocated = GradingMetrics.getCurrentThreadAllocatedBytes();
+            try {
+                return callable.call();
+            } finally {
+                record(startCpu, startAllocated);
+            }
+        };
+    }
+
+    /**
+     * Gets a value from a supplier on the current thread, recording the
+     * CPU time and memory allocation. This should be called at most once.
+     *
+     * @param supplier the supplier
+     * @param <T>      the type of the value
+     * @return the value
+     */
+    /* default */ <T> T run(final Supplier<T> supplier) {
+        final long startCpu = GradingMetrics.getCurrentThreadCpuNanos();
+        final long startAllocated = GradingMetrics.getCurrentThreadAllocatedBytes();
+        try {
+            return supplier.get();
+        } finally {
+            record(startCpu, startAllocated);
+        }
+    }
+
+    private void record(final long startCpu, final long startAllocated) {
+        if (startCpu != GradingMetrics.UNAVAILABLE) {
+            cpuNanos = GradingMetrics.getCurrentThreadCpuNanos() - startCpu;
+        }
+        if (startAllocated != GradingMetrics.UNAVAILABLE) {
+            allocatedBytes = GradingMetrics.getCurrentThreadAllocatedBytes() - startAllocated;
+        }
+    }
+
+    /**
+     * Stops recording, attaches the metrics to the results, and adds them
+     * to the {@link Autograder}'s {@link MetricsReport}.
+     *
+     * @param results the results produced by the work
+     * @return the results
+     */
+    /* default */ List<Result> finish(final List<Result> results) {
+        final GradingMetrics metrics = new GradingMetrics(
+                name, System.nanoTime() - startNanos, cpuNanos, allocatedBytes);
+        results.forEach(result -> result.setMetrics(metrics));
+        Autograder.getInstance().getMetricsReport().add(metrics);
+        return results;
+    }
+}
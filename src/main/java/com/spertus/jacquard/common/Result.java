@@ -1,6 +1,7 @@
 package com.spertus.jacquard.common;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.json.*;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -18,6 +19,7 @@ public class Result {
     private final double maxScore;
     private final String message;
     private Visibility visibility;
+    private GradingMetrics metrics;
 
     /**
      * Creates a result with the specified properties.
@@ -52,8 +54,8 @@ public class Result {
     }
 
     /**
-     * Creates a result with the visibility level specified in
-     * {@link Autograder#visibility}.
+     * Creates a result with the visibility level of the current
+     * {@link GradingContext}.
      *
      * @param name     the name of the checker
      * @param score    the actual score
@@ -65,7 +67,7 @@ public class Result {
             final double score,
             final double maxScore,
             final String message) {
-        this(name, score, maxScore, message, Autograder.getInstance().visibility);
+        this(name, score, maxScore, message, GradingContext.current().visibility);
     }
 
     /**
@@ -133,6 +135,54 @@ public class Result {
         return this;
     }
 
+    /**
+     * Gets the metrics of the grader or tester call that produced this
+     * result, if they were recorded. Metrics are for instructors and are
+     * not published to students.
+     *
+     * @return the metrics, if any
+     */
+    public Optional<GradingMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    /* default */ void setMetrics(final GradingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Converts this result to JSON, such as to store or transmit it. The
+     * metrics are not included.
+     *
+     * @return a JSON representation of this result
+     * @see #fromJson(JSONObject)
+     */
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("name", name)
+                .put("score", score)
+                .put("maxScore", maxScore)
+                .put("message", message)
+                .put("visibility", visibility.name());
+    }
+
+    /**
+     * Creates a result from its JSON representation.
+     *
+     * @param json the JSON representation produced by {@link #toJson()}
+     * @return the result
+     * @throws JSONException            if a property is missing
+     * @throws IllegalArgumentException if the visibility is invalid
+     */
+    public static Result fromJson(final JSONObject json) {
+        return new Result(
+                json.getString("name"),
+                json.getDouble("score"),
+                json.getDouble("maxScore"),
+                json.getString("message"),
+                Visibility.valueOf(json.getString("visibility")));
+    }
+
     @Override
     public boolean equals(final Object other) {
         if (other instanceof Result result) {
@@ -161,8 +211,33 @@ public class Result {
     }
 
     /**
-     * Makes a result with the provided score and message with the visibility level specified in
-     * {@link Autograder#visibility}.
+     * Makes a result indicating that a grader was not run, such as because
+     * the grading deadline had passed. It is worth no points.
+     *
+     * @param name   the name
+     * @param reason the reason the grader was not run
+     * @return a result
+     */
+    public static Result makeNotRun(final String name, final String reason) {
+        return makeNotRun(name, reason, 0);
+    }
+
+    /**
+     * Makes a result indicating that a grader was not run, such as because
+     * the grading deadline had passed. None of its points are earned.
+     *
+     * @param name     the name
+     * @param reason   the reason the grader was not run
+     * @param maxScore the number of points possible
+     * @return a result
+     */
+    public static Result makeNotRun(final String name, final String reason, final double maxScore) {
+        return new Result(name, 0, maxScore, "Not run: " + reason);
+    }
+
+    /**
+     * Makes a result with the provided score and message with the visibility level of the
+     * current {@link GradingContext}.
      *
      * @param name        the name
      * @param actualScore the number of points earned
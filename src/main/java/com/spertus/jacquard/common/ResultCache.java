@@ -0,0 +1,230 @@
+package com.spertus.jacquard.common;
+
+import com.spertus.jacquard.exceptions.ClientException;
+import org.json.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * An on-disk cache of {@link Grader} results, so that files that are
+ * resubmitted unchanged are not graded again. Results are keyed by the
+ * grader's class, name, and configuration (see
+ * {@link Grader#getConfigurationKey()}), the Java level and visibility of
+ * the current {@link GradingContext}, and the path and SHA-256 hash of the
+ * contents of each target. Graders that grade each target separately (see
+ * {@link Grader#isPerTarget()}) are looked up one target at a time, so
+ * unchanged files are not regraded even if other files have changed.
+ * <p>
+ * The cache is opt-in (see {@link Autograder.Builder#resultCache(Path)}).
+ * Results with errors, including timeouts, are never stored. Graders that
+ * read rule files should include their hashes (see
+ * {@link #hashFileOrResource(String)}) in their configuration keys. Other
+ * resources are not hashed, so the cache directory should be specific to
+ * one version of the autograder, such as a directory mounted into its
+ * container.
+ */
+public final class ResultCache {
+    // This should be changed whenever the key or file format changes.
+    private static final String FORMAT_VERSION = "1";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String SUFFIX = ".json";
+    private static final char SEPARATOR = '\0';
+
+    private final Path directory;
+
+    /**
+     * Creates a cache that stores results in the specified directory,
+     * creating the directory if needed.
+     *
+     * @param directory the directory
+     * @throws ClientException if the directory cannot be created
+     */
+    public ResultCache(final Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ClientException("Unable to create result cache directory " + directory, e);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the directory in which results are stored.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets a callable for grading the targets that uses stored results if
+     * there are any. If the grader grades each target independently, each
+     * target is looked up separately.
+     *
+     * @param grader           the grader
+     * @param configurationKey the grader's configuration key
+     * @param targets          the targets
+     * @return the callable
+     */
+    /* default */ Callable<List<Result>> getCallable(
+            final Grader grader,
+            final String configurationKey,
+            final Target... targets) {
+        if (targets.length == 1) {
+            return wrap(grader, configurationKey, grader.getCallableSingleTarget(targets[0]), targets);
+        }
+        if (!grader.isPerTarget()) {
+            return wrap(grader, configurationKey, grader.getCallableMultiTarget(targets), targets);
+        }
+        final List<Callable<List<Result>>> callables = new ArrayList<>(targets.length);
+        for (final Target target : targets) {
+            callables.add(wrap(grader, configurationKey, grader.getCallableSingleTarget(target), target));
+        }
+        return () -> {
+            final List<Result> results = new ArrayList<>();
+            for (final Callable<List<Result>> callable : callables) {
+                results.addAll(callable.call());
+            }
+            return results;
+        };
+    }
+
+    /**
+     * Wraps a callable so that it returns stored results if there are any
+     * for the grader and targets and otherwise stores the results it
+     * produces. The key is computed when the wrapped callable is called,
+     * so it reflects the {@link GradingContext} in effect then.
+     *
+     * @param grader           the grader
+     * @param configurationKey the grader's configuration key
+     * @param callable         the callable that grades the targets
+     * @param targets          the targets
+     * @return the wrapped callable
+     */
+    private Callable<List<Result>> wrap(
+            final Grader grader,
+            final String configurationKey,
+            final Callable<List<Result>> callable,
+            final Target... targets) {
+        return () -> {
+            final Optional<Path> file = getFile(grader, configurationKey, targets);
+            if (file.isPresent()) {
+                final Optional<List<Result>> stored = read(file.get());
+                if (stored.isPresent()) {
+                    return stored.get();
+                }
+            }
+            final List<Result> results = callable.call();
+            if (file.isPresent() && results.stream().noneMatch(ExceptionResult.class::isInstance)) {
+                write(file.get(), results);
+            }
+            return results;
+        };
+    }
+
+    // Returns empty if any target cannot be read as a file, such as if
+    // it is a directory.
+    private Optional<Path> getFile(
+            final Grader grader,
+            final String configurationKey,
+            final Target... targets) throws NoSuchAlgorithmException {
+        final GradingContext context = GradingContext.current();
+        final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        update(digest, FORMAT_VERSION);
+        update(digest, grader.getClass().getName());
+        update(digest, grader.getName());
+        update(digest, configurationKey);
+        update(digest, String.valueOf(context.javaLevel));
+        update(digest, context.visibility.name());
+        for (final Target target : targets) {
+            if (!Files.isRegularFile(target.toPath())) {
+                return Optional.empty();
+            }
+            try {
+                update(digest, target.toPathString());
+                update(digest, hash(Files.readAllBytes(target.toPath())));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+        final String key = HexFormat.of().formatHex(digest.digest());
+        return Optional.of(directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX));
+    }
+
+    /**
+     * Gets the SHA-256 hash of the contents of a file or, if there is no
+     * such file, of a resource on the class path. Graders can include this
+     * in their configuration keys so that results are not reused after a
+     * rule file is edited.
+     *
+     * @param path the path of the file or the name of the resource
+     * @return the hash in hexadecimal, or empty if neither can be read
+     */
+    public static Optional<String> hashFileOrResource(final String path) {
+        try {
+            final Path file = Path.of(path);
+            if (Files.isRegularFile(file)) {
+                return Optional.of(hash(Files.readAllBytes(file)));
+            }
+            try (var in = Thread.currentThread().getContextClassLoader().getResourceAsStream(path)) {
+                return in == null ? Optional.empty() : Optional.of(hash(in.readAllBytes()));
+            }
+        } catch (IOException | InvalidPathException | NoSuchAlgorithmException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String hash(final byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance(HASH_ALGORITHM).digest(bytes));
+    }
+
+    private static void update(final MessageDigest digest, final String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) SEPARATOR);
+    }
+
+    // A missing or unreadable file is treated as a cache miss.
+    private static Optional<List<Result>> read(final Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            final JSONArray array = new JSONObject(Files.readString(file)).getJSONArray("results");
+            final List<Result> results = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                results.add(Result.fromJson(array.getJSONObject(i)));
+            }
+            return Optional.of(results);
+        } catch (IOException | JSONException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    // The cache is only an optimization, so failure to write is ignored.
+    // Results are written to a temporary file and moved into place so
+    // that concurrent readers never see a partial file.
+    private static void write(final Path file, final List<Result> results) {
+        final JSONArray array = new JSONArray();
+        for (final Result result : results) {
+            array.put(result.toJson());
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            final Path temp = Files.createTempFile(file.getParent(), null, SUFFIX);
+            try {
+                Files.writeString(temp, new JSONObject().put("results", array).toString());
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) { // NOPMD
+            // The results will be computed again next time.
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.spertus.jacquard.common;
 
+import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.exceptions.TimeoutException;
+
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
  * The superclass for JUnit-based testers.
@@ -18,4 +23,103 @@ public abstract class Tester {
      * @return the results
      */
     public abstract List<Result> run();
+
+    /**
+     * Runs the tests on the {@link Autograder}'s shared grading threads,
+     * stopping them when the timeout of the current {@link GradingContext}
+     * expires or its deadline passes, whichever is first. If there is
+     * neither a timeout nor a deadline, the tests are run on the current
+     * thread. If the tests do not finish, a single error result is
+     * returned. If the deadline passes before they start, a "not run"
+     * result is returned. The tests are run with the caller's context class
+     * loader, which JUnit uses to find tests in packages.
+     *
+     * @param name the name of the result if the tests do not run or finish
+     * @return the results
+     * @throws ClientException if {@link Autograder} has not been initialized
+     */
+    public List<Result> runTimed(final String name) {
+        final GradingContext context = GradingContext.current();
+        if (context.getRemainingMillis() == 0) {
+            return List.of(Result.makeNotRun(name, Grader.DEADLINE_REASON));
+        }
+        if (context.timeoutMillis == 0 && context.getDeadlineNanos().isEmpty()) {
+            return run();
+        }
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        try {
+            return Autograder.getInstance().getExecutor(true).call(
+                    context.wrap(() -> runWithLoader(loader)),
+                    context.timeoutMillis == 0 ? Long.MAX_VALUE : context.timeoutMillis,
+                    context.getDeadlineNanos());
+        } catch (GradingExecutor.DeadlinePassedException e) {
+            return List.of(Result.makeNotRun(name, Grader.DEADLINE_REASON));
+        } catch (InterruptedException e) {
+            // Let the caller, such as a cancelled task, see the interrupt.
+            Thread.currentThread().interrupt();
+            return List.of(Result.makeError(name,
+                    new TimeoutException("Tests were interrupted", e)));
+        } catch (java.util.concurrent.TimeoutException | ExecutionException | CancellationException e) {
+            return List.of(makeUnfinishedResult(name, e));
+        }
+    }
+
+    // Runs the tests with the given context class loader.
+    private List<Result> runWithLoader(final ClassLoader loader) {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader originalLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            return run();
+        } finally {
+            thread.setContextClassLoader(originalLoader);
+        }
+    }
+
+    // Makes the result of tests that timed out, were cancelled, or threw
+    // an exception.
+    private static Result makeUnfinishedResult(final String name, final Exception exception) {
+        final Throwable cause = exception instanceof ExecutionException && exception.getCause() != null
+                ? exception.getCause() : exception;
+        if (cause instanceof ClientException clientException) {
+            throw clientException;
+        }
+        if (cause instanceof GradingExecutor.AbandonedTaskException) {
+            return Result.makeError(name, new TimeoutException("Tests timed out. " + cause.getMessage(), cause));
+        }
+        if (cause instanceof java.util.concurrent.TimeoutException) {
+            return Result.makeError(name, new TimeoutException("Tests timed out"));
+        }
+        if (cause instanceof CancellationException) {
+            return Result.makeError(name, new TimeoutException("Tests did not finish. " + cause.getMessage(), cause));
+        }
+        return Result.makeError(name, cause);
+    }
+
+    /**
+     * Runs the tests on the current thread, recording their
+     * {@link GradingMetrics}, which are attached to the results and added
+     * to the {@link Autograder}'s {@link MetricsReport}. Subclasses should
+     * call this from {@link #run()}.
+     *
+     * @param tests the code that runs the tests and produces the results
+     * @return the results
+     */
+    protected final List<Result> measure(final Supplier<List<Result>> tests) {
+        return GradingMetrics.measure(getClass().getSimpleName(), tests);
+    }
+
+    /**
+     * Runs tests elsewhere, such as in a worker JVM (see {@link WorkerPool}),
+     * recording only the wall-clock time in their {@link GradingMetrics}.
+     * The CPU time and allocation of the current thread, which only waits
+     * for the tests, are not recorded, so they are
+     * {@link GradingMetrics#UNAVAILABLE}.
+     *
+     * @param tests the code that runs the tests and produces the results
+     * @return the results
+     */
+    protected final List<Result> measureWallClock(final Supplier<List<Result>> tests) {
+        return new ResourceUsage(getClass().getSimpleName()).finish(tests.get());
+    }
 }
@@ -0,0 +1,143 @@
+package com.spertus.jacquard.common;
+
+import com.spertus.jacquard.batch.SubmissionClassLoader;
+import org.json.*;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The entry point of worker JVMs started by a {@link WorkerPool}. A worker
+ * reads requests from standard input and writes responses to standard
+ * output, one JSON object per line, until standard input is closed. Each
+ * request names a {@link WorkerTask} and gives its input. The response
+ * holds the task's output or error and whether the task left the worker
+ * unfit for reuse. A request may also give a class path, such as that of a
+ * submission, from which the task's context class loader loads classes. It may be preceded by any number of progress reports,
+ * which are sent as soon as the task makes them.
+ * <p>
+ * Because standard output is used for responses, what code in the worker
+ * prints to {@link System#out} goes to standard error, and
+ * {@link System#in} is empty.
+ */
+public final class WorkerMain {
+    /* default */ static final String READY = "ready";
+    /* default */ static final String TASK = "task";
+    /* default */ static final String INPUT = "input";
+    /* default */ static final String OUTPUT = "output";
+    /* default */ static final String ERROR = "error";
+    /* default */ static final String CONTAMINATED = "contaminated";
+    /* default */ static final String PROGRESS = "progress";
+    /* default */ static final String CLASS_PATH = "classPath";
+
+    private WorkerMain() {
+    }
+
+    /**
+     * Runs a worker.
+     *
+     * @param args the Java level, visibility, and parallel test setting of
+     *             the autograder
+     * @throws IOException if standard input or output fails
+     */
+    public static void main(final String[] args) throws IOException {
+        // The standard streams are not closed, since they are used until exit.
+        final BufferedReader requests = new BufferedReader( // NOPMD
+                new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        final PrintStream responses = new PrintStream( // NOPMD
+                new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8); // NOPMD
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        System.setOut(System.err);
+        final Streams streams = new Streams(System.in, System.out, System.err);
+
+        Autograder.Builder.getInstance()
+                .javaLevel(Integer.parseInt(args[0]))
+                .visibility(Visibility.valueOf(args[1]))
+                .parallelTests(Boolean.parseBoolean(args[2]))
+                .timeout(0)
+                .build();
+        // Warm up the JUnit launcher, which is what tasks spend the most
+        // time starting.
+        Autograder.getInstance().getLauncher().execute(LauncherDiscoveryRequestBuilder.request().build());
+        responses.println(new JSONObject().put(READY, true));
+
+        String line = requests.readLine();
+        while (line != null) {
+            responses.println(handle(new JSONObject(line), streams, responses)); // NOPMD (one per request)
+            line = requests.readLine();
+        }
+    }
+
+    // The standard streams the worker set up.
+    private record Streams(InputStream in, PrintStream out, PrintStream err) {
+        private boolean areCurrent() {
+            return System.in == in && System.out == out && System.err == err; // NOPMD (identity)
+        }
+    }
+
+    private static JSONObject handle(
+            final JSONObject request,
+            final Streams streams,
+            final PrintStream responses) {
+        final Set<Thread> threadsBefore = Thread.getAllStackTraces().keySet();
+        final JSONObject response = new JSONObject();
+        boolean contaminated = false;
+        try {
+            response.put(OUTPUT, runTask(request, responses));
+        } catch (Exception e) { // NOPMD (reported to the autograder)
+            response.put(ERROR, e.toString());
+        } catch (Error e) { // NOPMD (such as OutOfMemoryError)
+            response.put(ERROR, e.toString());
+            contaminated = true;
+        }
+        return response.put(CONTAMINATED, contaminated
+                || !streams.areCurrent()
+                || hasLeftoverThreads(threadsBefore));
+    }
+
+    // Runs the task of a request with a context class loader for its class
+    // path, if it has one.
+    private static JSONObject runTask(
+            final JSONObject request,
+            final PrintStream responses) throws Exception { // NOPMD (reported to the autograder)
+        final WorkerTask task = (WorkerTask) Class.forName(request.getString(TASK))
+                .getConstructor()
+                .newInstance();
+        final JSONArray classPath = request.optJSONArray(CLASS_PATH, new JSONArray());
+        final URL[] urls = new URL[classPath.length()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = new URI(classPath.getString(i)).toURL();
+        }
+        final Thread thread = Thread.currentThread();
+        final ClassLoader originalLoader = thread.getContextClassLoader();
+        try (SubmissionClassLoader loader = new SubmissionClassLoader(
+                "worker", urls, WorkerMain.class.getClassLoader())) { // NOPMD (shares Jacquard and JUnit)
+            thread.setContextClassLoader(loader);
+            // PrintStream is synchronized, so tasks may report from any thread.
+            return task.run(
+                    request.getJSONObject(INPUT),
+                    progress -> responses.println(new JSONObject().put(PROGRESS, progress)));
+        } finally {
+            thread.setContextClassLoader(originalLoader);
+        }
+    }
+
+    // Checks whether threads started by a task are still running, such as
+    // threads started by student code or abandoned when tests timed out.
+    // The threads of JUnit's parallel executor are ignored because they
+    // may not have finished stopping.
+    private static boolean hasLeftoverThreads(final Set<Thread> threadsBefore) {
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!threadsBefore.contains(thread)
+                    && thread.isAlive()
+                    && !(thread instanceof ForkJoinWorkerThread)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,398 @@
+package com.spertus.jacquard.common;
+
+import com.spertus.jacquard.batch.SubmissionClassLoader;
+import com.spertus.jacquard.exceptions.*;
+import org.json.*;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A pool of worker JVMs in which {@link Tester}s can run student tests, so
+ * that calls to {@link System#exit(int)}, changes to static state, and
+ * runaway threads affect only a worker, not the autograder. Workers are
+ * started when the pool is created and warm up their JUnit launchers while
+ * the autograder does other work, so running tests in a worker does not
+ * pay for JVM startup.
+ * <p>
+ * A worker is replaced by a new one after {@link Autograder#workerMaxRuns}
+ * tasks, or sooner if a task leaves it contaminated (such as by leaving
+ * threads running or replacing the standard streams) or exits it. A worker
+ * is killed if a task goes longer than the timeout of the current
+ * {@link GradingContext} without reporting progress (see
+ * {@link WorkerTask#run(JSONObject, Consumer)}), if it runs past the
+ * deadline, or if the worker does not start within
+ * {@link #STARTUP_TIMEOUT_MS}.
+ * <p>
+ * The pool is created and owned by the {@link Autograder} (see
+ * {@link Autograder.Builder#workerJvms(int)}).
+ *
+ * @see WorkerTask
+ */
+public final class WorkerPool implements AutoCloseable {
+    /**
+     * The number of milliseconds a worker may take to start before it is
+     * killed.
+     */
+    public static final long STARTUP_TIMEOUT_MS = 60_000L;
+
+    private final List<String> command;
+    private final int maxRuns;
+    // Each permit allows the use of one worker, which may need to be started.
+    private final Semaphore permits;
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed; // NOPMD
+
+    /**
+     * A worker JVM, which is used by one task at a time.
+     */
+    private static final class Worker {
+        private final Process process;
+        private final Writer requests;
+        // Lines of output, followed by empty when the worker exits.
+        private final BlockingQueue<Optional<String>> responses = new LinkedBlockingQueue<>();
+        private boolean ready;
+        private int runs;
+
+        private Worker(final List<String> command) throws IOException {
+            process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            requests = new BufferedWriter(
+                    new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            final Thread reader = new Thread(this::readResponses, "jacquard-worker-" + process.pid());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void readResponses() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                while (line != null) {
+                    responses.add(Optional.of(line));
+                    line = reader.readLine();
+                }
+            } catch (IOException e) { // NOPMD
+                // The worker was killed.
+            } finally {
+                responses.add(Optional.empty());
+            }
+        }
+
+        // Returns null if the timeout elapses first.
+        private Optional<String> receive(final long timeoutMillis) throws InterruptedException {
+            return timeoutMillis == Long.MAX_VALUE
+                    ? responses.take()
+                    : responses.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void awaitReady() throws InterruptedException, InternalException {
+            if (!ready) {
+                final Optional<String> line = receive(STARTUP_TIMEOUT_MS);
+                if (line == null) { // NOPMD (null means the wait timed out)
+                    throw new InternalException(
+                            "Worker JVM did not start within " + STARTUP_TIMEOUT_MS + " ms");
+                }
+                if (line.isEmpty()) {
+                    throw new InternalException("Worker JVM exited while starting");
+                }
+                ready = true;
+            }
+        }
+
+        // Waits for the next message from the worker.
+        private JSONObject receiveMessage(final GradingContext context)
+                throws InterruptedException, TimeoutException, SubmissionException {
+            final long timeoutMillis = getTimeoutMillis(context);
+            final Optional<String> line = receive(timeoutMillis);
+            if (line == null) { // NOPMD (null means the wait timed out)
+                throw new TimeoutException(
+                        "Operation timed out after " + timeoutMillis + " ms, so its worker JVM was stopped");
+            }
+            if (line.isEmpty()) {
+                throw new SubmissionException(
+                        "Worker JVM exited while running tests, such as because System.exit() was called");
+            }
+            return new JSONObject(line.get());
+        }
+
+        // Sends a request, passes progress reports to the consumer, and
+        // returns the response. Each message must arrive within the timeout.
+        private JSONObject call(
+                final JSONObject request,
+                final Consumer<JSONObject> progress,
+                final GradingContext context)
+                throws IOException, InterruptedException, TimeoutException, SubmissionException {
+            requests.write(request.toString());
+            requests.write('\n');
+            requests.flush();
+            JSONObject message = receiveMessage(context);
+            while (message.has(WorkerMain.PROGRESS)) {
+                progress.accept(message.getJSONObject(WorkerMain.PROGRESS));
+                message = receiveMessage(context);
+            }
+            runs++;
+            return message;
+        }
+
+        private void destroy() {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Creates a pool and starts its workers.
+     *
+     * @param size       the number of workers
+     * @param maxRuns    the number of tasks after which a worker is replaced
+     * @param javaLevel  the Java level of the autograder
+     * @param visibility    the visibility of the autograder
+     * @param parallelTests whether the autograder runs tests in parallel
+     */
+    /* default */ WorkerPool(
+            final int size,
+            final int maxRuns,
+            final int javaLevel,
+            final Visibility visibility,
+            final boolean parallelTests) {
+        command = List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp",
+                System.getProperty("java.class.path"),
+                WorkerMain.class.getName(),
+                String.valueOf(javaLevel),
+                visibility.name(),
+                String.valueOf(parallelTests));
+        this.maxRuns = maxRuns;
+        permits = new Semaphore(size);
+        for (int i = 0; i < size; i++) {
+            prestart();
+        }
+    }
+
+    private Worker start() throws IOException {
+        final Worker worker = new Worker(command);
+        workers.add(worker);
+        return worker;
+    }
+
+    // Starts a worker ahead of time. If it cannot be started, another will
+    // be started when needed.
+    private void prestart() {
+        try {
+            idle.add(start());
+        } catch (IOException e) { // NOPMD
+            // This will be reported if starting fails again when needed.
+        }
+    }
+
+    private Worker take() throws InterruptedException, InternalException {
+        permits.acquire();
+        final Worker worker = idle.poll();
+        if (worker != null) {
+            return worker;
+        }
+        try {
+            return start();
+        } catch (IOException e) {
+            permits.release();
+            throw new InternalException("Unable to start worker JVM", e);
+        }
+    }
+
+    private void release(final Worker worker, final boolean reusable) {
+        if (reusable && !closed) {
+            idle.add(worker);
+        } else {
+            worker.destroy();
+            workers.remove(worker);
+            if (!closed) {
+                prestart();
+            }
+        }
+        permits.release();
+    }
+
+    /**
+     * Gets the class path from which workers would load classes from the
+     * same places as this JVM did. Classes on the classpath need nothing
+     * more, so the class path is empty if all the class loaders are the
+     * system class loader. Classes loaded by a {@link SubmissionClassLoader},
+     * such as those of a submission graded by a
+     * {@link com.spertus.jacquard.batch.BatchAutograder}, are loaded in the
+     * worker by a class loader of the same type for the same locations.
+     * Workers cannot load classes from any other class loader, or from the
+     * class loaders of more than one submission.
+     *
+     * @param loaders the class loaders of the classes
+     * @return the class path, or an empty optional if workers cannot load
+     * the classes
+     * @see #run(Class, JSONObject, List, Consumer)
+     */
+    public static Optional<List<URL>> getClassPath(final ClassLoader... loaders) {
+        final ClassLoader systemLoader = ClassLoader.getSystemClassLoader();
+        SubmissionClassLoader submissionLoader = null; // NOPMD (owned by the caller)
+        for (final ClassLoader loader : loaders) {
+            if (loader == systemLoader) { // NOPMD (identity)
+                continue;
+            }
+            if (!(loader instanceof SubmissionClassLoader submission)
+                    || submission.getParent() != systemLoader // NOPMD (identity)
+                    || submissionLoader != null && submissionLoader != submission) { // NOPMD (identity)
+                return Optional.empty();
+            }
+            submissionLoader = submission;
+        }
+        return Optional.of(submissionLoader == null ? List.of() : List.of(submissionLoader.getURLs()));
+    }
+
+    // Gets how long to wait for the next message from a task: the timeout
+    // of the context, but not past the deadline.
+    private static long getTimeoutMillis(final GradingContext context) {
+        return Math.min(
+                context.timeoutMillis == 0 ? Long.MAX_VALUE : context.timeoutMillis,
+                context.getRemainingMillis());
+    }
+
+    /**
+     * Runs a task in a worker, waiting for a worker to become available if
+     * all are in use. The task is stopped if it exceeds the timeout of the
+     * current {@link GradingContext} or the time remaining before the
+     * deadline.
+     *
+     * @param task  the task
+     * @param input the input to the task
+     * @return the output of the task
+     * @throws TimeoutException    if the task timed out and its worker was
+     *                             killed
+     * @throws SubmissionException if the worker exited during the task,
+     *                             such as because student code called
+     *                             {@link System#exit(int)}
+     * @throws InternalException   if the task failed or the worker could
+     *                             not be used
+     * @throws ClientException     if this pool has been closed
+     */
+    public JSONObject run(final Class<? extends WorkerTask> task, final JSONObject input)
+            throws TimeoutException, SubmissionException, InternalException {
+        return run(task, input, progress -> {
+        });
+    }
+
+    /**
+     * Runs a task in a worker, passing the progress it reports (see
+     * {@link WorkerTask#run(JSONObject, Consumer)}) to a consumer on the
+     * current thread as it arrives. The task is stopped if it goes longer
+     * than the timeout of the current {@link GradingContext} without
+     * reporting progress, or if it runs past the deadline. Progress
+     * received before the task was stopped has already been passed to the
+     * consumer.
+     *
+     * @param task     the task
+     * @param input    the input to the task
+     * @param progress the consumer of progress reports
+     * @return the output of the task
+     * @throws TimeoutException    if the task timed out and its worker was
+     *                             killed
+     * @throws SubmissionException if the worker exited during the task,
+     *                             such as because student code called
+     *                             {@link System#exit(int)}
+     * @throws InternalException   if the task failed or the worker could
+     *                             not be used
+     * @throws ClientException     if this pool has been closed
+     */
+    public JSONObject run(
+            final Class<? extends WorkerTask> task,
+            final JSONObject input,
+            final Consumer<JSONObject> progress)
+            throws TimeoutException, SubmissionException, InternalException {
+        return run(task, input, List.of(), progress);
+    }
+
+    /**
+     * Runs a task in a worker, as {@link #run(Class, JSONObject, Consumer)}
+     * does, with a class path from which the worker loads classes the task
+     * uses that are not on the classpath. The class path is used as the
+     * context class loader of the task (see {@link #getClassPath}).
+     *
+     * @param task      the task
+     * @param input     the input to the task
+     * @param classPath the locations of classes not on the classpath,
+     *                  which may be empty
+     * @param progress  the consumer of progress reports
+     * @return the output of the task
+     * @throws TimeoutException    if the task timed out and its worker was
+     *                             killed
+     * @throws SubmissionException if the worker exited during the task,
+     *                             such as because student code called
+     *                             {@link System#exit(int)}
+     * @throws InternalException   if the task failed or the worker could
+     *                             not be used
+     * @throws ClientException     if this pool has been closed
+     */
+    public JSONObject run(
+            final Class<? extends WorkerTask> task,
+            final JSONObject input,
+            final List<URL> classPath,
+            final Consumer<JSONObject> progress)
+            throws TimeoutException, SubmissionException, InternalException {
+        if (closed) {
+            throw new ClientException("The worker pool has been closed.");
+        }
+        final GradingContext context = GradingContext.current();
+        Worker worker = null;
+        boolean reusable = false;
+        try {
+            worker = take();
+            // Time only the task, not the worker's startup.
+            worker.awaitReady();
+            final JSONObject request = new JSONObject()
+                    .put(WorkerMain.TASK, task.getName())
+                    .put(WorkerMain.INPUT, input);
+            if (!classPath.isEmpty()) {
+                request.put(WorkerMain.CLASS_PATH, classPath.stream().map(URL::toString).toList());
+            }
+            final JSONObject response = worker.call(
+                    request,
+                    progress,
+                    context);
+            reusable = !response.getBoolean(WorkerMain.CONTAMINATED) && worker.runs < maxRuns;
+            if (response.has(WorkerMain.ERROR)) {
+                throw new InternalException(response.getString(WorkerMain.ERROR));
+            }
+            return response.getJSONObject(WorkerMain.OUTPUT);
+        } catch (IOException | JSONException e) {
+            throw new InternalException("Unable to communicate with worker JVM", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalException("Interrupted while waiting for worker JVM", e);
+        } finally {
+            if (worker != null) {
+                release(worker, reusable);
+            }
+        }
+    }
+
+    /**
+     * Kills all workers. Tasks in progress fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (final Worker worker : workers) {
+            worker.destroy();
+        }
+        workers.clear();
+        idle.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package com.spertus.jacquard.common;
+
+import org.json.JSONObject;
+
+import java.util.function.Consumer;
+
+/**
+ * Work, such as running tests, that can be done in a worker JVM (see
+ * {@link WorkerPool}). Implementations are instantiated by name in the
+ * worker, so they must be public and have a public no-argument
+ * constructor. The input and output are passed between JVMs as JSON.
+ */
+public interface WorkerTask {
+    /**
+     * Does the work in the worker JVM.
+     *
+     * @param input the input sent by the autograder
+     * @return the output to send back to the autograder
+     * @throws Exception if the work cannot be done
+     */
+    JSONObject run(JSONObject input) throws Exception; // NOPMD (any failure is reported)
+
+    /**
+     * Does the work in the worker JVM, reporting progress as it goes. Each
+     * report is sent to the autograder immediately, so it is received even
+     * if the worker is stopped before the work is done. The default
+     * implementation calls {@link #run(JSONObject)} without reporting
+     * progress.
+     *
+     * @param input    the input sent by the autograder
+     * @param progress the consumer to which to pass reports of progress
+     * @return the output to send back to the autograder
+     * @throws Exception if the work cannot be done
+     * @see WorkerPool#run(Class, JSONObject, Consumer)
+     */
+    default JSONObject run(
+            final JSONObject input,
+            final Consumer<JSONObject> progress) throws Exception { // NOPMD (any failure is reported)
+        return run(input);
+    }
+}
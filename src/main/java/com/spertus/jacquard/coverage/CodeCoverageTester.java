@@ -2,25 +2,41 @@ package com.spertus.jacquard.coverage;
 
 import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.jfr.*;
 import org.jacoco.core.analysis.*;
 import org.jacoco.core.data.*;
 import org.jacoco.core.instr.Instrumenter;
 import org.jacoco.core.runtime.*;
+import org.json.JSONObject;
 import org.junit.platform.engine.DiscoverySelector;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
-import org.junit.platform.launcher.Launcher;
-import org.junit.platform.launcher.core.LauncherFactory;
 
 import java.io.*;
+import java.net.URL;
 import java.util.*;
 
 import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
 
 /**
  * A grader that uses Jacoco to measure code coverage of tests.
+ * <p>
+ * If the {@link Autograder} has worker JVMs (see
+ * {@link Autograder.Builder#workerJvms(int)}), the coverage is measured in
+ * one of them rather than in the autograder's JVM, and only the scoring is
+ * done in the autograder. Classes loaded from a submission's class path,
+ * such as by a {@link com.spertus.jacquard.batch.BatchAutograder}, are
+ * loaded from the same class path in the worker (see
+ * {@link WorkerPool#getClassPath}). If the classes were loaded in some
+ * other way, {@link #run()} throws a {@link ClientException} rather than
+ * measuring coverage in the autograder's JVM.
  */
 public class CodeCoverageTester extends Tester {
     private static final String GRADER_NAME = "code coverage grader";
+    private static final String NAME = "name";
+    private static final String CLASS_UNDER_TEST = "classUnderTest";
+    private static final String TEST_CLASS = "testClass";
+    private static final String BRANCH_COVERAGE = "branchCoverage";
+    private static final String LINE_COVERAGE = "lineCoverage";
     private final String name;
     private final Scorer scorer;
     private final Class<?> classUnderTest;
@@ -63,20 +79,52 @@ public class CodeCoverageTester extends Tester {
         this(GRADER_NAME, scorer, classUnderTest, testClass);
     }
 
+    // The coverage ratios of the class under test.
+    private record Coverage(double branchCoverage, double lineCoverage) {
+    }
+
+    /**
+     * Measures code coverage in a worker JVM. This is used by
+     * CodeCoverageTester and need not be used directly.
+     */
+    public static final class RemoteTask implements WorkerTask {
+        /**
+         * Creates a task.
+         */
+        public RemoteTask() { // NOPMD (instantiated reflectively)
+        }
+
+        @Override
+        public JSONObject run(final JSONObject input) throws Exception { // NOPMD
+            // The context class loader loads the classes of a submission.
+            final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            final Coverage coverage = new CodeCoverageTester(
+                    input.getString(NAME),
+                    null,
+                    Class.forName(input.getString(CLASS_UNDER_TEST), true, loader),
+                    Class.forName(input.getString(TEST_CLASS), true, loader)).getCoverage();
+            return new JSONObject()
+                    .put(BRANCH_COVERAGE, coverage.branchCoverage())
+                    .put(LINE_COVERAGE, coverage.lineCoverage());
+        }
+    }
+
     private void instrument(
             final Instrumenter instrumenter,
             final MemoryClassLoader memoryClassLoader,
             final Class<?> clazz)
             throws IOException {
-        try (InputStream is = readClassFile(clazz.getName())) {
+        try (InputStream is = readClassFile(clazz)) {
             final byte[] instrumented = instrumenter.instrument(is, clazz.getName());
             memoryClassLoader.addDefinition(clazz.getName(), instrumented);
         }
     }
 
-    private static InputStream readClassFile(final String name) {
-        final String resource = '/' + name.replace('.', '/') + ".class";
-        return CodeCoverageTester.class.getResourceAsStream(resource);
+    // Reads a class file from where the class was loaded, which may be a
+    // submission's class path.
+    private static InputStream readClassFile(final Class<?> clazz) {
+        final String resource = clazz.getName().replace('.', '/') + ".class";
+        return clazz.getClassLoader().getResourceAsStream(resource); // NOPMD (where the class was loaded)
     }
 
     private void runJUnitTests(
@@ -92,8 +140,7 @@ public class CodeCoverageTester extends Tester {
     }
 
     private static int executeTests(final List<? extends DiscoverySelector> selectors) {
-        final Launcher launcher = LauncherFactory.create();
-        launcher.execute(request().selectors(selectors).build());
+        Autograder.getInstance().getLauncher().execute(request().selectors(selectors).build());
         return 0;
     }
 
@@ -109,13 +156,19 @@ public class CodeCoverageTester extends Tester {
         final String testClassName = testClass.getName();
         final IRuntime runtime = new LoggerRuntime();
         final Instrumenter instrumenter = new Instrumenter(runtime);
-        final MemoryClassLoader memoryClassLoader = new MemoryClassLoader();
+        // Classes that are not instrumented come from where the tests did.
+        final MemoryClassLoader memoryClassLoader = new MemoryClassLoader(testClass.getClassLoader()); // NOPMD (where the tests were loaded)
 
         // Instrument the classes and add them to memoryClassLoader.
+        final CoverageInstrumentEvent instrumentEvent = new CoverageInstrumentEvent();
+        instrumentEvent.begin();
         instrument(instrumenter, memoryClassLoader, classUnderTest); // throws IOException
         instrument(instrumenter, memoryClassLoader, testClass); // throws IOException
+        instrumentEvent.finish(name, cutName, "instrumented");
 
         // Start data recording and run tests.
+        final CoverageCollectEvent collectEvent = new CoverageCollectEvent();
+        collectEvent.begin();
         final RuntimeData data = new RuntimeData(); // throws Exception
         runtime.startup(data); // throws Exception
         final Class<?> instrumentedTestClass = memoryClassLoader.loadClass(testClassName);
@@ -126,13 +179,19 @@ public class CodeCoverageTester extends Tester {
         final SessionInfoStore sessionInfos = new SessionInfoStore();
         data.collect(executionData, sessionInfos, false);
         runtime.shutdown();
+        collectEvent.finish(name, testClassName, "collected");
 
         // Calculate coverage.
+        final CoverageAnalyzeEvent analyzeEvent = new CoverageAnalyzeEvent();
+        analyzeEvent.begin();
         final CoverageBuilder coverageBuilder = new CoverageBuilder();
         final Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
-        try (InputStream is = readClassFile(cutName)) {
+        try (InputStream is = readClassFile(classUnderTest)) {
             analyzer.analyzeClass(is, cutName);
         }
+        if (analyzeEvent.isEnabled()) {
+            analyzeEvent.finish(name, cutName, coverageBuilder.getClasses().size() + " classes analyzed");
+        }
 
         // Return coverage of the class under test.
         if (coverageBuilder.getClasses().size() == 1) {
@@ -142,24 +201,63 @@ public class CodeCoverageTester extends Tester {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ClientException if the {@link Autograder} has worker JVMs but
+     *                         they cannot load the classes
+     */
     @Override
     public List<Result> run() {
+        final Optional<WorkerPool> pool = Autograder.getInstance().getWorkerPool();
+        if (pool.isEmpty()) {
+            return measure(() -> runCoverage(null, null));
+        }
+        final Optional<List<URL>> classPath = WorkerPool.getClassPath(
+                classUnderTest.getClassLoader(), testClass.getClassLoader()); // NOPMD (where the classes were loaded)
+        if (classPath.isEmpty()) {
+            throw new ClientException(
+                    "Code coverage cannot be measured in a worker JVM because the classes were not loaded "
+                            + "from the classpath or a submission's class path.");
+        }
+        return measureWallClock(() -> runCoverage(pool.get(), classPath.get()));
+    }
+
+    // Measures coverage in the pool's worker, with the class path, or in
+    // this JVM if the pool is null.
+    private List<Result> runCoverage(final WorkerPool pool, final List<URL> classPath) {
         try {
-            final IClassCoverage cc = calculateCoverage();
-            double branchCoverage = cc.getBranchCounter().getCoveredRatio();
-            // Branch coverage could be NaN if the class under test had no code.
-            if (!Double.isFinite(branchCoverage)) {
-                branchCoverage = 1.0;
-            }
-            // Line coverage could be NaN if the class under test had no code.
-            double lineCoverage = cc.getLineCounter().getCoveredRatio();
-            if (!Double.isFinite(lineCoverage)) {
-                lineCoverage = 1.0;
-            }
+            final Coverage coverage = pool == null ? getCoverage() : getCoverageInWorker(pool, classPath);
             return List.of(
-                    scorer.getResult(name, branchCoverage, lineCoverage));
+                    scorer.getResult(name, coverage.branchCoverage(), coverage.lineCoverage()));
         } catch (Exception e) { // NOPMD
             return List.of(Result.makeError("Unable to test code coverage (jacoco)", e));
         }
     }
+
+    private Coverage getCoverage() throws Exception { // NOPMD
+        final IClassCoverage cc = calculateCoverage();
+        double branchCoverage = cc.getBranchCounter().getCoveredRatio();
+        // Branch coverage could be NaN if the class under test had no code.
+        if (!Double.isFinite(branchCoverage)) {
+            branchCoverage = 1.0;
+        }
+        // Line coverage could be NaN if the class under test had no code.
+        double lineCoverage = cc.getLineCounter().getCoveredRatio();
+        if (!Double.isFinite(lineCoverage)) {
+            lineCoverage = 1.0;
+        }
+        return new Coverage(branchCoverage, lineCoverage);
+    }
+
+    private Coverage getCoverageInWorker(final WorkerPool pool, final List<URL> classPath)
+            throws TimeoutException, SubmissionException, InternalException {
+        final JSONObject input = new JSONObject()
+                .put(NAME, name)
+                .put(CLASS_UNDER_TEST, classUnderTest.getName())
+                .put(TEST_CLASS, testClass.getName());
+        final JSONObject output = pool.run(RemoteTask.class, input, classPath, progress -> {
+        });
+        return new Coverage(output.getDouble(BRANCH_COVERAGE), output.getDouble(LINE_COVERAGE));
+    }
 }
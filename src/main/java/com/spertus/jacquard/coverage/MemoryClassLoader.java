@@ -25,6 +25,23 @@ public class MemoryClassLoader extends ClassLoader {
 
     private final Map<String, byte[]> definitions = new ConcurrentHashMap<>();
 
+    /**
+     * Creates a class loader whose parent is the system class loader.
+     */
+    public MemoryClassLoader() {
+        super();
+    }
+
+    /**
+     * Creates a class loader that asks a parent for classes it was not
+     * given definitions of.
+     *
+     * @param parent the parent class loader
+     */
+    public MemoryClassLoader(final ClassLoader parent) {
+        super(parent);
+    }
+
     /**
      * Add a in-memory representation of a class.
      *
@@ -1,14 +1,16 @@
 package com.spertus.jacquard.crosstester;
 
+import com.spertus.jacquard.common.Autograder;
+import com.spertus.jacquard.common.GradingMetrics;
 import com.spertus.jacquard.common.Result;
 import com.spertus.jacquard.exceptions.ClientException;
+import com.spertus.jacquard.junittester.OutputCapture;
 import org.junit.platform.engine.*;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
 import org.junit.platform.launcher.*;
 import org.junit.platform.launcher.core.*;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -109,13 +111,18 @@ public class CrossTester {
     }
 
     /**
-     * Runs all the tests as specified in the constructor.
+     * Runs all the tests as specified in the constructor, recording their
+     * {@link GradingMetrics} as testers do.
      *
      * @return the results of the tests
      * @throws ClassNotFoundException if a specified package does not contain
      *                                the expected test class
      */
     public List<Result> run() throws ClassNotFoundException {
+        return GradingMetrics.measure(getClass().getSimpleName(), this::runTests);
+    }
+
+    private List<Result> runTests() {
         final List<TestResult> testResults = new ArrayList<>();
 
         // Create LauncherDiscoveryRequest.
@@ -133,31 +140,43 @@ public class CrossTester {
         }
         LauncherDiscoveryRequest request = builder.build();
 
-        //  Create Launcher.
-        final Launcher launcher = LauncherFactory.create();
-        launcher.registerTestExecutionListeners(new TestExecutionListener() {
-            // TODO: Factor out duplicated code from JUnitTester.
-            private PrintStream ps;
-            private ByteArrayOutputStream baos;
+        // Create listener, which is passed with the request to the shared launcher.
+        final OutputCapture capture = OutputCapture.install();
+        final TestExecutionListener listener = makeListener(capture, testResults);
+
+        // Run tests.
+        try {
+            Autograder.getInstance().getLauncher().execute(request, listener);
+        } finally {
+            OutputCapture.uninstall();
+        }
+
+        // Generate and return results.
+        return generateResults(testResults);
+    }
 
+    // Creates a listener that adds the results of tests to testResults.
+    private TestExecutionListener makeListener(
+            final OutputCapture capture,
+            final List<TestResult> testResults) {
+        return new TestExecutionListener() {
+            // TODO: Factor out duplicated code from JUnitTester.
             @Override
             public void executionStarted(final TestIdentifier testIdentifier) {
-                baos = new ByteArrayOutputStream();
-                if (ps != null) {
-                    ps.close();
+                if (testIdentifier.isTest()) {
+                    capture.begin(testIdentifier.getUniqueId());
                 }
-                ps = new PrintStream(baos, true, StandardCharsets.UTF_8);
-                System.setOut(ps);
-                // TODO: Capture System.err.
             }
 
             @Override
             public void executionFinished(
                     final TestIdentifier testIdentifier,
                     final TestExecutionResult testExecutionResult) {
-                if (!testIdentifier.getType().isTest()) {
+                // Only tests are captured and have results.
+                if (!testIdentifier.isTest()) {
                     return;
                 }
+                final String output = capture.end(testIdentifier.getUniqueId()).trim();
                 final String mutName = Arrays
                         .stream(methodNames)
                         .filter(name -> testIdentifier.getDisplayName().startsWith(name))
@@ -171,7 +190,6 @@ public class CrossTester {
                         break;
                     }
                 }
-                final String output = baos.toString().trim();
                 testResults.add(switch (testExecutionResult.getStatus()) {
                     case SUCCESSFUL -> TestResult.makeSuccess(
                             testIdentifier.getDisplayName(),
@@ -189,21 +207,7 @@ public class CrossTester {
                 });
                 TestExecutionListener.super.executionFinished(testIdentifier, testExecutionResult);
             }
-        });
-
-        // Prepare to mess with streams.
-        final PrintStream originalOut = System.out; // NOPMD
-        final PrintStream originalErr = System.err; // NOPMD
-
-        // Run tests.
-        launcher.execute(request);
-
-        // Restore streams.
-        System.setOut(originalOut);
-        System.setErr(originalErr);
-
-        // Generate and return results.
-        return generateResults(testResults);
+        };
     }
 
     private List<Result> generateResults(final List<TestResult> testResults) {
@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording a run of the checkstyle subprocess.
+ */
+@Name("com.spertus.jacquard.Checkstyle")
+@Label("Checkstyle")
+public final class CheckstyleEvent extends GradingEvent {
+}
@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording the analysis of coverage data by JaCoCo.
+ */
+@Name("com.spertus.jacquard.CoverageAnalyze")
+@Label("JaCoCo Analyze")
+public final class CoverageAnalyzeEvent extends GradingEvent {
+}
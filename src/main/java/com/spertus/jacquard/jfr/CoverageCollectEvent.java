@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording the running of tests and collection of coverage data by JaCoCo.
+ */
+@Name("com.spertus.jacquard.CoverageCollect")
+@Label("JaCoCo Collect")
+public final class CoverageCollectEvent extends GradingEvent {
+}
@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording the instrumentation of classes by JaCoCo.
+ */
+@Name("com.spertus.jacquard.CoverageInstrument")
+@Label("JaCoCo Instrument")
+public final class CoverageInstrumentEvent extends GradingEvent {
+}
@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording a call to {@link com.spertus.jacquard.common.Grader#grade}.
+ */
+@Name("com.spertus.jacquard.Grader")
+@Label("Grader")
+public final class GraderEvent extends GradingEvent {
+}
@@ -0,0 +1,69 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * The superclass of Jacquard's JDK Flight Recorder events. Each event
+ * records the duration of a step of grading, along with the name of the
+ * grader (if the step is done by one), the path of the target, and the
+ * outcome. An event should be created and begun immediately before the
+ * step and finished with {@link #finish(String, String, String)} or
+ * {@link #finish(String, String)} immediately after it. If describing the
+ * target or outcome takes work, callers should check {@link #isEnabled()}
+ * first, so nothing is done when JDK Flight Recorder is not recording.
+ */
+@Category("Jacquard")
+@StackTrace(false)
+public abstract class GradingEvent extends Event {
+    // These fields are not private because JFR does not record private
+    // fields inherited from a superclass.
+
+    /**
+     * The name of the grader or tester, or null if the step was not done
+     * by one.
+     */
+    @Label("Grader")
+    protected String graderName;
+
+    /**
+     * The path of the target, or the empty string.
+     */
+    @Label("Target")
+    @Description("The path of the file or directory being graded")
+    protected String targetPath;
+
+    /**
+     * A description of the outcome.
+     */
+    @Label("Outcome")
+    protected String outcome;
+
+    /**
+     * Ends this event and commits it if it is being recorded.
+     *
+     * @param graderName the name of the grader or tester
+     * @param targetPath the path of the target, or the empty string
+     * @param outcome    a description of the outcome
+     */
+    public void finish(final String graderName, final String targetPath, final String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.graderName = graderName;
+            this.targetPath = targetPath;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    /**
+     * Ends this event and commits it if it is being recorded, leaving the
+     * name of the grader unset. This is for steps not done by a grader or
+     * tester, such as parsing and publishing.
+     *
+     * @param targetPath the path of the target, or the empty string
+     * @param outcome    a description of the outcome
+     */
+    public void finish(final String targetPath, final String outcome) {
+        finish(null, targetPath, outcome);
+    }
+}
@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording the execution of a single JUnit test, from start to finish.
+ */
+@Name("com.spertus.jacquard.JUnitTest")
+@Label("JUnit Test")
+public final class JUnitTestEvent extends GradingEvent {
+}
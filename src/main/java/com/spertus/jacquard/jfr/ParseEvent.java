@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording the parsing of a Java source file.
+ */
+@Name("com.spertus.jacquard.Parse")
+@Label("Parse")
+public final class ParseEvent extends GradingEvent {
+}
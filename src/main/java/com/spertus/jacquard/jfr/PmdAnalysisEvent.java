@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording an analysis by PMD.
+ */
+@Name("com.spertus.jacquard.PmdAnalysis")
+@Label("PMD Analysis")
+public final class PmdAnalysisEvent extends GradingEvent {
+}
@@ -0,0 +1,11 @@
+package com.spertus.jacquard.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * An event recording the publication of results.
+ */
+@Name("com.spertus.jacquard.Publish")
+@Label("Publish")
+public final class PublishEvent extends GradingEvent {
+}
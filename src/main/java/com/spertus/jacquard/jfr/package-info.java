@@ -0,0 +1,8 @@
+/**
+ * JDK Flight Recorder events for the steps of grading. Recording them
+ * (such as by running the autograder with
+ * {@code -XX:StartFlightRecording}) shows where the time of a slow grading
+ * run is spent, without any code changes. The events cost almost nothing
+ * when no recording is in progress.
+ */
+package com.spertus.jacquard.jfr;
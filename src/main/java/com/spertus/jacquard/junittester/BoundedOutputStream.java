@@ -0,0 +1,146 @@
+package com.spertus.jacquard.junittester;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An output stream that keeps only the first and last bytes written to it,
+ * so its memory use is constant no matter how much is written. The bytes
+ * in between are replaced by a marker when the contents are retrieved.
+ * It is thread-safe, since a test may keep printing from a thread that was
+ * abandoned when it timed out.
+ */
+/* default */ final class BoundedOutputStream extends OutputStream {
+    private final byte[] head;
+    private int headLength;
+    // A ring buffer of the most recent bytes written after the head filled.
+    private final byte[] tail;
+    private long tailWritten;
+
+    /**
+     * Creates a stream that keeps the specified numbers of bytes from the
+     * beginning and end of what is written.
+     *
+     * @param headCapacity the number of initial bytes to keep
+     * @param tailCapacity the number of final bytes to keep
+     */
+    /* default */ BoundedOutputStream(final int headCapacity, final int tailCapacity) {
+        super();
+        head = new byte[headCapacity];
+        tail = new byte[tailCapacity];
+    }
+
+    @Override
+    public void write(final int b) {
+        synchronized (this) {
+            if (headLength < head.length) {
+                head[headLength++] = (byte) b;
+            } else if (tail.length > 0) {
+                tail[(int) (tailWritten % tail.length)] = (byte) b;
+                tailWritten++;
+            } else {
+                tailWritten++;
+            }
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        synchronized (this) {
+            final int toHead = Math.min(len, head.length - headLength);
+            System.arraycopy(b, off, head, headLength, toHead);
+            headLength += toHead;
+            int remaining = len - toHead;
+            if (remaining == 0) {
+                return;
+            }
+            tailWritten += remaining;
+            if (tail.length == 0) {
+                return;
+            }
+            // Only the last bytes can end up in the tail.
+            final int skipped = Math.max(0, remaining - tail.length);
+            int from = off + toHead + skipped;
+            remaining -= skipped;
+            int to = (int) ((tailWritten - remaining) % tail.length);
+            while (remaining > 0) {
+                final int chunk = Math.min(remaining, tail.length - to);
+                System.arraycopy(b, from, tail, to, chunk);
+                from += chunk;
+                remaining -= chunk;
+                to = 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the total number of bytes written, including those not kept.
+     *
+     * @return the number of bytes written
+     */
+    /* default */ long size() {
+        synchronized (this) {
+            return headLength + tailWritten;
+        }
+    }
+
+    // Gets the bytes in the tail in the order they were written.
+    private byte[] getTail() {
+        if (tailWritten <= tail.length) {
+            return Arrays.copyOf(tail, (int) tailWritten);
+        }
+        final int start = (int) (tailWritten % tail.length);
+        final byte[] ordered = new byte[tail.length];
+        System.arraycopy(tail, start, ordered, 0, tail.length - start);
+        System.arraycopy(tail, 0, ordered, tail.length - start, start);
+        return ordered;
+    }
+
+    /**
+     * Gets what was written, decoded as UTF-8. If more was written than
+     * could be kept, the omitted bytes are replaced by a line saying how
+     * many there were, and partial characters at either side of it are
+     * dropped.
+     *
+     * @return what was written
+     */
+    @Override
+    public String toString() {
+        synchronized (this) {
+            final byte[] kept = getTail();
+            final long omitted = tailWritten - kept.length;
+            if (omitted == 0) {
+                final byte[] all = Arrays.copyOf(head, headLength + kept.length);
+                System.arraycopy(kept, 0, all, headLength, kept.length);
+                return new String(all, StandardCharsets.UTF_8);
+            }
+            int tailStart = 0;
+            while (tailStart < kept.length && tailStart < 3 && isContinuation(kept[tailStart])) {
+                tailStart++;
+            }
+            return new String(head, 0, getCompleteLength(head, headLength), StandardCharsets.UTF_8)
+                    + "\n...[" + omitted + " bytes omitted]...\n"
+                    + new String(kept, tailStart, kept.length - tailStart, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static boolean isContinuation(final byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    // Gets the length of the longest prefix that does not end in the
+    // middle of a UTF-8 character.
+    private static int getCompleteLength(final byte[] bytes, final int length) {
+        int lead = length - 1;
+        while (lead >= 0 && length - lead < 4 && isContinuation(bytes[lead])) {
+            lead--;
+        }
+        if (lead < 0) {
+            return length;
+        }
+        final int b = bytes[lead] & 0xFF;
+        final int needed = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+        return length - lead >= needed ? length : lead;
+    }
+}
@@ -1,6 +1,7 @@
 package com.spertus.jacquard.junittester;
 
 import com.spertus.jacquard.common.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -17,6 +18,7 @@ import java.lang.annotation.Target;
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
+@ExtendWith(TimeoutWatchdog.class)
 public @interface GradedTest {
     /**
      * The name of the test. If this is not set, the name of the test method
@@ -54,4 +56,15 @@ public @interface GradedTest {
      * @return the visibility level of the test
      */
     Visibility visibility() default Visibility.VISIBLE;
+
+    /**
+     * The maximum number of milliseconds the test may run, or 0 for no
+     * limit. A test that runs longer is interrupted and, if it does not
+     * stop, abandoned, and it fails with a timeout message. The test's
+     * {@code @BeforeEach} and {@code @AfterEach} methods are not included
+     * in the time limit.
+     *
+     * @return the maximum number of milliseconds, or 0 for no limit
+     */
+    long timeoutMillis() default 0;
 }
@@ -3,16 +3,20 @@ package com.spertus.jacquard.junittester;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.jfr.JUnitTestEvent;
 
+import org.json.*;
 import org.junit.platform.engine.*;
 import org.junit.platform.engine.discovery.*;
 import org.junit.platform.engine.support.descriptor.MethodSource;
 import org.junit.platform.launcher.*;
 import org.junit.platform.launcher.core.*;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.groupingBy;
@@ -21,10 +25,49 @@ import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.r
 
 /**
  * A tester that runs JUnit tests having the {@link GradedTest} annotation.
+ * <p>
+ * If {@link Autograder.Builder#parallelTests(boolean)} is enabled, tests
+ * annotated with {@code @Execution(ExecutionMode.CONCURRENT)} are run
+ * concurrently. Otherwise, tests are run one at a time. The output of each
+ * test, to both {@link System#out} and {@link System#err}, is captured
+ * separately (see {@link OutputCapture}), even when tests run
+ * concurrently.
+ * <p>
+ * If the {@link Autograder} has worker JVMs (see
+ * {@link Autograder.Builder#workerJvms(int)}), the tests are run in one of
+ * them rather than in the autograder's JVM. Tests loaded from a
+ * submission's class path, such as by a
+ * {@link com.spertus.jacquard.batch.BatchAutograder}, are loaded from the
+ * same class path in the worker (see {@link WorkerPool#getClassPath}). If
+ * the tests were loaded in some other way, they cannot be run in a worker,
+ * so {@link #run()} throws a {@link ClientException} rather than running
+ * them in the autograder's JVM. The result of each test is sent back
+ * as soon as the test finishes, so if the worker is stopped, such as
+ * because a test timed out or called {@link System#exit(int)}, the tests
+ * that finished keep their results, and only those that did not are
+ * failed. Only the wall-clock time of tests run in a worker is measured
+ * (see {@link GradingMetrics}).
  */
 public class JUnitTester extends Tester {
+    private static final String PARALLEL_ENABLED = "junit.jupiter.execution.parallel.enabled";
+    private static final String CLASSES = "classes";
+    private static final String PACKAGE = "package";
+    private static final String INCLUDE_SUBPACKAGES = "includeSubpackages";
+    // The keys of the progress reported by a Listener in a worker JVM.
+    private static final String PLANNED = "planned";
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String POINTS = "points";
+    private static final String VISIBILITY = "visibility";
+    private static final String RESULT = "result";
+
     private final List<? extends DiscoverySelector> selectors;
     private final DiscoveryFilter<String> filter;
+    // The arguments to the constructor, for recreating this in a worker JVM.
+    private final JSONObject workerInput;
+    // The class path from which a worker JVM would load the same tests, or
+    // null if it could not.
+    private final List<URL> classPath;
 
     /**
      * Constructs a JUnit tester that will run tests in the specified classes.
@@ -37,6 +80,9 @@ public class JUnitTester extends Tester {
                 .map(DiscoverySelectors::selectClass)
                 .toList();
         filter = null;
+        workerInput = new JSONObject().put(CLASSES, Arrays.stream(classes).map(Class::getName).toList());
+        classPath = WorkerPool.getClassPath(
+                Arrays.stream(classes).map(Class::getClassLoader).toArray(ClassLoader[]::new)).orElse(null);
     }
 
     /**
@@ -53,21 +99,145 @@ public class JUnitTester extends Tester {
         filter = includeSubpackages ? null :
                 ClassNameFilter.excludeClassNamePatterns(
                         packageName + "\\.[^.]+\\..*");
+        workerInput = new JSONObject()
+                .put(PACKAGE, packageName)
+                .put(INCLUDE_SUBPACKAGES, includeSubpackages);
+        // Tests in packages are found through the context class loader.
+        classPath = WorkerPool.getClassPath(Thread.currentThread().getContextClassLoader()).orElse(null);
     }
 
+    /**
+     * Runs a {@link JUnitTester} in a worker JVM. This is used by
+     * JUnitTester and need not be used directly.
+     */
+    public static final class RemoteTask implements WorkerTask {
+        /**
+         * Creates a task.
+         */
+        public RemoteTask() { // NOPMD (instantiated reflectively)
+        }
+
+        @Override
+        public JSONObject run(final JSONObject input) throws ClassNotFoundException {
+            return run(input, progress -> {
+            });
+        }
+
+        @Override
+        public JSONObject run(final JSONObject input, final Consumer<JSONObject> progress)
+                throws ClassNotFoundException {
+            final JUnitTester tester;
+            if (input.has(PACKAGE)) {
+                tester = new JUnitTester(input.getString(PACKAGE), input.getBoolean(INCLUDE_SUBPACKAGES));
+            } else {
+                final JSONArray classNames = input.getJSONArray(CLASSES);
+                // The context class loader loads the classes of a submission.
+                final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                final Class<?>[] classes = new Class<?>[classNames.length()];
+                for (int i = 0; i < classes.length; i++) {
+                    classes[i] = Class.forName(classNames.getString(i), true, loader);
+                }
+                tester = new JUnitTester(classes);
+            }
+            // The results are reported as progress.
+            tester.runTests(progress);
+            return new JSONObject();
+        }
+    }
+
+    /**
+     * The results of tests run in a worker JVM, built from the progress
+     * reported by the {@link Listener} there.
+     */
+    private static final class WorkerProgress implements Consumer<JSONObject> {
+        private final List<Result> results = new ArrayList<>();
+        // The graded tests that have not finished, by unique ID.
+        private final Map<String, JSONObject> unfinished = new LinkedHashMap<>(); // NOPMD (used on one thread)
+        private boolean started;
+
+        @Override
+        public void accept(final JSONObject report) {
+            if (report.has(PLANNED)) {
+                started = true;
+                final JSONArray planned = report.getJSONArray(PLANNED);
+                for (int i = 0; i < planned.length(); i++) {
+                    unfinished.put(planned.getJSONObject(i).getString(ID), planned.getJSONObject(i));
+                }
+            } else if (report.has(RESULT)) {
+                unfinished.remove(report.getString(ID));
+                results.add(Result.fromJson(report.getJSONObject(RESULT)));
+            } else {
+                // A test or container was skipped, so its tests will not run.
+                final String id = report.getString(ID);
+                unfinished.keySet().removeIf(key -> key.equals(id) || key.startsWith(id + "/"));
+            }
+        }
+
+        // Gets the results of the tests that finished and failures for the
+        // tests that did not because of the exception.
+        private List<Result> getResults(final Exception e) {
+            for (final JSONObject test : unfinished.values()) {
+                results.add(Result.makeFailure(
+                        test.getString(NAME),
+                        test.getDouble(POINTS),
+                        "Test did not finish: " + e.getMessage(),
+                        Visibility.valueOf(test.getString(VISIBILITY))));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ClientException if the {@link Autograder} has worker JVMs but
+     *                         they cannot load the tests
+     */
     @Override
     public List<Result> run() {
-        final Launcher launcher = LauncherFactory.create();
-        final JUnitTester.Listener listener = new Listener();
-        launcher.registerTestExecutionListeners(listener);
-        final PrintStream originalOut = System.out; // NOPMD
-        LauncherDiscoveryRequestBuilder builder = request().selectors(selectors);
-        if (filter != null) {
-            builder = builder.filters(filter);
-        }
-        launcher.execute(builder.build());
-        System.setOut(originalOut);
-        return processResults(listener.results);
+        final Optional<WorkerPool> pool = Autograder.getInstance().getWorkerPool();
+        if (pool.isEmpty()) {
+            return measure(() -> runTests(null));
+        }
+        if (classPath == null) {
+            throw new ClientException(
+                    "The tests cannot be run in a worker JVM because they were not loaded from "
+                            + "the classpath or a submission's class path.");
+        }
+        return measureWallClock(() -> runTestsInWorker(pool.get()));
+    }
+
+    private List<Result> runTestsInWorker(final WorkerPool pool) {
+        final WorkerProgress progress = new WorkerProgress();
+        try {
+            pool.run(RemoteTask.class, workerInput, classPath, progress);
+            return processResults(progress.results);
+        } catch (TimeoutException | SubmissionException | InternalException e) {
+            if (!progress.started) {
+                return List.of(Result.makeError("Unable to run JUnit tests", e));
+            }
+            return processResults(progress.getResults(e));
+        }
+    }
+
+    // Runs the tests in this JVM. If progress is not null, the tests
+    // planned and the result of each test are reported to it.
+    private List<Result> runTests(final Consumer<JSONObject> progress) {
+        final OutputCapture capture = OutputCapture.install();
+        try {
+            final JUnitTester.Listener listener = new Listener(capture, progress);
+            LauncherDiscoveryRequestBuilder builder = request().selectors(selectors);
+            if (Autograder.getInstance().parallelTests) {
+                builder = builder.configurationParameter(PARALLEL_ENABLED, "true");
+            }
+            if (filter != null) {
+                builder = builder.filters(filter);
+            }
+            Autograder.getInstance().getLauncher().execute(builder.build(), listener);
+            return processResults(listener.results);
+        } finally {
+            OutputCapture.uninstall();
+        }
     }
 
     // Merge results having the same name and visibility
@@ -108,23 +278,88 @@ public class JUnitTester extends Tester {
     }
 
     private static class Listener implements TestExecutionListener { // NOPMD
-        // ArrayList is used so we know it's mutable.
-        private final ArrayList<Result> results = new ArrayList<>();
-        // These get set in executionStarted and used/closed in executionFinished.
-        private PrintStream ps;
-        private ByteArrayOutputStream baos;
+        // Tests may finish concurrently.
+        private final List<Result> results = Collections.synchronizedList(new ArrayList<>());
+        private final OutputCapture capture;
+        // Flight recorder events for tests that have started, by unique ID.
+        private final Map<String, JUnitTestEvent> events = new ConcurrentHashMap<>();
+        // The consumer of progress reports, or null if none are needed.
+        private final Consumer<JSONObject> progress;
+
+        private Listener(final OutputCapture capture, final Consumer<JSONObject> progress) {
+            this.capture = capture;
+            this.progress = progress;
+        }
 
+        // Gets the GradedTest annotation of a test, or null if it has none.
+        private static GradedTest getGradedTest(final TestIdentifier testIdentifier) {
+            if (testIdentifier.isTest()
+                    && testIdentifier.getSource().orElse(null) instanceof MethodSource methodSource) {
+                return methodSource.getJavaMethod().getAnnotation(GradedTest.class);
+            }
+            return null;
+        }
+
+        private static String getName(final GradedTest gt, final TestIdentifier testIdentifier) {
+            return gt.name().isEmpty() ? testIdentifier.getDisplayName() : gt.name();
+        }
+
+        // Reports the graded tests, so those that do not finish can be failed.
+        @Override
+        public void testPlanExecutionStarted(final TestPlan testPlan) {
+            if (progress == null) {
+                return;
+            }
+            final JSONArray planned = new JSONArray();
+            for (final TestIdentifier root : testPlan.getRoots()) {
+                for (final TestIdentifier testIdentifier : testPlan.getDescendants(root)) {
+                    final GradedTest gt = getGradedTest(testIdentifier);
+                    if (gt != null) {
+                        planned.put(new JSONObject() // NOPMD (one per test)
+                                .put(ID, testIdentifier.getUniqueId())
+                                .put(NAME, getName(gt, testIdentifier))
+                                .put(POINTS, gt.points())
+                                .put(VISIBILITY, gt.visibility().name()));
+                    }
+                }
+            }
+            progress.accept(new JSONObject().put(PLANNED, planned));
+        }
+
+        @Override
+        public void executionSkipped(final TestIdentifier testIdentifier, final String reason) {
+            if (progress != null) {
+                progress.accept(new JSONObject().put(ID, testIdentifier.getUniqueId()));
+            }
+        }
+
+        private void add(final TestIdentifier testIdentifier, final Result result) {
+            results.add(result);
+            if (progress != null) {
+                progress.accept(new JSONObject()
+                        .put(ID, testIdentifier.getUniqueId())
+                        .put(RESULT, result.toJson()));
+            }
+        }
+
+        // This is called on the thread that will run the test or container.
         @Override
         public void executionStarted(final TestIdentifier testIdentifier) {
-            baos = new ByteArrayOutputStream();
-            if (ps != null) {
-                ps.close();
+            if (testIdentifier.isTest()) {
+                final JUnitTestEvent event = new JUnitTestEvent();
+                // Events are tracked only while they are being recorded.
+                if (event.isEnabled()) {
+                    event.begin();
+                    events.put(testIdentifier.getUniqueId(), event);
+                }
+                capture.begin(testIdentifier.getUniqueId());
             }
-            ps = new PrintStream(baos, true, StandardCharsets.UTF_8);
-            System.setOut(ps);
         }
 
-        private String makeMessage(final GradedTest gt, final TestExecutionResult teResult) {
+        private String makeMessage(
+                final GradedTest gt,
+                final TestExecutionResult teResult,
+                final String output) {
             final List<String> items = new ArrayList<>();
 
             // First, use description, if present.
@@ -136,11 +371,10 @@ public class JUnitTester extends Tester {
             teResult.getThrowable().ifPresent(value -> items.add(value.toString()));
 
             // Third, include output, if present and supposed to be shown.
-            final String output = baos.toString().trim();
-            if (gt.includeOutput() && !output.isEmpty()) {
+            if (gt.includeOutput() && !output.isBlank()) {
                 items.add("OUTPUT");
                 items.add("======");
-                items.add(output);
+                items.add(output.trim());
             }
             return String.join("\n", items);
         }
@@ -149,30 +383,33 @@ public class JUnitTester extends Tester {
         public void executionFinished(
                 final TestIdentifier testIdentifier,
                 final TestExecutionResult testExecutionResult) {
-            if (testIdentifier.getSource().isPresent()) {
-                final TestSource source = testIdentifier.getSource().get();
-                if (source instanceof MethodSource methodSource) {
-                    final GradedTest gt = methodSource.getJavaMethod().getAnnotation(GradedTest.class);
-                    if (gt != null) {
-                        final String name = gt.name().isEmpty() ? testIdentifier.getDisplayName() : gt.name();
-                        try {
-                            final Result result = switch (testExecutionResult.getStatus()) {
-                                case SUCCESSFUL ->
-                                        Result.makeSuccess(name, gt.points(), makeMessage(gt, testExecutionResult));
-                                case FAILED, ABORTED ->
-                                        Result.makeFailure(name, gt.points(), makeMessage(gt, testExecutionResult));
-                            };
-                            results.add(result.changeVisibility(gt.visibility()));
-                            ps.close();
-                        } catch (NoSuchElementException e) { // if get() failed
-                            results.add(
-                                    Result.makeFailure(
-                                                    name,
-                                                    gt.points(),
-                                                    "Test failed with no additional information")
-                                            .changeVisibility(gt.visibility()));
-                        }
-                    }
+            // Only tests are captured.
+            final String output = testIdentifier.isTest() ? capture.end(testIdentifier.getUniqueId()) : "";
+            final JUnitTestEvent event = events.remove(testIdentifier.getUniqueId());
+            if (event != null) {
+                event.finish(
+                        testIdentifier.getDisplayName(),
+                        testIdentifier.getSource().map(Object::toString).orElse(""),
+                        testExecutionResult.getStatus().toString());
+            }
+            final GradedTest gt = getGradedTest(testIdentifier);
+            if (gt != null) {
+                final String name = getName(gt, testIdentifier);
+                try {
+                    final Result result = switch (testExecutionResult.getStatus()) {
+                        case SUCCESSFUL ->
+                                Result.makeSuccess(name, gt.points(), makeMessage(gt, testExecutionResult, output));
+                        case FAILED, ABORTED ->
+                                Result.makeFailure(name, gt.points(), makeMessage(gt, testExecutionResult, output));
+                    };
+                    add(testIdentifier, result.changeVisibility(gt.visibility()));
+                } catch (NoSuchElementException e) { // if get() failed
+                    add(testIdentifier,
+                            Result.makeFailure(
+                                            name,
+                                            gt.points(),
+                                            "Test failed with no additional information")
+                                    .changeVisibility(gt.visibility()));
                 }
             }
         }
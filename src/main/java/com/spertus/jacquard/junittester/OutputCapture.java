@@ -0,0 +1,215 @@
+package com.spertus.jacquard.junittester;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The capture of what tests print to {@link System#out} and
+ * {@link System#err}. While tests are run, both are replaced by streams
+ * that send what each thread prints to the buffer of the test it is
+ * running, so tests running concurrently do not capture each other's
+ * output. Threads started by a test print to its buffer until the test
+ * ends. Output from other threads goes to the original streams.
+ * <p>
+ * Each call to {@link #install()} returns a separate capture, so testers
+ * running the same tests at once do not share buffers. Within a capture,
+ * buffers are identified by the unique IDs of their tests, so a test's
+ * capture may be ended on a different thread than the one that began it.
+ * <p>
+ * Each test's buffer keeps only the first {@link #HEAD_BYTES} and last
+ * {@link #TAIL_BYTES} bytes printed, so a test that prints without end
+ * uses no more memory than one that prints a little. Together, they fit
+ * within the maximum length of a {@link com.spertus.jacquard.common.Result}
+ * message.
+ * <p>
+ * A single pair of streams is installed no matter how many testers are
+ * running at once, and the original streams are restored when the last of
+ * them finishes.
+ */
+public final class OutputCapture {
+    /**
+     * The number of bytes kept from the beginning of a test's output.
+     */
+    public static final int HEAD_BYTES = 3072;
+
+    /**
+     * The number of bytes kept from the end of a test's output.
+     */
+    public static final int TAIL_BYTES = 3072;
+
+    private static final Object LOCK = new Object();
+    private static Streams installed; // NOPMD (guarded by LOCK)
+    private static int users; // NOPMD (guarded by LOCK)
+
+    private final Streams streams;
+    // The buffers of this capture's tests being run, by unique ID.
+    private final Map<String, BoundedOutputStream> buffers = new ConcurrentHashMap<>();
+
+    private OutputCapture(final Streams streams) {
+        this.streams = streams;
+    }
+
+    /**
+     * The replacements for {@link System#out} and {@link System#err}, which
+     * are shared by all captures.
+     */
+    private static final class Streams {
+        private final PrintStream originalOut;
+        private final PrintStream originalErr;
+        // The buffer to which each thread running a test prints.
+        private final Map<Thread, BoundedOutputStream> threadBuffers = new ConcurrentHashMap<>();
+        // The buffer of the test that was running on each thread when it
+        // began its last test or was started, which is used only while that
+        // test runs.
+        private final InheritableThreadLocal<BoundedOutputStream> inheritedBuffers =
+                new InheritableThreadLocal<>();
+        // The buffers of the tests that have not ended.
+        private final Set<BoundedOutputStream> activeBuffers = ConcurrentHashMap.newKeySet();
+
+        private Streams(final PrintStream originalOut, final PrintStream originalErr) {
+            this.originalOut = originalOut;
+            this.originalErr = originalErr;
+        }
+
+        private PrintStream makeStream(final PrintStream original) {
+            return new PrintStream(new ThreadStream(original), true, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * A stream that writes to the current thread's buffer or the buffer
+         * of the test that started the thread, if any, and otherwise to the
+         * original stream.
+         */
+        private final class ThreadStream extends OutputStream {
+            private final OutputStream original;
+
+            private ThreadStream(final OutputStream original) {
+                super();
+                this.original = original;
+            }
+
+            private OutputStream getTarget() {
+                final BoundedOutputStream buffer = threadBuffers.get(Thread.currentThread());
+                if (buffer != null) {
+                    return buffer;
+                }
+                final BoundedOutputStream inherited = inheritedBuffers.get();
+                return inherited != null && activeBuffers.contains(inherited) ? inherited : original;
+            }
+
+            @Override
+            public void write(final int b) throws IOException {
+                getTarget().write(b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                getTarget().write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                getTarget().flush();
+            }
+        }
+    }
+
+    /**
+     * Installs the capture streams as {@link System#out} and
+     * {@link System#err}, if they are not already installed, and creates a
+     * capture for the caller's tests. Each call must be followed by a call
+     * to {@link #uninstall()}.
+     *
+     * @return a new capture
+     */
+    public static OutputCapture install() {
+        synchronized (LOCK) {
+            if (users == 0) {
+                installed = new Streams(System.out, System.err);
+                System.setOut(installed.makeStream(System.out));
+                System.setErr(installed.makeStream(System.err));
+            }
+            users++;
+            return new OutputCapture(installed);
+        }
+    }
+
+    /**
+     * Restores the original {@link System#out} and {@link System#err} if no
+     * other testers are still using the capture streams.
+     */
+    public static void uninstall() {
+        synchronized (LOCK) {
+            users--;
+            if (users == 0) {
+                System.setOut(installed.originalOut);
+                System.setErr(installed.originalErr);
+                installed = null; // NOPMD (released for garbage collection)
+            }
+        }
+    }
+
+    /**
+     * Wraps a task so that, on whatever thread it is run, what it prints is
+     * captured for the test currently running on this thread, if any.
+     *
+     * @param task the task
+     * @return the wrapped task
+     */
+    /* default */ static Runnable propagate(final Runnable task) {
+        final Streams streams;
+        synchronized (LOCK) {
+            streams = installed;
+        }
+        final BoundedOutputStream buffer = streams == null
+                ? null : streams.threadBuffers.get(Thread.currentThread());
+        if (buffer == null) {
+            return task;
+        }
+        return () -> {
+            final Thread thread = Thread.currentThread();
+            streams.threadBuffers.put(thread, buffer);
+            try {
+                task.run();
+            } finally {
+                streams.threadBuffers.remove(thread, buffer);
+            }
+        };
+    }
+
+    /**
+     * Starts capturing what the current thread, and any threads it starts
+     * before the test ends, print for a test.
+     *
+     * @param id the unique ID of the test
+     */
+    public void begin(final String id) {
+        final BoundedOutputStream buffer = new BoundedOutputStream(HEAD_BYTES, TAIL_BYTES); // NOPMD (in memory)
+        buffers.put(id, buffer);
+        streams.activeBuffers.add(buffer);
+        streams.threadBuffers.put(Thread.currentThread(), buffer);
+        streams.inheritedBuffers.set(buffer);
+    }
+
+    /**
+     * Stops capturing output for a test. This may be called on any thread.
+     * Threads still printing for the test, such as ones it started or ones
+     * abandoned when it timed out, print to the original streams afterward.
+     *
+     * @param id the unique ID of the test
+     * @return what was printed since the test began, with the middle
+     * omitted if it was too long, or the empty string if no capture was
+     * begun for the test
+     */
+    public String end(final String id) {
+        final BoundedOutputStream buffer = buffers.remove(id); // NOPMD (in memory)
+        if (buffer == null) {
+            return "";
+        }
+        streams.activeBuffers.remove(buffer);
+        streams.threadBuffers.values().removeIf(b -> b == buffer); // NOPMD (identity)
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.spertus.jacquard.junittester;
+
+import com.spertus.jacquard.exceptions.TimeoutException;
+import org.junit.jupiter.api.extension.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Enforces {@link GradedTest#timeoutMillis()}. A test with a timeout is run
+ * on its own daemon thread. If it does not finish in time, the thread is
+ * interrupted, and, if the test does not stop promptly (such as a student's
+ * infinite loop that ignores interrupts), it is abandoned. Either way, the
+ * test fails with a {@link TimeoutException}, and the remaining tests are
+ * run. Output from the test's thread is captured as if it were run on the
+ * JUnit thread (see {@link OutputCapture}).
+ * <p>
+ * This is registered by {@link GradedTest} and need not be used directly.
+ */
+/* default */ final class TimeoutWatchdog implements InvocationInterceptor {
+    /**
+     * How long to wait for an interrupted test to stop before abandoning it.
+     */
+    /* default */ static final long INTERRUPT_GRACE_MS = 200L;
+
+    @Override
+    public void interceptTestMethod(
+            final Invocation<Void> invocation,
+            final ReflectiveInvocationContext<Method> invocationContext,
+            final ExtensionContext extensionContext) throws Throwable {
+        final GradedTest gt = invocationContext.getExecutable().getAnnotation(GradedTest.class);
+        if (gt == null || gt.timeoutMillis() <= 0) {
+            invocation.proceed();
+            return;
+        }
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final Thread thread = new Thread(OutputCapture.propagate(() -> {
+            try {
+                invocation.proceed();
+            } catch (Throwable t) { // NOPMD (rethrown on the JUnit thread)
+                thrown.set(t);
+            }
+        }), "jacquard-test-" + extensionContext.getDisplayName());
+        // Abandoned threads must not prevent the JVM from exiting.
+        thread.setDaemon(true);
+        thread.start();
+        thread.join(gt.timeoutMillis());
+        if (thread.isAlive()) {
+            thread.interrupt();
+            thread.join(INTERRUPT_GRACE_MS);
+            throw new TimeoutException(thread.isAlive()
+                    ? "Test timed out after " + gt.timeoutMillis()
+                    + " ms and was abandoned when it did not stop"
+                    : "Test timed out after " + gt.timeoutMillis() + " ms");
+        }
+        if (thrown.get() != null) {
+            throw thrown.get();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.spertus.jacquard.pmdgrader;
 
 import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.exceptions.ClientException;
+import com.spertus.jacquard.jfr.PmdAnalysisEvent;
 import net.sourceforge.pmd.*;
 import net.sourceforge.pmd.lang.*;
 
@@ -20,6 +21,9 @@ public final class PmdGrader extends Grader {
     private final double penaltyPerViolation;
     private final double maxPenalty;
     private final PMDConfiguration configuration;
+    // Identifies the penalties and rules for the result cache, or is null
+    // if a rule set cannot be hashed.
+    private final String configurationKey;
 
     // These are used only if createFromRules() is used.
     private String ruleSetPath;
@@ -41,6 +45,8 @@ public final class PmdGrader extends Grader {
         this.penaltyPerViolation = penaltyPerViolation;
         this.maxPenalty = maxPenalty;
         configuration = createConfiguration();
+        configurationKey = makeConfigurationKey(
+                String.format("%s %s", penaltyPerViolation, maxPenalty), ruleSetPaths);
 
         // Build (and discard) analysis here to fail fast if any paths are invalid.
         try (PmdAnalysis analysis = PmdAnalysis.create(configuration)) {
@@ -67,12 +73,29 @@ public final class PmdGrader extends Grader {
         this.ruleSetPath = ruleSetPath;
         this.ruleNames = ruleNames;
         configuration = createConfiguration();
+        configurationKey = makeConfigurationKey(
+                String.format("%s %s %s", penaltyPerViolation, maxPenalty, String.join(",", ruleNames)),
+                ruleSetPath);
 
         // Build List<RuleSet> here to fail fast if the rule set path or a rule
         // name is invalid.
         createAnalysisWithRuleNames().close();
     }
 
+    // Adds the path and hash of each rule set to the prefix, returning null
+    // if any cannot be hashed.
+    private static String makeConfigurationKey(final String prefix, final String... ruleSetPaths) {
+        final StringJoiner joiner = new StringJoiner(" ").add(prefix);
+        for (final String path : ruleSetPaths) {
+            final Optional<String> hash = ResultCache.hashFileOrResource(path);
+            if (hash.isEmpty()) {
+                return null;
+            }
+            joiner.add(path + ":" + hash.get());
+        }
+        return joiner.toString();
+    }
+
     // throws ClientException
     private PmdAnalysis createAnalysis() {
         if (ruleSetPath == null) {
@@ -170,12 +193,70 @@ public final class PmdGrader extends Grader {
                                 new ClientException("File or directory cannot be found: " + target.toPathString()));
                     }
                 }
+                final PmdAnalysisEvent event = new PmdAnalysisEvent();
+                event.begin();
                 final Report report = analysis.performAnalysisAndCollectReport();
+                if (event.isEnabled()) {
+                    event.finish(getName(),
+                            Arrays.stream(targets).map(Target::toPathString).collect(Collectors.joining(", ")),
+                            report.getViolations().size() + " violations");
+                }
                 return produceResults(report);
             }
         };
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * PMD analysis is CPU-intensive.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isCpuIntensive() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key identifies the penalties, the rules, and the path and hash of
+     * the contents of each rule set. It is empty if a rule set cannot be
+     * read, such as one loaded from a URL.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.ofNullable(configurationKey);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All targets are analyzed together and produce a single result.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isPerTarget() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the same for any number of targets, since they produce a
+     * single result.
+     *
+     * @return the maximum number of points
+     */
+    @Override
+    public double getMaxScore(final Target... targets) {
+        return maxPenalty;
+    }
+
     @Override
     public Callable<List<Result>> getCallableSingleTarget(
             final Target target) {
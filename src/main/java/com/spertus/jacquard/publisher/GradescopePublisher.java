@@ -4,7 +4,8 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.util.List;
 
-import com.spertus.jacquard.common.Result;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.jfr.PublishEvent;
 import org.json.*;
 
 /**
@@ -17,6 +18,7 @@ import org.json.*;
 public class GradescopePublisher extends Publisher {
     private static final Path RESULTS_PATH = Path.of("results");
     private static final String RESULTS_FILE_NAME = "results.json";
+    private static final String METRICS_FILE_NAME = "metrics.json";
 
     private JSONObject convertToJson(final List<Result> results) {
         final JSONArray testResults = new JSONArray();
@@ -33,12 +35,71 @@ public class GradescopePublisher extends Publisher {
 
     @Override
     public boolean publishResults(final List<Result> results, Result.Order order) {
+        final PublishEvent event = new PublishEvent();
+        event.begin();
+        final Path path = RESULTS_PATH.resolve(RESULTS_FILE_NAME);
         try {
             if (Files.exists(RESULTS_PATH)) {
                 List<Result> sortedResults = Result.reorderResults(results, order);
                 Files.write(
-                        RESULTS_PATH.resolve(RESULTS_FILE_NAME),
+                        path,
                         serializeResults(sortedResults).getBytes());
+                if (event.isEnabled()) {
+                    event.finish(path.toString(), results.size() + " results published");
+                }
+                return true;
+            }
+        } catch (IOException e) {
+            event.finish(path.toString(), "failed");
+            return false;
+        }
+        event.finish(path.toString(), "not running in Gradescope");
+        return false;
+    }
+
+    /**
+     * Serializes a metrics report as JSON.
+     *
+     * @param report the report
+     * @return a JSON representation of the report
+     */
+    public String serializeMetrics(final MetricsReport report) {
+        final JSONArray entries = new JSONArray();
+        for (final GradingMetrics metrics : report.getMetrics()) {
+            final JSONObject entry = new JSONObject() // NOPMD
+                    .put("name", metrics.getName())
+                    .put("wall_nanos", metrics.getWallNanos());
+            if (metrics.getCpuNanos() != GradingMetrics.UNAVAILABLE) {
+                entry.put("cpu_nanos", metrics.getCpuNanos());
+            }
+            if (metrics.getAllocatedBytes() != GradingMetrics.UNAVAILABLE) {
+                entry.put("allocated_bytes", metrics.getAllocatedBytes());
+            }
+            entries.put(entry);
+        }
+        return new JSONObject()
+                .put("total_wall_nanos", report.getTotalWallNanos())
+                .put("graders", entries)
+                .toString(2);
+    }
+
+    /**
+     * Writes a metrics report to {@code results/metrics.json}, next to
+     * the results file. Gradescope shows students only the results file,
+     * so the metrics are visible only to instructors. Like
+     * {@link #publishResults(List, Result.Order)}, this does nothing if it
+     * is not running within Gradescope.
+     *
+     * @param report the report, usually from
+     *               {@link Autograder#getMetricsReport()}
+     * @return whether the metrics were successfully written
+     */
+    public boolean publishMetrics(final MetricsReport report) {
+        try {
+            if (Files.exists(RESULTS_PATH)) {
+                Files.write(
+                        RESULTS_PATH.resolve(METRICS_FILE_NAME),
+                        serializeMetrics(report).getBytes());
                 return true;
             }
         } catch (IOException e) {
@@ -4,13 +4,17 @@ import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.stmt.*;
 import com.spertus.jacquard.exceptions.ClientException;
 
-import java.util.List;
+import java.util.*;
+import java.util.stream.*;
 
 /**
  * A grader to test whether the number of occurrences of the given
  * expression and statement types are in the specified numeric range.
  */
 public class ExpressionStatementCountGrader extends SyntaxConditionCountGrader {
+    // The names of the counted classes, for the result cache.
+    private final String classNames;
+
     /**
      * Creates a grader to test whether the number of occurrences of the given
      * expression and statement types are in the specified numeric range.
@@ -35,6 +39,7 @@ public class ExpressionStatementCountGrader extends SyntaxConditionCountGrader {
             final List<Class<? extends Expression>> expressionClasses,
             final List<Class<? extends Statement>> statementClasses) {
         super(name, countedName, maxScore, minCount, maxCount,
+                Stream.concat(expressionClasses.stream(), statementClasses.stream()).toList(),
                 node -> {
                     if (node instanceof Expression) {
                         for (final Class<?> clazz : expressionClasses) {
@@ -51,5 +56,33 @@ public class ExpressionStatementCountGrader extends SyntaxConditionCountGrader {
                     }
                     return false;
                 });
+        classNames = Stream.concat(expressionClasses.stream(), statementClasses.stream())
+                .map(Class::getName)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key includes the counted classes. Subclasses that change what is
+     * counted must override this.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.of(getCountKey() + " " + classNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Comments are not examined.
+     *
+     * @return {@link ParseProfile#NO_COMMENTS}
+     */
+    @Override
+    public ParseProfile getParseProfile() {
+        return ParseProfile.NO_COMMENTS;
     }
 }
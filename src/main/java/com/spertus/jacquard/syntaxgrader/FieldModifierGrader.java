@@ -89,13 +89,13 @@ public final class FieldModifierGrader extends ModifierGrader {
 
     private class Adapter extends ModifierGrader.Adapter { // NOPMD
         @Override
-        public void visit(final VariableDeclarator vd, final List<Result> collector) {
+        public void visit(final VariableDeclarator vd, final State state) {
             if (isField(vd)) {
                 final FieldDeclaration fd = getFieldDeclaration(vd);
-                process(collector, fd, vd.getNameAsString(), fd.getModifiers());
+                process(state, fd, vd.getNameAsString(), fd.getModifiers());
             }
 
-            super.visit(vd, collector);
+            super.visit(vd, state);
         }
     }
 
@@ -0,0 +1,152 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.*;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.ClientException;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A grader that evaluates multiple {@link SyntaxCountGrader}s together,
+ * producing the same results as running each of them separately. The
+ * conditions of all {@link SyntaxConditionCountGrader}s that apply to any
+ * node are evaluated in a single traversal of the parse tree, instead of one
+ * traversal per grader. Conditions that apply only to specific node types
+ * (including those of {@link StatementCountGrader}s and
+ * {@link ExpressionCountGrader}s) are evaluated on just those nodes. Other
+ * count graders, whose adapters may visit the tree in their own way, are
+ * run individually.
+ */
+public class FusedSyntaxCountGrader extends SyntaxGrader {
+    private static final String GRADER_NAME = "fused syntax count grader";
+
+    private final List<SyntaxCountGrader> graders;
+    // The indices into graders of the condition graders, in parallel with predicates.
+    private final int[] conditionIndices;
+    private final List<Predicate<Node>> predicates;
+    private final SyntaxConditionCountGrader.NodeAdapter<int[]> adapter;
+
+    /**
+     * Creates a grader that evaluates the provided count graders in a
+     * single pass. The results are in the same order as the graders.
+     *
+     * @param name    the name of this grader, which is used only if an
+     *                exception occurs
+     * @param graders the count graders
+     * @throws ClientException if graders is empty
+     */
+    public FusedSyntaxCountGrader(
+            final String name,
+            final List<? extends SyntaxCountGrader> graders) {
+        super(name);
+        if (graders.isEmpty()) {
+            throw new ClientException("At least one grader must be provided");
+        }
+        this.graders = List.copyOf(graders);
+
+        final List<Integer> indices = new ArrayList<>();
+        final List<Predicate<Node>> conditions = new ArrayList<>();
+        for (int i = 0; i < this.graders.size(); i++) {
+            // Graders whose conditions apply to specific node types use the node index instead.
+            if (this.graders.get(i) instanceof SyntaxConditionCountGrader conditionGrader
+                    && !conditionGrader.hasNodeTypes()) {
+                indices.add(i);
+                conditions.add(conditionGrader.getPredicate());
+            }
+        }
+        conditionIndices = indices.stream().mapToInt(Integer::intValue).toArray();
+        predicates = List.copyOf(conditions);
+        adapter = new SyntaxConditionCountGrader.NodeAdapter<>(this::count);
+    }
+
+    /**
+     * Creates a grader with a default name that evaluates the provided count
+     * graders in a single pass. The results are in the same order as the
+     * graders.
+     *
+     * @param graders the count graders
+     * @throws ClientException if graders is empty
+     */
+    public FusedSyntaxCountGrader(final List<? extends SyntaxCountGrader> graders) {
+        this(GRADER_NAME, graders);
+    }
+
+    private void count(final Node node, final int[] counts) { // NOPMD (not varargs)
+        for (int i = 0; i < conditionIndices.length; i++) {
+            if (predicates.get(i).test(node)) {
+                counts[conditionIndices[i]]++;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the cheapest profile satisfying all the fused graders.
+     *
+     * @return the parse profile
+     */
+    @Override
+    public ParseProfile getParseProfile() {
+        return ParseProfile.cheapestFor(graders);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The results are those of the fused graders.
+     *
+     * @return the sum of the maximum scores of the fused graders
+     */
+    @Override
+    public double getMaxScore(final Target... targets) {
+        double maxScore = 0;
+        for (final SyntaxCountGrader grader : graders) {
+            maxScore += grader.getMaxScore(targets);
+        }
+        return maxScore;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Results are cached only if those of every fused grader would be.
+     *
+     * @return the configuration keys of the fused graders, or empty if any
+     * of them is empty
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        final StringJoiner joiner = new StringJoiner(";");
+        for (final SyntaxCountGrader grader : graders) {
+            final Optional<String> key = grader.getConfigurationKey();
+            if (key.isEmpty()) {
+                return Optional.empty();
+            }
+            joiner.add(grader.getClass().getName() + " " + grader.getName() + " " + key.get());
+        }
+        return Optional.of(joiner.toString());
+    }
+
+    @Override
+    protected List<Result> grade(final CompilationUnit cu) {
+        final int[] counts = new int[graders.size()];
+        if (conditionIndices.length > 0) {
+            adapter.visit(cu, counts);
+        }
+        final List<Result> results = new ArrayList<>(graders.size());
+        for (int i = 0; i < counts.length; i++) {
+            final SyntaxCountGrader grader = graders.get(i);
+            if (grader instanceof SyntaxConditionCountGrader conditionGrader) {
+                final int count = conditionGrader.hasNodeTypes() ? conditionGrader.countIndexed(cu) : counts[i];
+                results.add(grader.getResult(new MutableInteger(count))); // NOPMD
+            } else {
+                final MutableInteger mi = new MutableInteger(); // NOPMD
+                grader.getAdapter().visit(cu, mi);
+                results.add(grader.getResult(mi));
+            }
+        }
+        return results;
+    }
+}
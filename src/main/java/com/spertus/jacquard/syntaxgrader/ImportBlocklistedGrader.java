@@ -14,24 +14,47 @@ import java.util.*;
 public class ImportBlocklistedGrader extends ImportForbiddenGrader {
     private static final String GRADER_NAME = "forbidden import grader";
     private final Set<String> blocklistedPackages;
+    private final ImportPolicy policy = new ImportPolicy();
 
     /**
      * Creates an import grader that tests whether there are any imports
      * involving blocklisted (forbidden) packages.
+     * <p>
+     * If {@code headerOnly} is true, only the package and import
+     * declarations are parsed. This is faster, but a submission whose
+     * class body does not parse is graded instead of getting an error.
      *
      * @param name                the name of this checker
      * @param maxPoints           the number of points to award if none are included
      * @param blocklistedPackages blocklisted package names
+     * @param headerOnly          whether to parse only the imports
      */
     public ImportBlocklistedGrader(
             final String name,
             final double maxPoints,
-            final List<String> blocklistedPackages) {
-        super(name, maxPoints);
+            final List<String> blocklistedPackages,
+            final boolean headerOnly) {
+        super(name, maxPoints, headerOnly);
         this.blocklistedPackages = new HashSet<>(blocklistedPackages);
+        addRules(policy);
         adapter = new ImportBlocklistAdapter();
     }
 
+    /**
+     * Creates an import grader that tests whether there are any imports
+     * involving blocklisted (forbidden) packages.
+     *
+     * @param name                the name of this checker
+     * @param maxPoints           the number of points to award if none are included
+     * @param blocklistedPackages blocklisted package names
+     */
+    public ImportBlocklistedGrader(
+            final String name,
+            final double maxPoints,
+            final List<String> blocklistedPackages) {
+        this(name, maxPoints, blocklistedPackages, false);
+    }
+
     /**
      * Creates an import grader with a default name that tests whether there
      * are any imports involving blocklisted (forbidden) packages.
@@ -45,10 +68,39 @@ public class ImportBlocklistedGrader extends ImportForbiddenGrader {
         this(GRADER_NAME, maxPoints, blocklistedPackages);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key consists of the points, the blocklisted packages, and the
+     * parse profile.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.of(maxScorePerInstance + " " + String.join(",", new TreeSet<>(blocklistedPackages))
+                + " " + getParseProfile());
+    }
+
+    @Override
+    /* default */ final void addRules(final ImportPolicy importPolicy) {
+        for (final String packageName : blocklistedPackages) {
+            importPolicy.add(new ImportPolicy.Rule( // NOPMD (one per package)
+                    this, ImportPolicy.Kind.BLOCKLISTED, packageName, 0));
+        }
+    }
+
+    @Override
+    /* default */ boolean isForbidden(
+            final ImportDeclaration importDecl,
+            final ImportPolicy.Match match) {
+        return match.hasPackageRule(this, ImportPolicy.Kind.BLOCKLISTED);
+    }
+
     private class ImportBlocklistAdapter extends ImportForbiddenGrader.ImportCheckerAdapter { // NOPMD
         @Override
         protected boolean isImportForbidden(final ImportDeclaration importDecl) {
-            return blocklistedPackages.contains(importToPackageName(importDecl));
+            return isForbidden(importDecl, policy.match(importDecl));
         }
 
     }
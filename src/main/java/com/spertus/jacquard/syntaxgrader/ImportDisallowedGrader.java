@@ -14,24 +14,47 @@ import java.util.*;
 public class ImportDisallowedGrader extends ImportForbiddenGrader {
     private static final String GRADER_NAME = "restricted import grader";
     private final Set<String> allowedPackages;
+    private final ImportPolicy policy = new ImportPolicy();
 
     /**
      * Creates an import checker that tests whether all imports are
      * within a list of allowed packages.
+     * <p>
+     * If {@code headerOnly} is true, only the package and import
+     * declarations are parsed. This is faster, but a submission whose
+     * class body does not parse is graded instead of getting an error.
      *
      * @param name            the name of this checker
      * @param maxPoints       the number of points to award if none are included
      * @param allowedPackages allowed package names
+     * @param headerOnly      whether to parse only the imports
      */
     public ImportDisallowedGrader(
             final String name,
             final double maxPoints,
-            final List<String> allowedPackages) {
-        super(name, maxPoints);
+            final List<String> allowedPackages,
+            final boolean headerOnly) {
+        super(name, maxPoints, headerOnly);
         this.allowedPackages = new HashSet<>(allowedPackages);
+        addRules(policy);
         adapter = new ImportCheckerAdapter();
     }
 
+    /**
+     * Creates an import checker that tests whether all imports are
+     * within a list of allowed packages.
+     *
+     * @param name            the name of this checker
+     * @param maxPoints       the number of points to award if none are included
+     * @param allowedPackages allowed package names
+     */
+    public ImportDisallowedGrader(
+            final String name,
+            final double maxPoints,
+            final List<String> allowedPackages) {
+        this(name, maxPoints, allowedPackages, false);
+    }
+
     /**
      * Creates an import checker with the default name that tests whether all
      * imports are within a list of allowed packages.
@@ -45,11 +68,39 @@ public class ImportDisallowedGrader extends ImportForbiddenGrader {
         this(GRADER_NAME, maxPoints, allowedPackages);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key consists of the points, the allowed packages, and the
+     * parse profile.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.of(maxScorePerInstance + " " + String.join(",", new TreeSet<>(allowedPackages))
+                + " " + getParseProfile());
+    }
+
+    @Override
+    /* default */ final void addRules(final ImportPolicy importPolicy) {
+        for (final String packageName : allowedPackages) {
+            importPolicy.add(new ImportPolicy.Rule( // NOPMD (one per package)
+                    this, ImportPolicy.Kind.ALLOWED, packageName, 0));
+        }
+    }
+
+    @Override
+    /* default */ boolean isForbidden(
+            final ImportDeclaration importDecl,
+            final ImportPolicy.Match match) {
+        return !match.hasPackageRule(this, ImportPolicy.Kind.ALLOWED);
+    }
+
     private class ImportCheckerAdapter extends ImportForbiddenGrader.ImportCheckerAdapter { // NOPMD
         @Override
         protected boolean isImportForbidden(final ImportDeclaration importDecl) {
-            final String name = importToPackageName(importDecl);
-            return !allowedPackages.contains(name);
+            return isForbidden(importDecl, policy.match(importDecl));
         }
     }
 }
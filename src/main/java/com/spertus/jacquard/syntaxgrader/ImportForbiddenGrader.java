@@ -2,7 +2,7 @@ package com.spertus.jacquard.syntaxgrader;
 
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.spertus.jacquard.common.Result;
+import com.spertus.jacquard.common.Target;
 
 import java.util.*;
 
@@ -11,6 +11,8 @@ import java.util.*;
  * of packages that are not allowed.
  */
 public abstract class ImportForbiddenGrader extends SyntaxCheckGrader {
+    private final boolean headerOnly;
+
     /**
      * Creates an import grader that tests whether there are any imports
      * involving blocklisted (forbidden) packages.
@@ -21,26 +23,122 @@ public abstract class ImportForbiddenGrader extends SyntaxCheckGrader {
     protected ImportForbiddenGrader(
             final String name,
             final double maxScore) {
+        this(name, maxScore, false);
+    }
+
+    /**
+     * Creates an import grader that tests whether there are any imports
+     * involving blocklisted (forbidden) packages. If {@code headerOnly} is
+     * true, only the package and import declarations are parsed.
+     *
+     * @param name       the name of this checker
+     * @param maxScore   the number of points to award if none are included
+     * @param headerOnly whether to parse only the imports
+     */
+    protected ImportForbiddenGrader(
+            final String name,
+            final double maxScore,
+            final boolean headerOnly) {
         super(name, maxScore, null);
+        this.headerOnly = headerOnly;
         // adapter is set by concrete subclass
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the import declarations are examined, but the whole file is
+     * parsed unless this grader was created to parse only the imports.
+     *
+     * @return {@link ParseProfile#IMPORTS_ONLY} if only the imports are
+     * parsed, {@link ParseProfile#FULL} otherwise
+     */
+    @Override
+    public ParseProfile getParseProfile() {
+        return headerOnly ? ParseProfile.IMPORTS_ONLY : ParseProfile.FULL;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each target produces a result worth the maximum score.
+     *
+     * @return the maximum score times the number of targets
+     */
+    @Override
+    public double getMaxScore(final Target... targets) {
+        return maxScorePerInstance * targets.length;
+    }
+
     @Override
-    public void initialize() {
-        ((ImportCheckerAdapter) adapter).initialize();
+    protected State createState() {
+        return new ImportState();
     }
 
     @Override
-    public void finalizeResults(final List<Result> results) {
-        ((ImportCheckerAdapter) adapter).finalizeResults(results);
+    protected void finalizeResults(final State state) {
+        final Set<String> foundForbiddenPackages = ((ImportState) state).foundForbiddenPackages;
+        if (foundForbiddenPackages.isEmpty()) {
+            state.getResults().add(makeSuccessResult("No forbidden packages imported."));
+        } else {
+            state.getResults().add(makeFailingResult("Forbidden packages imported: " +
+                    String.join(", ", foundForbiddenPackages)));
+        }
     }
 
     /**
-     * Abstract superclass of adapters testing whether forbidden imports appear.
+     * Adds this grader's packages to a policy. The default implementation
+     * adds nothing, which is correct for subclasses whose adapters check
+     * imports in their own way.
+     *
+     * @param importPolicy the policy
      */
-    protected abstract class ImportCheckerAdapter extends VoidVisitorAdapter<List<Result>> { // NOPMD
+    /* default */ void addRules(final ImportPolicy importPolicy) {
+        // No rules by default.
+    }
+
+    /**
+     * Checks whether an import declaration is forbidden. The default
+     * implementation asks the adapter; subclasses that add rules to
+     * policies should use the match instead.
+     *
+     * @param importDecl the import declaration
+     * @param match      the rules of a policy matching the declaration
+     * @return true if it is forbidden, false if it is permitted
+     */
+    /* default */ boolean isForbidden(
+            final ImportDeclaration importDecl,
+            final ImportPolicy.Match match) {
+        return ((ImportCheckerAdapter) adapter).isImportForbidden(importDecl);
+    }
+
+    /**
+     * Records an import declaration if it is forbidden.
+     *
+     * @param importDecl the import declaration
+     * @param match      the rules of a policy matching the declaration
+     * @param state      the state of the call to {@link #grade}
+     */
+    /* default */ void process(
+            final ImportDeclaration importDecl,
+            final ImportPolicy.Match match,
+            final State state) {
+        if (isForbidden(importDecl, match)) {
+            ((ImportState) state).foundForbiddenPackages.add(importDecl.getNameAsString());
+        }
+    }
+
+    /**
+     * The forbidden imports found by a call to {@link #grade}.
+     */
+    private static final class ImportState extends State {
         private final Set<String> foundForbiddenPackages = new HashSet<>();
+    }
 
+    /**
+     * Abstract superclass of adapters testing whether forbidden imports appear.
+     */
+    protected abstract class ImportCheckerAdapter extends VoidVisitorAdapter<State> { // NOPMD
         /**
          * Constructs an adapter.
          */
@@ -48,10 +146,6 @@ public abstract class ImportForbiddenGrader extends SyntaxCheckGrader {
             super();
         }
 
-        private void initialize() { // NOPMD (false positive)
-            foundForbiddenPackages.clear();
-        }
-
         /**
          * Converts an import to a package name.
          *
@@ -75,20 +169,11 @@ public abstract class ImportForbiddenGrader extends SyntaxCheckGrader {
         abstract protected boolean isImportForbidden(ImportDeclaration importDecl);
 
         @Override
-        public void visit(final ImportDeclaration importDecl, final List<Result> results) {
+        public void visit(final ImportDeclaration importDecl, final State state) {
             if (isImportForbidden(importDecl)) {
-                foundForbiddenPackages.add(importDecl.getNameAsString());
-            }
-            super.visit(importDecl, results);
-        }
-
-        private void finalizeResults(List<Result> results) {  // NOPMD (false positive)
-            if (foundForbiddenPackages.isEmpty()) {
-                results.add(makeSuccessResult("No forbidden packages imported."));
-            } else {
-                results.add(makeFailingResult("Forbidden packages imported: " +
-                        String.join(", ", foundForbiddenPackages)));
+                ((ImportState) state).foundForbiddenPackages.add(importDecl.getNameAsString());
             }
+            super.visit(importDecl, state);
         }
     }
 }
@@ -0,0 +1,147 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.ImportDeclaration;
+
+import java.util.*;
+
+/**
+ * Import rules compiled into a trie of package-name segments, so that the
+ * rules matching an import are found in a single walk of its name, no
+ * matter how many rules there are. Each rule is owned by the grader that
+ * added it, so one policy can hold the rules of multiple import graders
+ * (see {@link ImportPolicyGrader}).
+ */
+final class ImportPolicy {
+    private final TrieNode root = new TrieNode();
+
+    /**
+     * The kinds of import rules.
+     */
+    enum Kind {
+        /**
+         * An import that must appear, such as "java.util.List" or
+         * "java.util.*".
+         */
+        REQUIRED,
+
+        /**
+         * A package from which imports are allowed.
+         */
+        ALLOWED,
+
+        /**
+         * A package from which imports are forbidden.
+         */
+        BLOCKLISTED
+    }
+
+    /**
+     * A rule added to the policy.
+     *
+     * @param owner   the grader that added the rule
+     * @param kind    the kind of rule
+     * @param pattern the import or package name
+     * @param index   the position of the rule among its owner's rules
+     */
+    record Rule(Object owner, Kind kind, String pattern, int index) {
+    }
+
+    /**
+     * The rules matching an import.
+     *
+     * @param required     the {@link Kind#REQUIRED} rules the import satisfies
+     * @param packageRules the rules for the package of the import
+     */
+    record Match(List<Rule> required, List<Rule> packageRules) {
+        /**
+         * Gets the required imports of the owner satisfied by the import,
+         * in the order the owner added them.
+         *
+         * @param owner the owner of the rules
+         * @return the satisfied rules
+         */
+        /* default */ List<Rule> getRequired(final Object owner) {
+            return required.stream()
+                    .filter(rule -> rule.owner() == owner)
+                    .sorted(Comparator.comparingInt(Rule::index))
+                    .toList();
+        }
+
+        /**
+         * Checks whether the owner has a rule of the given kind for the
+         * package of the import.
+         *
+         * @param owner the owner of the rules
+         * @param kind  the kind of rule
+         * @return true if there is such a rule
+         */
+        /* default */ boolean hasPackageRule(final Object owner, final Kind kind) {
+            return packageRules.stream()
+                    .anyMatch(rule -> rule.owner() == owner && rule.kind() == kind);
+        }
+    }
+
+    /**
+     * A node of the trie, corresponding to a package-name prefix.
+     */
+    private static final class TrieNode {
+        private final Map<String, TrieNode> children = new HashMap<>(); // NOPMD (not modified after construction)
+        private final List<Rule> rules = new ArrayList<>();
+    }
+
+    /**
+     * Adds a rule. Required imports may end with a wildcard; package names
+     * may not.
+     *
+     * @param rule the rule
+     */
+    /* default */ void add(final Rule rule) {
+        TrieNode node = root;
+        for (final String segment : rule.pattern().split("\\.")) {
+            node = node.children.computeIfAbsent(segment, s -> new TrieNode()); // NOPMD
+        }
+        node.rules.add(rule);
+    }
+
+    /**
+     * Finds the rules matching an import. A single-type import satisfies
+     * a required import with the same name. A wildcard import satisfies
+     * the same wildcard and any required class directly in its package.
+     * The package of an import is its name without the final segment
+     * (for single-type imports) or its whole name (for wildcard imports).
+     *
+     * @param importDecl the import
+     * @return the matching rules
+     */
+    /* default */ Match match(final ImportDeclaration importDecl) {
+        final String[] segments = importDecl.getNameAsString().split("\\.");
+        final int packageLength = importDecl.isAsterisk() ? segments.length : segments.length - 1;
+        TrieNode packageNode = root;
+        for (int i = 0; i < packageLength && packageNode != null; i++) {
+            packageNode = packageNode.children.get(segments[i]);
+        }
+        if (packageNode == null) {
+            return new Match(List.of(), List.of());
+        }
+        final List<Rule> required = new ArrayList<>();
+        if (importDecl.isAsterisk()) {
+            for (final TrieNode child : packageNode.children.values()) {
+                addRequired(child, required);
+            }
+        } else {
+            final TrieNode node = packageNode.children.get(segments[packageLength]);
+            if (node != null) {
+                addRequired(node, required);
+            }
+        }
+        return new Match(required, packageNode.rules);
+    }
+
+    private static void addRequired(final TrieNode node, final List<Rule> required) {
+        for (final Rule rule : node.rules) {
+            if (rule.kind() == Kind.REQUIRED) {
+                required.add(rule);
+            }
+        }
+    }
+}
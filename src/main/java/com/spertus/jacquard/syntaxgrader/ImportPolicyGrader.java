@@ -0,0 +1,145 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.*;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.ClientException;
+
+import java.util.*;
+
+/**
+ * A grader that evaluates multiple import graders together, producing the
+ * same results as running each of them separately. The required, allowed,
+ * and blocklisted imports of all the graders are compiled into a single
+ * trie of package-name segments, and each import is matched against all of
+ * them at once in a single pass over the imports, instead of one pass per
+ * grader.
+ *
+ * @see ImportRequiredGrader
+ * @see ImportBlocklistedGrader
+ * @see ImportDisallowedGrader
+ */
+public class ImportPolicyGrader extends SyntaxGrader {
+    private static final String GRADER_NAME = "import policy grader";
+
+    private final List<SyntaxCheckGrader> graders;
+    private final ImportPolicy policy = new ImportPolicy();
+
+    /**
+     * Creates a grader that evaluates the provided import graders in a
+     * single pass. The results are in the same order as the graders.
+     *
+     * @param name    the name of this grader, which is used only if an
+     *                exception occurs
+     * @param graders the import graders, each of which must be an
+     *                {@link ImportRequiredGrader} or an
+     *                {@link ImportForbiddenGrader}
+     * @throws ClientException if graders is empty or contains another type
+     *                         of grader
+     */
+    public ImportPolicyGrader(
+            final String name,
+            final List<? extends SyntaxCheckGrader> graders) {
+        super(name);
+        if (graders.isEmpty()) {
+            throw new ClientException("At least one grader must be provided");
+        }
+        this.graders = List.copyOf(graders);
+        for (final SyntaxCheckGrader grader : this.graders) {
+            if (grader instanceof ImportRequiredGrader requiredGrader) {
+                requiredGrader.addRules(policy);
+            } else if (grader instanceof ImportForbiddenGrader forbiddenGrader) {
+                forbiddenGrader.addRules(policy);
+            } else {
+                throw new ClientException(grader.getName() + " is not an import grader");
+            }
+        }
+    }
+
+    /**
+     * Creates a grader with a default name that evaluates the provided
+     * import graders in a single pass. The results are in the same order as
+     * the graders.
+     *
+     * @param graders the import graders, each of which must be an
+     *                {@link ImportRequiredGrader} or an
+     *                {@link ImportForbiddenGrader}
+     * @throws ClientException if graders is empty or contains another type
+     *                         of grader
+     */
+    public ImportPolicyGrader(final List<? extends SyntaxCheckGrader> graders) {
+        this(GRADER_NAME, graders);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the cheapest profile satisfying all the combined graders.
+     *
+     * @return the parse profile
+     */
+    @Override
+    public ParseProfile getParseProfile() {
+        return ParseProfile.cheapestFor(graders);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The results are those of the combined graders.
+     *
+     * @return the sum of the maximum scores of the combined graders
+     */
+    @Override
+    public double getMaxScore(final Target... targets) {
+        double maxScore = 0;
+        for (final SyntaxCheckGrader grader : graders) {
+            maxScore += grader.getMaxScore(targets);
+        }
+        return maxScore;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Results are cached only if those of every combined grader would be.
+     *
+     * @return the configuration keys of the combined graders, or empty if
+     * any of them is empty
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        final StringJoiner joiner = new StringJoiner(";");
+        for (final SyntaxCheckGrader grader : graders) {
+            final Optional<String> key = grader.getConfigurationKey();
+            if (key.isEmpty()) {
+                return Optional.empty();
+            }
+            joiner.add(grader.getClass().getName() + " " + grader.getName() + " " + key.get());
+        }
+        return Optional.of(joiner.toString());
+    }
+
+    @Override
+    protected List<Result> grade(final CompilationUnit cu) {
+        final List<SyntaxCheckGrader.State> states = new ArrayList<>(graders.size());
+        for (final SyntaxCheckGrader grader : graders) {
+            states.add(grader.createState());
+        }
+        for (final ImportDeclaration importDecl : cu.getImports()) {
+            final ImportPolicy.Match match = policy.match(importDecl);
+            for (int i = 0; i < graders.size(); i++) {
+                if (graders.get(i) instanceof ImportRequiredGrader requiredGrader) {
+                    requiredGrader.process(match, states.get(i));
+                } else {
+                    ((ImportForbiddenGrader) graders.get(i)).process(importDecl, match, states.get(i));
+                }
+            }
+        }
+        final List<Result> results = new ArrayList<>();
+        for (int i = 0; i < graders.size(); i++) {
+            graders.get(i).finalizeResults(states.get(i));
+            results.addAll(states.get(i).getResults());
+        }
+        return results;
+    }
+}
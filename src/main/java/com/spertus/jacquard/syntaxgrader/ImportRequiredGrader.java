@@ -2,7 +2,7 @@ package com.spertus.jacquard.syntaxgrader;
 
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.spertus.jacquard.common.Result;
+import com.spertus.jacquard.common.Target;
 import com.spertus.jacquard.exceptions.ClientException;
 
 import java.util.*;
@@ -16,30 +16,61 @@ import java.util.*;
  */
 public class ImportRequiredGrader extends SyntaxCheckGrader {
     private static final String GRADER_NAME = "required import checker";
+    private final List<String> requiredImports;
+    private final ImportPolicy policy = new ImportPolicy();
+    private final boolean headerOnly;
 
     /**
      * Creates an import checker that awards points per required import that is
      * found. Required imports may end with asterisks but must not
      * end with semicolons. For example, legal values include "java.util.*"
      * and "java.io.IOException".
+     * <p>
+     * If {@code headerOnly} is true, only the package and import
+     * declarations are parsed. This is faster, but a submission whose
+     * class body does not parse earns points for its imports instead of
+     * an error.
      *
      * @param name            the name of this checker
      * @param pointsPerImport the number of points per required import
      * @param requiredImports required imports
+     * @param headerOnly      whether to parse only the imports
      * @throws ClientException if requiredImports is empty or has malformed entries
      */
     public ImportRequiredGrader(
             final String name,
             final double pointsPerImport,
-            final List<String> requiredImports) {
+            final List<String> requiredImports,
+            final boolean headerOnly) {
         super(name, pointsPerImport, null);
+        this.headerOnly = headerOnly;
         requiredImports.forEach(
                 s -> {
                     if (s.endsWith(";") || s.startsWith("import ")) {
                         throw new ClientException("Required import " + s + " is malformed.");
                     }
                 });
-        adapter = new ImportCheckerAdapter(requiredImports);
+        this.requiredImports = requiredImports;
+        addRules(policy);
+        adapter = new ImportCheckerAdapter();
+    }
+
+    /**
+     * Creates an import checker that awards points per required import that is
+     * found. Required imports may end with asterisks but must not
+     * end with semicolons. For example, legal values include "java.util.*"
+     * and "java.io.IOException".
+     *
+     * @param name            the name of this checker
+     * @param pointsPerImport the number of points per required import
+     * @param requiredImports required imports
+     * @throws ClientException if requiredImports is empty or has malformed entries
+     */
+    public ImportRequiredGrader(
+            final String name,
+            final double pointsPerImport,
+            final List<String> requiredImports) {
+        this(name, pointsPerImport, requiredImports, false);
     }
 
     /**
@@ -58,82 +89,105 @@ public class ImportRequiredGrader extends SyntaxCheckGrader {
         this(GRADER_NAME, pointsPerImport, requiredImports);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the import declarations are examined, but the whole file is
+     * parsed unless this grader was created to parse only the imports.
+     *
+     * @return {@link ParseProfile#IMPORTS_ONLY} if only the imports are
+     * parsed, {@link ParseProfile#FULL} otherwise
+     */
     @Override
-    public void initialize() {
-        ((ImportCheckerAdapter) adapter).initialize();
+    public ParseProfile getParseProfile() {
+        return headerOnly ? ParseProfile.IMPORTS_ONLY : ParseProfile.FULL;
     }
 
-    private static boolean importMatches(final ImportDeclaration importDecl, final String requirement) {
-        final String importName = importDecl.getNameAsString();
-        if (importDecl.isAsterisk()) {
-            // both are wildcards
-            if (requirement.equals(importName + ".*")) {
-                return true;
-            }
-            // importDecl is wildcard but requirement is not:
-            // If the importName (e.g., "java.util") is a prefix of the requirement
-            // (e.g., "java.util.*" or "java.util.List"), it's a match unless the
-            // requirement has more than one additional period (e.g.,
-            // "java.util.concurrent.timeunit").
-            return requirement.startsWith(importName) &&
-                    requirement.length() > importName.length() &&
-                    !requirement.substring(importName.length() + 1).contains(".");
-        } else {
-            if (requirement.endsWith(".*")) {
-                // importDecl is not wildcard but requirement is
-                return false;
-            } else {
-                // neither is a wildcard
-                return importName.equals(requirement);
-            }
-        }
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key consists of the points per import, the required imports, and
+     * the parse profile.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.of(maxScorePerInstance + " " + String.join(",", requiredImports)
+                + " " + getParseProfile());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each target can earn the points for every required import.
+     *
+     * @return the points per import times the number of required imports
+     * and the number of targets
+     */
     @Override
-    public void finalizeResults(final List<Result> results) {
-        ((ImportCheckerAdapter) adapter).finalizeResults(results);
+    public double getMaxScore(final Target... targets) {
+        return maxScorePerInstance * requiredImports.size() * targets.length;
     }
 
-    private class ImportCheckerAdapter extends VoidVisitorAdapter<List<Result>> { // NOPMD
-        private final List<String> requiredImports;
-        // Use separate data structure to prevent ConcurrentModificationException.
-        private final Set<String> matchedImports = new HashSet<>();
+    @Override
+    protected State createState() {
+        return new ImportState();
+    }
 
-        private ImportCheckerAdapter(final List<String> requiredImports) {
-            super();
-            this.requiredImports = requiredImports;
+    /**
+     * Adds the required imports to a policy.
+     *
+     * @param importPolicy the policy
+     */
+    /* default */ final void addRules(final ImportPolicy importPolicy) {
+        for (int i = 0; i < requiredImports.size(); i++) {
+            importPolicy.add(new ImportPolicy.Rule( // NOPMD (one per import)
+                    this, ImportPolicy.Kind.REQUIRED, requiredImports.get(i), i));
         }
+    }
 
-        private void initialize() { // NOPMD (false positive)
-            matchedImports.clear();
+    /**
+     * Records the required imports satisfied by an import declaration.
+     *
+     * @param match the rules of a policy matching the declaration
+     * @param state the state of the call to {@link #grade}
+     */
+    /* default */ void process(final ImportPolicy.Match match, final State state) {
+        final Set<String> matchedImports = ((ImportState) state).matchedImports;
+        for (final ImportPolicy.Rule rule : match.getRequired(this)) {
+            // A wildcard import can satisfy multiple requirements.
+            if (matchedImports.add(rule.pattern())) {
+                state.getResults().add(makeSuccessResult(
+                        maxScorePerInstance,
+                        "Found import " + rule.pattern()));
+            }
         }
+    }
 
-        @Override
-        public void visit(final ImportDeclaration importDecl, final List<Result> results) {
-            for (final String requirement : requiredImports) {
-                if (matchedImports.contains(requirement)) {
-                    continue;
-                }
-                if (importMatches(importDecl, requirement)) {
-                    results.add(makeSuccessResult(
-                            maxScorePerInstance,
-                            "Found import " + requirement));
-                    matchedImports.add(requirement);
-                    // An importDecl containing an asterisk can match multiple requirements.
-                    if (!importDecl.isAsterisk()) {
-                        break;
-                    }
-                }
+    @Override
+    protected void finalizeResults(final State state) {
+        final Set<String> matchedImports = ((ImportState) state).matchedImports;
+        for (final String requirement : requiredImports) {
+            if (!matchedImports.contains(requirement)) {
+                state.getResults().add(makeFailingResult("Expected import " + requirement + " not found."));
             }
-            super.visit(importDecl, results);
         }
+    }
 
-        private void finalizeResults(List<Result> results) { // NOPMD (false positive)
-            for (final String requirement : requiredImports) {
-                if (!matchedImports.contains(requirement)) {
-                    results.add(makeFailingResult("Expected import " + requirement + " not found."));
-                }
-            }
+    /**
+     * The required imports found by a call to {@link #grade}.
+     */
+    private static final class ImportState extends State {
+        // Use separate data structure to prevent ConcurrentModificationException.
+        private final Set<String> matchedImports = new HashSet<>();
+    }
+
+    private class ImportCheckerAdapter extends VoidVisitorAdapter<State> { // NOPMD
+        @Override
+        public void visit(final ImportDeclaration importDecl, final State state) {
+            process(policy.match(importDecl), state);
+            super.visit(importDecl, state);
         }
     }
 }
@@ -64,9 +64,9 @@ public final class MethodModifierGrader extends ModifierGrader {
 
     private class Adapter extends ModifierGrader.Adapter { // NOPMD
         @Override
-        public void visit(final MethodDeclaration md, final List<Result> collector) {
-            process(collector, md, md.getNameAsString(), md.getModifiers());
-            super.visit(md, collector);
+        public void visit(final MethodDeclaration md, final State state) {
+            process(state, md, md.getNameAsString(), md.getModifiers());
+            super.visit(md, state);
         }
     }
 }
@@ -16,9 +16,6 @@ abstract class ModifierGrader extends SyntaxCheckGrader {
     private final List<Modifier> requiredModifiers;
     private final List<Modifier> optionalModifiers;
 
-    // set in initialize()
-    private Set<String> missingVars;
-
     /**
      * Creates a modifier checker. If {@code penalizeMissingItems} is
      * true and an item is not found, a {@link Result} will be created with a
@@ -47,18 +44,63 @@ abstract class ModifierGrader extends SyntaxCheckGrader {
         // concrete subclass sets adapter
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Comments are not examined.
+     *
+     * @return {@link ParseProfile#NO_COMMENTS}
+     */
+    @Override
+    public ParseProfile getParseProfile() {
+        return ParseProfile.NO_COMMENTS;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key describes the items, the required and optional modifiers,
+     * and the scoring.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.of(String.format("%s %s %s %s %s",
+                maxScorePerInstance, penalizeMissing, String.join(",", itemNames),
+                modifiersToString(requiredModifiers), modifiersToString(optionalModifiers)));
+    }
+
+    private static String modifiersToString(final List<Modifier> modifiers) {
+        final StringJoiner joiner = new StringJoiner(",");
+        modifiers.forEach(modifier -> joiner.add(modifier.getKeyword().name()));
+        return joiner.toString();
+    }
+
     @Override
-    public void initialize() {
-        missingVars = new HashSet<>(itemNames);
+    protected State createState() {
+        return new ModifierState(itemNames);
     }
 
     @Override
-    public void finalizeResults(final List<Result> results) {
+    protected void finalizeResults(final State state) {
         if (!penalizeMissing) {
             return;
         }
-        for (final String var : missingVars) {
-            results.add(makeFailingResult("Did not find expected variable " + var));
+        for (final String var : ((ModifierState) state).missingVars) {
+            state.getResults().add(makeFailingResult("Did not find expected variable " + var));
+        }
+    }
+
+    /**
+     * The items not yet found by a call to {@link #grade}.
+     */
+    private static final class ModifierState extends State {
+        private final Set<String> missingVars;
+
+        private ModifierState(final List<String> itemNames) {
+            super();
+            missingVars = new HashSet<>(itemNames);
         }
     }
 
@@ -67,7 +109,7 @@ abstract class ModifierGrader extends SyntaxCheckGrader {
      * required modifiers and do not have forbidden modifiers. Subclasses
      * should override the visitor for the type of node they are verifying.
      */
-    protected class Adapter extends VoidVisitorAdapter<List<Result>> {
+    protected class Adapter extends VoidVisitorAdapter<State> {
 
         private String getEnclosingClassName(final Node node) {
             if (node.getParentNode().isPresent() &&
@@ -82,23 +124,23 @@ abstract class ModifierGrader extends SyntaxCheckGrader {
          * Verifies that the passed node has all required modifiers and no
          * forbidden modifiers.
          *
-         * @param collector the target of the produced {@link Result}
+         * @param state the state of the call to {@link #grade}, which
+         *              receives the produced {@link Result}
          * @param node the node
          * @param name the name of the node
          * @param modifiers the node's modifiers
          */
         protected void process(
-                final List<Result> collector,
+                final State state,
                 final Node node,
                 final String name,
                 final List<Modifier> modifiers) {
 
-            if (!missingVars.contains(name)) {
+            // Mark that this field has been found.
+            if (!((ModifierState) state).missingVars.remove(name)) {
                 return;
             }
-
-            // Mark that this field has been found.
-            missingVars.remove(name);
+            final List<Result> collector = state.getResults();
 
             // Make a copy of this instance variable's modifiers.
             final List<Modifier> mods = new ArrayList<>(modifiers);
@@ -12,6 +12,15 @@ public class MutableInteger {
     public MutableInteger() {
     }
 
+    /**
+     * Constructs a mutable integer with the specified initial value.
+     *
+     * @param value the initial value
+     */
+    /* default */ MutableInteger(final int value) {
+        this.value = value;
+    }
+
     /**
      * Increments the value by 1.
      */
@@ -0,0 +1,60 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index from node classes to the nodes of a compilation unit, which lets
+ * graders examine only the nodes of the types they are interested in. The
+ * index is built once per {@link CompilationUnit} and kept in a
+ * {@link SideTable}.
+ * It contains the same nodes visited by
+ * {@link SyntaxConditionCountGrader.NodeAdapter}.
+ */
+final class NodeIndex {
+    private static final SideTable<NodeIndex> INDEXES = new SideTable<>();
+
+    // The keys are the exact runtime classes of the nodes.
+    private final Map<Class<? extends Node>, List<Node>> nodesByClass = new LinkedHashMap<>(); // NOPMD (not modified after construction)
+    private final Map<Set<Class<? extends Node>>, List<Node>> nodesByTypes = new ConcurrentHashMap<>();
+
+    private NodeIndex(final CompilationUnit cu) {
+        new SyntaxConditionCountGrader.NodeAdapter<Map<Class<? extends Node>, List<Node>>>(
+                (node, map) -> map.computeIfAbsent(node.getClass(), k -> new ArrayList<>()).add(node))
+                .visit(cu, nodesByClass);
+    }
+
+    /**
+     * Gets the index for the compilation unit, building it if this is the
+     * first request.
+     *
+     * @param cu the compilation unit
+     * @return the index
+     */
+    /* default */ static NodeIndex getIndex(final CompilationUnit cu) {
+        return INDEXES.computeIfAbsent(cu, NodeIndex::new);
+    }
+
+    /**
+     * Gets all nodes that are instances of any of the specified types. Each
+     * node appears at most once, even if it is an instance of multiple types.
+     *
+     * @param types the types
+     * @return the nodes
+     */
+    /* default */ List<Node> getNodes(final Set<Class<? extends Node>> types) {
+        return nodesByTypes.computeIfAbsent(types, this::collectNodes);
+    }
+
+    private List<Node> collectNodes(final Set<Class<? extends Node>> types) {
+        final List<Node> nodes = new ArrayList<>();
+        for (final Map.Entry<Class<? extends Node>, List<Node>> entry : nodesByClass.entrySet()) {
+            if (types.stream().anyMatch(type -> type.isAssignableFrom(entry.getKey()))) {
+                nodes.addAll(entry.getValue());
+            }
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+}
@@ -0,0 +1,198 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.jfr.ParseEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A cache of parsed files shared by all {@link SyntaxGrader}s, so that each
+ * file is parsed only once, no matter how many graders examine it. Entries
+ * are keyed by the {@link Target}, a hash of the file's contents, the
+ * Java language level, and the {@link ParseProfile}, so a file that has
+ * changed is parsed again. A parse with one profile is reused for requests
+ * needing a cheaper one.
+ * <p>
+ * The {@link CompilationUnit}s returned by this class are shared among
+ * graders and must not be modified.
+ */
+public final class ParseCache {
+    /**
+     * The maximum number of parsed files retained by the shared cache.
+     */
+    public static final int MAX_ENTRIES = 256;
+
+    private static final ParseCache INSTANCE = new ParseCache(MAX_ENTRIES);
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final Map<Key, FutureTask<CompilationUnit>> entries;
+
+    private record Key(Target target, String contentHash, int javaLevel, ParseProfile profile) {
+    }
+
+    private ParseCache(final int maxEntries) {
+        // Use access order so the least recently used entry is evicted.
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Key, FutureTask<CompilationUnit>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache shared by all syntax graders.
+     *
+     * @return the shared cache
+     */
+    public static ParseCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static String hash(final byte[] contents) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance(HASH_ALGORITHM).digest(contents));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java implementation is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the fully parsed representation of a target, parsing it only if
+     * the same contents have not already been parsed at the current Java
+     * language level. If multiple threads request the same target at the
+     * same time, only one of them parses it.
+     *
+     * @param target the target
+     * @return the parsed representation, which must not be modified
+     * @throws SubmissionException if the file cannot be found or cannot be parsed
+     */
+    public CompilationUnit parse(final Target target) throws SubmissionException {
+        return parse(target, ParseProfile.FULL);
+    }
+
+    /**
+     * Gets a parsed representation of a target that satisfies the
+     * specified profile, parsing it only if the same contents have not
+     * already been parsed at the current Java language level with that
+     * profile or a more expensive one. If multiple threads request the same
+     * target and profile at the same time, only one of them parses it.
+     * <p>
+     * To have all the graders of a target share a single parse, the target
+     * can first be parsed with the profile returned by
+     * {@link ParseProfile#cheapestFor(java.util.Collection)}.
+     *
+     * @param target  the target
+     * @param profile the profile needed
+     * @return the parsed representation, which must not be modified
+     * @throws SubmissionException if the file cannot be found or cannot be parsed
+     */
+    public CompilationUnit parse(final Target target, final ParseProfile profile)
+            throws SubmissionException {
+        final byte[] contents;
+        try {
+            contents = Files.readAllBytes(target.toPath());
+        } catch (IOException e) {
+            throw new SubmissionException("Unable to find file " + target.toFile());
+        }
+        final Key key = new Key(target, hash(contents), GradingContext.current().javaLevel, profile);
+        return parse(key, contents, true);
+    }
+
+    // Gets the parse for the key, parsing the contents if needed. If
+    // reuseMoreExpensive is true, a parse with a more expensive profile may
+    // be reused, but if that parse failed, the contents are parsed again
+    // with the key's profile, which may succeed (such as if only the
+    // imports are needed).
+    private CompilationUnit parse(
+            final Key key,
+            final byte[] contents,
+            final boolean reuseMoreExpensive) throws SubmissionException {
+        final Target target = key.target();
+        final Key existingKey;
+        final FutureTask<CompilationUnit> task;
+        synchronized (entries) {
+            existingKey = reuseMoreExpensive ? findKey(key)
+                    : entries.containsKey(key) ? key : null;
+            if (existingKey == null) {
+                final Parser parser = new Parser(key.javaLevel(), key.profile());
+                task = new FutureTask<>(() -> parse(parser, key, contents));
+                entries.put(key, task);
+            } else {
+                task = entries.get(existingKey);
+            }
+        }
+        final boolean isNew = existingKey == null;
+        final ParseEvent event = new ParseEvent();
+        event.begin();
+        if (isNew) {
+            // Parse outside the lock so other files can be parsed concurrently.
+            task.run();
+        }
+        try {
+            final CompilationUnit cu = task.get();
+            event.finish(target.toPathString(), isNew ? "parsed" : "cached");
+            return cu;
+        } catch (ExecutionException e) {
+            event.finish(target.toPathString(), "failed");
+            if (e.getCause() instanceof SubmissionException submissionException) {
+                if (!isNew && !existingKey.equals(key)) {
+                    return parse(key, contents, false);
+                }
+                throw submissionException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SubmissionException("Interrupted while parsing " + target.toFile());
+        }
+    }
+
+    // Parses the contents for a new entry.
+    private static CompilationUnit parse(
+            final Parser parser,
+            final Key key,
+            final byte[] contents) throws SubmissionException {
+        final CompilationUnit cu = parser.parse(
+                key.target().toFile(), new String(contents, StandardCharsets.UTF_8));
+        if (!key.profile().isHeaderOnly()) {
+            // Attach the symbol solver while no other thread can see cu.
+            TypeSolverCache.getInstance().injectBeforeSharing(cu, key.javaLevel());
+        }
+        return cu;
+    }
+
+    // Finds the key of the cheapest parse satisfying the key's profile, if
+    // any. This must be called while holding the lock on entries.
+    private Key findKey(final Key key) {
+        for (final ParseProfile candidate : ParseProfile.values()) {
+            if (candidate.satisfies(key.profile())) {
+                final Key candidateKey = new Key( // NOPMD (at most one per profile)
+                        key.target(), key.contentHash(), key.javaLevel(), candidate);
+                if (entries.containsKey(candidateKey)) {
+                    return candidateKey;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes all entries from this cache.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
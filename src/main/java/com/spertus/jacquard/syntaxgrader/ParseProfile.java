@@ -0,0 +1,98 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ParserConfiguration;
+import com.spertus.jacquard.common.Grader;
+
+import java.util.Collection;
+
+/**
+ * How much of a file a {@link SyntaxGrader} needs parsed. The profiles are
+ * listed from cheapest to most expensive, and each provides everything the
+ * earlier ones do, so a parse with one profile satisfies graders needing
+ * that profile or any earlier one.
+ *
+ * @see SyntaxGrader#getParseProfile()
+ */
+public enum ParseProfile {
+    /**
+     * Only the package and import declarations are parsed. Parsing stops
+     * before the first type declaration, so errors in the rest of the file
+     * are not detected. Comments are not attributed, and tokens are not
+     * stored.
+     */
+    IMPORTS_ONLY(true, false, false),
+
+    /**
+     * The whole file is parsed, but comments are not attributed to nodes
+     * and do not appear in the tree. (Tokens are still stored, since
+     * JavaParser needs them to build some nodes, such as switch entries.)
+     */
+    NO_COMMENTS(false, false, true),
+
+    /**
+     * The whole file is parsed with JavaParser's default configuration.
+     */
+    FULL(false, true, true);
+
+    private final boolean headerOnly;
+    private final boolean attributeComments;
+    private final boolean storeTokens;
+
+    ParseProfile(
+            final boolean headerOnly,
+            final boolean attributeComments,
+            final boolean storeTokens) {
+        this.headerOnly = headerOnly;
+        this.attributeComments = attributeComments;
+        this.storeTokens = storeTokens;
+    }
+
+    /**
+     * Checks whether only the package and import declarations are parsed.
+     *
+     * @return true if only the header of the file is parsed
+     */
+    /* default */ boolean isHeaderOnly() {
+        return headerOnly;
+    }
+
+    /**
+     * Applies this profile to a parser configuration.
+     *
+     * @param config the configuration
+     */
+    /* default */ void configure(final ParserConfiguration config) {
+        config.setAttributeComments(attributeComments);
+        config.setStoreTokens(storeTokens);
+    }
+
+    /**
+     * Checks whether a parse with this profile satisfies a grader needing
+     * the specified profile.
+     *
+     * @param needed the profile needed
+     * @return true if this profile provides everything {@code needed} does
+     */
+    public boolean satisfies(final ParseProfile needed) {
+        return compareTo(needed) >= 0;
+    }
+
+    /**
+     * Gets the cheapest profile that satisfies every {@link SyntaxGrader}
+     * in a collection. Other graders are ignored.
+     *
+     * @param graders the graders
+     * @return the cheapest profile satisfying all the syntax graders, or
+     * {@link #IMPORTS_ONLY} if there are none
+     */
+    public static ParseProfile cheapestFor(final Collection<? extends Grader> graders) {
+        ParseProfile profile = IMPORTS_ONLY;
+        for (final Grader grader : graders) {
+            if (grader instanceof SyntaxGrader syntaxGrader
+                    && !profile.satisfies(syntaxGrader.getParseProfile())) {
+                profile = syntaxGrader.getParseProfile();
+            }
+        }
+        return profile;
+    }
+}
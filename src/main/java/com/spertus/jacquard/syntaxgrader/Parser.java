@@ -2,15 +2,20 @@ package com.spertus.jacquard.syntaxgrader;
 
 import com.github.javaparser.*;
 import com.github.javaparser.ast.CompilationUnit;
-import com.spertus.jacquard.common.Autograder;
+import com.spertus.jacquard.common.GradingContext;
 import com.spertus.jacquard.exceptions.*;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * A wrapper for {@link JavaParser}.
+ * A wrapper for {@link JavaParser}. The underlying {@code JavaParser}s are
+ * pooled, one per thread, language level, and {@link ParseProfile}, so
+ * creating a {@code Parser} is cheap, and a single {@code Parser} may be
+ * used by multiple threads.
  */
 public class Parser {
     /**
@@ -38,24 +43,138 @@ public class Parser {
                     ParserConfiguration.LanguageLevel.JAVA_17,
             };
 
-    private final JavaParser javaParser;
+    private static final ParseProfile[] PROFILES = ParseProfile.values();
+
+    // JavaParser is reusable but not thread-safe, so each thread gets its
+    // own, created when first needed, for each language level and profile.
+    private static final ThreadLocal<JavaParser[][]> JAVA_PARSERS =
+            ThreadLocal.withInitial(() -> new JavaParser[LEVELS.length][PROFILES.length]);
+
+    private final int levelIndex;
+    private final ParseProfile profile;
 
     /**
-     * Constructs a parser for the Java language level specified in
-     * {@link Autograder#javaLevel}.
+     * Constructs a parser for the Java language level of the current
+     * {@link GradingContext}.
      *
      * @throws ClientException if the language level is not supported
      */
     public Parser() {
-        final int javaLevel = Autograder.getInstance().javaLevel;
+        this(GradingContext.current().javaLevel);
+    }
+
+    /**
+     * Constructs a parser for the specified Java language level.
+     *
+     * @param javaLevel the Java language level
+     * @throws ClientException if the language level is not supported
+     */
+    public Parser(final int javaLevel) {
+        this(javaLevel, ParseProfile.FULL);
+    }
+
+    /**
+     * Constructs a parser for the specified Java language level that
+     * parses only as much as the specified profile requires.
+     *
+     * @param javaLevel the Java language level
+     * @param profile   the parse profile
+     * @throws ClientException if the language level is not supported
+     */
+    public Parser(final int javaLevel, final ParseProfile profile) {
         if (javaLevel < MIN_JAVA_LEVEL || javaLevel > MAX_JAVA_LEVEL) {
             throw new ClientException(
                     String.format("SyntaxGrader cannot be used with language level %d, only (%d-%d)",
                             javaLevel, MIN_JAVA_LEVEL, MAX_JAVA_LEVEL));
         }
+        levelIndex = javaLevel - MIN_JAVA_LEVEL;
+        this.profile = profile;
+    }
+
+    /**
+     * Gets the profile of this parser.
+     *
+     * @return the profile
+     */
+    public ParseProfile getProfile() {
+        return profile;
+    }
+
+    // Gets the current thread's JavaParser for this parser's language level
+    // and profile.
+    private JavaParser getJavaParser() {
+        final JavaParser[] javaParsers = JAVA_PARSERS.get()[levelIndex];
+        final int profileIndex = profile.ordinal();
+        if (javaParsers[profileIndex] == null) {
+            javaParsers[profileIndex] = new JavaParser(createConfiguration());
+        }
+        return javaParsers[profileIndex];
+    }
+
+    /**
+     * Creates a configuration for this parser's language level and profile.
+     *
+     * @return a new configuration
+     */
+    /* default */ ParserConfiguration createConfiguration() {
         final ParserConfiguration config = new ParserConfiguration();
-        config.setLanguageLevel(LEVELS[javaLevel - MIN_JAVA_LEVEL]);
-        javaParser = new JavaParser(config);
+        config.setLanguageLevel(LEVELS[levelIndex]);
+        profile.configure(config);
+        return config;
+    }
+
+    // Gets the package and import declarations at the start of the source,
+    // along with any comments among them. If the end of the header cannot
+    // be found, the entire source is returned.
+    /* default */ static String extractHeader(final String source) {
+        int pos = 0;
+        int end = 0;
+        while (true) {
+            pos = skipWhitespaceAndComments(source, pos);
+            if (pos >= source.length()) {
+                return source;
+            }
+            if (startsWithKeyword(source, pos, "package") || startsWithKeyword(source, pos, "import")) {
+                final int semicolon = source.indexOf(';', pos);
+                if (semicolon < 0) {
+                    return source;
+                }
+                pos = semicolon + 1;
+                end = pos;
+            } else if (source.charAt(pos) == ';') { // NOPMD (stray semicolon)
+                pos++;
+                end = pos;
+            } else if (end == 0 && source.charAt(pos) == '@') {
+                // This could be an annotated package declaration.
+                return source;
+            } else {
+                return source.substring(0, end);
+            }
+        }
+    }
+
+    private static boolean startsWithKeyword(final String source, final int pos, final String keyword) {
+        final int after = pos + keyword.length();
+        return source.startsWith(keyword, pos)
+                && (after == source.length() || !Character.isJavaIdentifierPart(source.charAt(after)));
+    }
+
+    private static int skipWhitespaceAndComments(final String source, final int start) {
+        int pos = start;
+        while (pos < source.length()) {
+            if (Character.isWhitespace(source.charAt(pos))) {
+                pos++;
+            } else if (source.startsWith("//", pos)) {
+                final int newline = source.indexOf('\n', pos);
+                pos = newline < 0 ? source.length() : newline + 1;
+            } else if (source.startsWith("/*", pos)) {
+                final int close = source.indexOf("*/", pos + 2);
+                pos = close < 0 ? source.length() : close + 2;
+            } else {
+                break;
+            }
+        }
+        return pos;
     }
 
     private static String joinProblems(final List<Problem> problems) {
@@ -70,8 +189,15 @@ public class Parser {
      * @throws SubmissionException if the file cannot be found or cannot be parsed
      */
     public CompilationUnit parse(final File file) throws SubmissionException {
+        if (profile.isHeaderOnly()) {
+            try {
+                return parse(file, Files.readString(file.toPath()));
+            } catch (IOException e) {
+                throw new SubmissionException("Unable to find file " + file);
+            }
+        }
         try {
-            final ParseResult<CompilationUnit> parseResult = javaParser.parse(file);
+            final ParseResult<CompilationUnit> parseResult = getJavaParser().parse(file);
             if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
                 return parseResult.getResult().get();
             }
@@ -81,4 +207,25 @@ public class Parser {
             throw new SubmissionException("Unable to find file " + file);
         }
     }
+
+    /**
+     * Parses the already-read contents of a file.
+     *
+     * @param file   the file, which is used for error messages and storage
+     *               information
+     * @param source the contents of the file
+     * @return the parsed representation
+     * @throws SubmissionException if the contents cannot be parsed
+     */
+    /* default */ CompilationUnit parse(final File file, final String source) throws SubmissionException {
+        final ParseResult<CompilationUnit> parseResult = getJavaParser().parse(
+                profile.isHeaderOnly() ? extractHeader(source) : source);
+        if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
+            final CompilationUnit cu = parseResult.getResult().get();
+            cu.setStorage(file.toPath(), StandardCharsets.UTF_8);
+            return cu;
+        }
+        throw new SubmissionException(
+                "Unable to parse " + file + ":\n" + joinProblems(parseResult.getProblems()));
+    }
 }
@@ -0,0 +1,68 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A thread-safe map from compilation units to information derived from
+ * them, such as a {@link NodeIndex}. Keeping the information here, rather
+ * than in the data of the compilation units, means the compilation units
+ * shared by {@link ParseCache} are never modified.
+ * <p>
+ * Compilation units are compared by identity, since JavaParser's
+ * {@code equals()} compares entire trees. The values usually refer to
+ * nodes of their compilation units, which would keep weak keys from ever
+ * being cleared, so the least recently used entries are discarded instead
+ * once there are more than {@link ParseCache#MAX_ENTRIES}.
+ *
+ * @param <V> the type of the values
+ */
+final class SideTable<V> {
+    // Use access order so the least recently used entry is evicted.
+    private final Map<Key, V> entries = new LinkedHashMap<>(16, 0.75f, true) { // NOPMD (synchronized)
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, V> eldest) {
+            return size() > ParseCache.MAX_ENTRIES;
+        }
+    };
+
+    private record Key(CompilationUnit cu) {
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key key && key.cu == cu;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(cu);
+        }
+    }
+
+    /**
+     * Gets the value for a compilation unit, computing it if there is none.
+     * The value is computed without holding the lock, so it may be computed
+     * more than once, in which case only one result is kept.
+     *
+     * @param cu       the compilation unit
+     * @param function the function computing the value
+     * @return the value
+     */
+    /* default */ V computeIfAbsent(
+            final CompilationUnit cu,
+            final Function<CompilationUnit, V> function) {
+        final Key key = new Key(cu);
+        synchronized (entries) {
+            final V value = entries.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        final V value = function.apply(cu);
+        synchronized (entries) {
+            final V existing = entries.putIfAbsent(key, value);
+            return existing == null ? value : existing;
+        }
+    }
+}
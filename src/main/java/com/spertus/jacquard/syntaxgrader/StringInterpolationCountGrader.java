@@ -5,6 +5,8 @@ import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.spertus.jacquard.common.Result;
 import com.spertus.jacquard.exceptions.ClientException;
 
+import java.util.Optional;
+
 /**
  * A grader that counts the number of occurrences of string interpolation.
  */
@@ -47,6 +49,30 @@ public class StringInterpolationCountGrader extends SyntaxCountGrader {
         this(GRADER_NAME, maxScore, minCount, maxCount);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Comments are not examined.
+     *
+     * @return {@link ParseProfile#NO_COMMENTS}
+     */
+    @Override
+    public ParseProfile getParseProfile() {
+        return ParseProfile.NO_COMMENTS;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the range and score need to be included.
+     *
+     * @return the configuration key
+     */
+    @Override
+    public Optional<String> getConfigurationKey() {
+        return Optional.of(getCountKey());
+    }
+
     private static class StringInterpolationAdapter extends VoidVisitorAdapter<MutableInteger> { // NOPMD
         @Override
         public void visit(final MethodCallExpr node, final MutableInteger mi) {
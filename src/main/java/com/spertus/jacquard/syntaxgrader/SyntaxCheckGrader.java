@@ -20,6 +20,9 @@ import java.util.*;
  *     disallowed imports are present, awarding or withholding
  *     {@link #maxScorePerInstance} (all or nothing)</li>
  * </ul>
+ * Everything learned while grading a compilation unit is kept in a
+ * per-call {@link State}, so one grader can grade multiple compilation
+ * units concurrently.
  */
 public abstract class SyntaxCheckGrader extends SyntaxGrader {
     /**
@@ -30,9 +33,12 @@ public abstract class SyntaxCheckGrader extends SyntaxGrader {
     /**
      * The adapter that visits the nodes of the parse tree. If this is not
      * passed to this class's constructor, it must be set in the child class's
-     * constructor.
+     * constructor. The adapter is shared by all calls to
+     * {@link #grade(CompilationUnit)}, which may be concurrent, so it must
+     * keep any information about the compilation unit in the {@link State}
+     * passed to it rather than in its own fields.
      */
-    protected VoidVisitorAdapter<List<Result>> adapter;
+    protected VoidVisitorAdapter<State> adapter;
 
     /**
      * Constructs a syntax checker. If the adapter is null, the constructor in
@@ -47,33 +53,89 @@ public abstract class SyntaxCheckGrader extends SyntaxGrader {
     protected SyntaxCheckGrader(
             final String name,
             final double maxScorePerInstance,
-            final VoidVisitorAdapter<List<Result>> adapter) {
+            final VoidVisitorAdapter<State> adapter) {
         super(name);
         this.maxScorePerInstance = maxScorePerInstance;
         this.adapter = adapter;
     }
 
+    /**
+     * The state of a single call to {@link #grade(CompilationUnit)}. A new
+     * state is created for each call by {@link #createState()} and passed to
+     * the {@link #adapter} as it visits the parse tree. Subclasses that need
+     * to remember what they have seen should extend this class.
+     */
+    protected static class State {
+        private final List<Result> results = new ArrayList<>();
+
+        /**
+         * Constructs an empty state.
+         */
+        protected State() {
+        }
+
+        /**
+         * Gets the results produced so far, which may be added to.
+         *
+         * @return the results
+         */
+        public List<Result> getResults() {
+            return results;
+        }
+    }
+
+    /**
+     * Creates the state for a call to {@link #grade(CompilationUnit)}.
+     * Subclasses that extend {@link State} must override this.
+     *
+     * @return a new state
+     */
+    protected State createState() {
+        return new State();
+    }
+
     /**
      * Performs any setup before a call to {@link #grade(CompilationUnit)}.
+     *
+     * @deprecated Setup done here is shared by concurrent calls to
+     * {@link #grade(CompilationUnit)}. Override {@link #createState()}
+     * instead. This is still called at the start of each call.
      */
+    @Deprecated
     public void initialize() {
     }
 
+    /**
+     * Adds any results that cannot be computed until all visits are complete.
+     * By default, this calls {@link #finalizeResults(List)} with the results
+     * in the state.
+     *
+     * @param state the state of the call, whose results may be added to
+     */
+    protected void finalizeResults(final State state) {
+        finalizeResults(state.getResults());
+    }
+
     /**
      * Adds any results that cannot be computed until all visits are complete.
      *
      * @param results the list of results, which may be mutated by this call
+     * @deprecated Override {@link #finalizeResults(State)} instead, which
+     * has access to the state of the call. This is still called by its
+     * default implementation.
      */
+    @Deprecated
     public void finalizeResults(final List<Result> results) {
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public List<Result> grade(final CompilationUnit cu) {
         initialize();
-        final List<Result> results = new ArrayList<>();
-        adapter.visit(cu, results);
-        finalizeResults(results);
-        return results;
+        final State state = createState();
+        adapter.visit(cu, state);
+        finalizeResults(state);
+        return state.getResults();
     }
 
     /**
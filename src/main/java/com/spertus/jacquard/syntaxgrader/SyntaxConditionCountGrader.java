@@ -8,9 +8,11 @@ import com.github.javaparser.ast.modules.*;
 import com.github.javaparser.ast.stmt.*;
 import com.github.javaparser.ast.type.*;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.spertus.jacquard.common.Result;
 import com.spertus.jacquard.exceptions.ClientException;
 
-import java.util.function.Predicate;
+import java.util.*;
+import java.util.function.*;
 
 /**
  * A grader that counts whether the number of parse nodes satisfying a given
@@ -20,6 +22,10 @@ import java.util.function.Predicate;
  */
 @SuppressWarnings("PMD.ExcessivePublicCount")
 public abstract class SyntaxConditionCountGrader extends SyntaxCountGrader {
+    private final Predicate<Node> predicate;
+    // If non-empty, the predicate is tested only on nodes of these types.
+    private final Set<Class<? extends Node>> nodeTypes;
+
     /**
      * Creates a new counter to test whether the number of parse nodes
      * satisfying the predicate is within the specified range.
@@ -41,615 +47,702 @@ public abstract class SyntaxConditionCountGrader extends SyntaxCountGrader {
             final int minCount,
             final int maxCount,
             final Predicate<Node> predicate) {
-        super(name, countedName, maxScore, minCount, maxCount, new Adapter(predicate));
+        this(name, countedName, maxScore, minCount, maxCount, List.of(), predicate);
     }
 
-    private static class Adapter extends VoidVisitorAdapter<MutableInteger> { // NOPMD
-        private final Predicate<Node> predicate;
+    /**
+     * Creates a new counter to test whether the number of parse nodes of the
+     * specified types satisfying the predicate is within the specified range.
+     * The predicate is tested only on nodes that are instances of one of the
+     * types, which are found through an index built once per compilation
+     * unit, rather than on every node of the parse tree.
+     *
+     * @param name        the name of this grader
+     * @param countedName the name of the element(s) being counted
+     * @param maxScore    the score if the condition holds
+     * @param minCount    the minimum number of occurrences, which must be non-negative
+     * @param maxCount    the maximum number of occurrences, or {@link Integer#MAX_VALUE}
+     *                    if there is no limit
+     * @param nodeTypes   the types of nodes to which the condition applies, or
+     *                    the empty list if it applies to all nodes
+     * @param predicate   the condition
+     * @throws ClientException if minCount &lt; 0, maxCount &lt; minCount,
+     *                         or minCount is 0 when maxCount is {@link Integer#MAX_VALUE}
+     */
+    protected SyntaxConditionCountGrader(
+            final String name,
+            final String countedName,
+            final double maxScore,
+            final int minCount,
+            final int maxCount,
+            final List<? extends Class<? extends Node>> nodeTypes,
+            final Predicate<Node> predicate) {
+        super(name, countedName, maxScore, minCount, maxCount,
+                new NodeAdapter<MutableInteger>((node, mi) -> {
+                    if (predicate.test(node)) {
+                        mi.increment();
+                    }
+                }));
+        this.predicate = predicate;
+        this.nodeTypes = Set.copyOf(nodeTypes);
+    }
 
-        private Adapter(final Predicate<Node> predicate) {
-            super();
-            this.predicate = predicate;
+    @Override
+    protected List<Result> grade(final CompilationUnit cu) {
+        if (nodeTypes.isEmpty()) {
+            return super.grade(cu);
         }
+        return List.of(getResult(new MutableInteger(countIndexed(cu))));
+    }
 
-        private void count(final Node node, final MutableInteger mi) {
+    /**
+     * Counts the nodes satisfying the predicate by examining only those
+     * nodes of the types this grader applies to. This should be called
+     * only if {@link #hasNodeTypes()} is true.
+     *
+     * @param cu the compilation unit
+     * @return the number of nodes satisfying the predicate
+     */
+    /* default */ int countIndexed(final CompilationUnit cu) {
+        int count = 0;
+        for (final Node node : NodeIndex.getIndex(cu).getNodes(nodeTypes)) {
             if (predicate.test(node)) {
-                mi.increment();
+                count++;
             }
         }
+        return count;
+    }
+
+    /**
+     * Checks whether the condition applies only to nodes of specific types.
+     *
+     * @return true if the condition applies only to nodes of specific types,
+     * false if it applies to all nodes
+     */
+    /* default */ boolean hasNodeTypes() {
+        return !nodeTypes.isEmpty();
+    }
+
+    /**
+     * Gets the condition that counted nodes satisfy.
+     *
+     * @return the condition
+     */
+    /* default */ Predicate<Node> getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * An adapter that applies an action to every node of the parse tree
+     * that a {@link SyntaxConditionCountGrader} checks.
+     *
+     * @param <A> the type of the argument passed through the visit
+     */
+    static class NodeAdapter<A> extends VoidVisitorAdapter<A> { // NOPMD
+        private final BiConsumer<Node, A> action;
+
+        /**
+         * Creates an adapter that applies the action to each node visited.
+         *
+         * @param action the action
+         */
+        /* default */ NodeAdapter(final BiConsumer<Node, A> action) {
+            super();
+            this.action = action;
+        }
 
         @Override
-        public void visit(final AnnotationDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final AnnotationDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final AnnotationMemberDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final AnnotationMemberDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ArrayAccessExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ArrayAccessExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ArrayCreationExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ArrayCreationExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ArrayInitializerExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ArrayInitializerExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final AssertStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final AssertStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final AssignExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final AssignExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final BinaryExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final BinaryExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final BlockComment n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final BlockComment n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final BlockStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final BlockStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final BooleanLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final BooleanLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final BreakStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final BreakStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final CastExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final CastExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final CatchClause n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final CatchClause n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final CharLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final CharLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ClassExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ClassExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ClassOrInterfaceDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ClassOrInterfaceDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ClassOrInterfaceType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ClassOrInterfaceType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final CompilationUnit n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final CompilationUnit n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ConditionalExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ConditionalExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ConstructorDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ConstructorDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ContinueStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ContinueStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final DoStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final DoStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final DoubleLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final DoubleLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final EmptyStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final EmptyStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final EnclosedExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final EnclosedExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final EnumConstantDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final EnumConstantDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final EnumDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final EnumDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ExplicitConstructorInvocationStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ExplicitConstructorInvocationStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ExpressionStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ExpressionStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final FieldAccessExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final FieldAccessExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final FieldDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final FieldDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ForEachStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ForEachStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ForStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ForStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final IfStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final IfStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final InitializerDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final InitializerDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final InstanceOfExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final InstanceOfExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final IntegerLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final IntegerLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final JavadocComment n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final JavadocComment n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final LabeledStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final LabeledStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final LineComment n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final LineComment n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final LongLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final LongLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final MarkerAnnotationExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final MarkerAnnotationExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final MemberValuePair n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final MemberValuePair n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final MethodCallExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final MethodCallExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final MethodDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final MethodDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final NameExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final NameExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final NormalAnnotationExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final NormalAnnotationExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final NullLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final NullLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ObjectCreationExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ObjectCreationExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final PackageDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final PackageDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final Parameter n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final Parameter n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final PrimitiveType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final PrimitiveType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final Name n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final Name n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SimpleName n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SimpleName n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ArrayType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ArrayType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ArrayCreationLevel n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ArrayCreationLevel n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final IntersectionType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final IntersectionType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final UnionType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final UnionType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ReturnStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ReturnStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SingleMemberAnnotationExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SingleMemberAnnotationExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final StringLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final StringLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SuperExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SuperExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SwitchEntry n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SwitchEntry n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SwitchStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SwitchStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SynchronizedStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SynchronizedStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ThisExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ThisExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ThrowStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ThrowStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final TryStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final TryStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final LocalClassDeclarationStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final LocalClassDeclarationStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final LocalRecordDeclarationStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final LocalRecordDeclarationStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final TypeParameter n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final TypeParameter n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final UnaryExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final UnaryExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final UnknownType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final UnknownType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final VariableDeclarationExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final VariableDeclarationExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final VariableDeclarator n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final VariableDeclarator n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final VoidType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final VoidType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final WhileStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final WhileStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final WildcardType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final WildcardType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final LambdaExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final LambdaExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final MethodReferenceExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final MethodReferenceExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final TypeExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final TypeExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ImportDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ImportDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ModuleDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ModuleDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ModuleRequiresDirective n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ModuleRequiresDirective n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ModuleExportsDirective n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ModuleExportsDirective n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ModuleProvidesDirective n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ModuleProvidesDirective n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ModuleUsesDirective n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ModuleUsesDirective n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ModuleOpensDirective n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ModuleOpensDirective n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final UnparsableStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final UnparsableStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final ReceiverParameter n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final ReceiverParameter n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final VarType n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final VarType n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final Modifier n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final Modifier n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final SwitchExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final SwitchExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final TextBlockLiteralExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final TextBlockLiteralExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final YieldStmt n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final YieldStmt n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final PatternExpr n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final PatternExpr n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final RecordDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final RecordDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
 
         @Override
-        public void visit(final CompactConstructorDeclaration n, final MutableInteger mi) {
-            count(n, mi);
-            super.visit(n, mi);
+        public void visit(final CompactConstructorDeclaration n, final A arg) {
+            action.accept(n, arg);
+            super.visit(n, arg);
         }
     }
 }
@@ -3,6 +3,7 @@ package com.spertus.jacquard.syntaxgrader;
 import com.github.javaparser.ast.Node;
 import com.spertus.jacquard.exceptions.ClientException;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 /**
@@ -33,6 +34,16 @@ public class SyntaxConditionGrader extends SyntaxConditionCountGrader {
         super(name, countedName, maxScore, count, count, predicate);
     }
 
+    private SyntaxConditionGrader(
+            final String name,
+            final int count,
+            final String countedName,
+            final double maxScore,
+            final Class<? extends Node> nodeType,
+            final Predicate<Node> predicate) {
+        super(name, countedName, maxScore, count, count, List.of(nodeType), predicate);
+    }
+
     /**
      * Creates a grader with a default name to test whether any parse nodes
      * satisfy the predicate.
@@ -55,4 +66,56 @@ public class SyntaxConditionGrader extends SyntaxConditionCountGrader {
                 maxScore,
                 predicate);
     }
+
+    /**
+     * Creates a grader to test whether the specified number of parse nodes of
+     * the given type satisfy the predicate. The predicate is called only on
+     * nodes of that type (including subtypes), which is much faster than
+     * testing every node in the parse tree.
+     *
+     * @param name        the name of this grader
+     * @param count       the desired count
+     * @param countedName the name of the element being checked
+     * @param maxScore    the score if the condition holds
+     * @param nodeType    the type of node to which the condition applies
+     * @param predicate   the condition
+     * @param <T>         the type of node to which the condition applies
+     * @return the grader
+     * @throws ClientException if {@code count} is negative
+     */
+    public static <T extends Node> SyntaxConditionGrader forNodeType(
+            final String name,
+            final int count,
+            final String countedName,
+            final double maxScore,
+            final Class<T> nodeType,
+            final Predicate<? super T> predicate) {
+        return new SyntaxConditionGrader(name, count, countedName, maxScore, nodeType,
+                node -> nodeType.isInstance(node) && predicate.test(nodeType.cast(node)));
+    }
+
+    /**
+     * Creates a grader with a default name to test whether the specified
+     * number of parse nodes of the given type satisfy the predicate. The
+     * predicate is called only on nodes of that type (including subtypes),
+     * which is much faster than testing every node in the parse tree.
+     *
+     * @param count       the desired count
+     * @param countedName the name of the element being checked
+     * @param maxScore    the score if the condition holds
+     * @param nodeType    the type of node to which the condition applies
+     * @param predicate   the condition
+     * @param <T>         the type of node to which the condition applies
+     * @return the grader
+     * @throws ClientException if {@code count} is negative
+     */
+    public static <T extends Node> SyntaxConditionGrader forNodeType(
+            final int count,
+            final String countedName,
+            final double maxScore,
+            final Class<T> nodeType,
+            final Predicate<? super T> predicate) {
+        return forNodeType(String.format(GRADER_FORMAT_STRING, countedName),
+                count, countedName, maxScore, nodeType, predicate);
+    }
 }
@@ -2,7 +2,7 @@ package com.spertus.jacquard.syntaxgrader;
 
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.spertus.jacquard.common.Result;
+import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.exceptions.ClientException;
 
 import java.util.*;
@@ -60,6 +60,38 @@ public abstract class SyntaxCountGrader extends SyntaxGrader {
         this.adapter = adapter;
     }
 
+    /**
+     * Gets the adapter used to count occurrences of the syntactic element.
+     *
+     * @return the adapter
+     */
+    /* default */ VoidVisitorAdapter<MutableInteger> getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * Gets a description of the range and score of this grader, for use by
+     * subclasses that know what they count in implementing
+     * {@link #getConfigurationKey()}.
+     *
+     * @return a description of the range and score
+     */
+    protected String getCountKey() {
+        return String.format("%s %s %d %d", countedName, maxScore, minCount, maxCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each target produces a result worth the maximum score.
+     *
+     * @return the maximum score times the number of targets
+     */
+    @Override
+    public double getMaxScore(final Target... targets) {
+        return maxScore * targets.length;
+    }
+
     @Override
     protected List<Result> grade(final CompilationUnit cu) {
         final MutableInteger mi = new MutableInteger();
@@ -20,10 +20,61 @@ public abstract class SyntaxGrader extends Grader {
         super(name);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Syntax graders are CPU-intensive, since they parse source code.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isCpuIntensive() {
+        return true;
+    }
+
+    /**
+     * Gets how much of a file this grader needs parsed. The default
+     * implementation returns {@link ParseProfile#FULL}. Subclasses that
+     * examine less of the parse tree should override this so that cheaper
+     * parses can be used.
+     *
+     * @return the parse profile this grader needs
+     */
+    public ParseProfile getParseProfile() {
+        return ParseProfile.FULL;
+    }
+
+    /**
+     * Checks whether this grader resolves symbols, such as the types of
+     * expressions. If so, the shared symbol solver for the target's source
+     * root (see {@link TypeSolverCache}) is attached to the compilation
+     * unit before {@link #grade(CompilationUnit)} is called, so JavaParser's
+     * resolution methods can be used. Resolution through
+     * {@link TypeSolverCache} is memoized and thread-safe and should be
+     * preferred. The default implementation returns false.
+     *
+     * @return true if this grader resolves symbols
+     */
+    public boolean isSymbolResolving() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The target is parsed through the shared {@link ParseCache}, so
+     * multiple syntax graders examining the same file share one parse,
+     * using the profile returned by {@link #getParseProfile()}.
+     */
     @Override
     public Callable<List<Result>> getCallableSingleTarget(final Target target) {
-        final Parser parser = new Parser();
-        return () -> grade(parser.parse(target.toFile()));
+        return () -> {
+            final CompilationUnit cu = ParseCache.getInstance().parse(target, getParseProfile());
+            if (isSymbolResolving()) {
+                TypeSolverCache.getInstance().inject(cu);
+            }
+            return grade(cu);
+        };
     }
 
     /**
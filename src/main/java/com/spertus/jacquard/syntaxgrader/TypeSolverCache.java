@@ -0,0 +1,241 @@
+package com.spertus.jacquard.syntaxgrader;
+
+import com.github.javaparser.ast.*;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.*;
+import com.spertus.jacquard.common.GradingContext;
+import com.spertus.jacquard.exceptions.ClientException;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The type solvers shared by all {@link SyntaxGrader}s, which resolve
+ * symbols, such as the types of expressions and the declarations of called
+ * methods. One {@link CombinedTypeSolver}, consisting of a
+ * {@link ReflectionTypeSolver} for library classes and a
+ * {@link JavaParserTypeSolver} over the submission's source root, is
+ * created per source root and Java level, so types solved while grading
+ * one file are not solved again for other files or graders. At most
+ * {@link #MAX_ENTRIES} source roots are kept, the least recently used
+ * being discarded first, so grading many submissions does not exhaust
+ * memory.
+ * <p>
+ * The results of {@link #resolveType(Expression)},
+ * {@link #resolveType(Type)}, and {@link #resolveMethod(MethodCallExpr)}
+ * are memoized in {@link SideTable}s, so type-aware checks by multiple
+ * graders resolve each node once. These methods are thread-safe. Since the
+ * underlying solvers are not, nodes sharing a solver are resolved one at a
+ * time.
+ * <p>
+ * The symbol solver is attached to each compilation unit parsed by
+ * {@link ParseCache} before the compilation unit is shared, so shared
+ * compilation units are not modified. Any other compilation unit has its
+ * solver attached when it is first needed.
+ *
+ * @see SyntaxGrader#isSymbolResolving()
+ */
+public final class TypeSolverCache {
+    /**
+     * The maximum number of source roots whose type solvers are retained.
+     */
+    public static final int MAX_ENTRIES = 32;
+
+    private static final TypeSolverCache INSTANCE = new TypeSolverCache();
+    // Memoized resolutions, which are guarded by the lock on the symbol
+    // solver of their compilation units.
+    private static final SideTable<Map<Node, Optional<ResolvedType>>> TYPES = new SideTable<>();
+    private static final SideTable<Map<Node, Optional<ResolvedMethodDeclaration>>> METHODS =
+            new SideTable<>();
+    // Guards the symbol solvers attached to compilation units that were
+    // not parsed by ParseCache.
+    private static final Object SOLVER_LOCK = new Object();
+
+    // Use access order so the least recently used entry is evicted.
+    private final Map<Key, Solvers> solvers = new LinkedHashMap<>(16, 0.75f, true) { // NOPMD (synchronized)
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Solvers> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // The source root is null for code that was not parsed from a file.
+    private record Key(Path sourceRoot, int javaLevel) {
+    }
+
+    private record Solvers(TypeSolver typeSolver, JavaSymbolSolver symbolSolver) {
+    }
+
+    private TypeSolverCache() {
+    }
+
+    /**
+     * Gets the cache shared by all syntax graders.
+     *
+     * @return the shared cache
+     */
+    public static TypeSolverCache getInstance() {
+        return INSTANCE;
+    }
+
+    private Solvers getSolvers(final Path sourceRoot) {
+        return getSolvers(sourceRoot, GradingContext.current().javaLevel);
+    }
+
+    private Solvers getSolvers(final Path sourceRoot, final int javaLevel) {
+        final Key key = new Key(sourceRoot, javaLevel);
+        // The solvers are cheap to create, since they solve types lazily.
+        synchronized (solvers) {
+            return solvers.computeIfAbsent(key, k -> {
+                final CombinedTypeSolver typeSolver = new CombinedTypeSolver(new ReflectionTypeSolver());
+                if (k.sourceRoot() != null) {
+                    typeSolver.add(new JavaParserTypeSolver(
+                            k.sourceRoot(), new Parser(k.javaLevel()).createConfiguration()));
+                }
+                return new Solvers(typeSolver, new JavaSymbolSolver(typeSolver));
+            });
+        }
+    }
+
+    /**
+     * Gets the type solver for the specified source root and the Java level
+     * of the current {@link GradingContext}.
+     *
+     * @param sourceRoot the source root, or {@code null} for a solver that
+     *                   knows only library classes
+     * @return the shared type solver
+     */
+    public TypeSolver getTypeSolver(final Path sourceRoot) {
+        return getSolvers(sourceRoot).typeSolver();
+    }
+
+    /**
+     * Gets the type solver for the source root of the compilation unit and
+     * the Java level of the current {@link GradingContext}. This is the
+     * solver whose symbol solver is attached to the compilation unit.
+     *
+     * @param cu the compilation unit
+     * @return the shared type solver
+     */
+    public TypeSolver getTypeSolver(final CompilationUnit cu) {
+        return getTypeSolver(getSourceRoot(cu));
+    }
+
+    // Gets the directory holding the root of the compilation unit's package
+    // hierarchy, or its own directory if the package does not match its
+    // location.
+    private static Path getSourceRoot(final CompilationUnit cu) {
+        return cu.getStorage().map(storage -> {
+            try {
+                return storage.getSourceRoot();
+            } catch (RuntimeException e) { // NOPMD
+                return storage.getDirectory();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Makes the shared symbol solver for a newly parsed compilation unit's
+     * source root available to JavaParser's resolution methods. This must
+     * be called before the compilation unit is shared with other threads.
+     *
+     * @param cu        the compilation unit
+     * @param javaLevel the Java level at which it was parsed
+     */
+    /* default */ void injectBeforeSharing(final CompilationUnit cu, final int javaLevel) {
+        getSolvers(getSourceRoot(cu), javaLevel).symbolSolver().inject(cu);
+    }
+
+    /**
+     * Makes the shared symbol solver for the compilation unit's source root
+     * available to JavaParser's resolution methods, if it is not already.
+     *
+     * @param cu the compilation unit
+     */
+    /* default */ void inject(final CompilationUnit cu) {
+        getSymbolResolver(cu);
+    }
+
+    // Gets the symbol resolver of the compilation unit, attaching one if
+    // needed. All access to the data of compilation units holds one lock.
+    private Object getSymbolResolver(final CompilationUnit cu) {
+        synchronized (SOLVER_LOCK) {
+            if (!cu.containsData(Node.SYMBOL_RESOLVER_KEY)) {
+                getSolvers(getSourceRoot(cu)).symbolSolver().inject(cu);
+            }
+            return cu.getData(Node.SYMBOL_RESOLVER_KEY);
+        }
+    }
+
+    /**
+     * Resolves the type of an expression.
+     *
+     * @param expression the expression
+     * @return the type, or empty if it cannot be resolved
+     * @throws ClientException if the expression is not part of a compilation unit
+     */
+    public Optional<ResolvedType> resolveType(final Expression expression) {
+        return resolve(expression, TYPES, Expression::calculateResolvedType);
+    }
+
+    /**
+     * Resolves a type appearing in the code, such as the type of a field.
+     *
+     * @param type the type
+     * @return the resolved type, or empty if it cannot be resolved
+     * @throws ClientException if the type is not part of a compilation unit
+     */
+    public Optional<ResolvedType> resolveType(final Type type) {
+        return resolve(type, TYPES, Type::resolve);
+    }
+
+    /**
+     * Resolves the declaration of the method called by an expression.
+     *
+     * @param call the method call
+     * @return the method declaration, or empty if it cannot be resolved
+     * @throws ClientException if the call is not part of a compilation unit
+     */
+    public Optional<ResolvedMethodDeclaration> resolveMethod(final MethodCallExpr call) {
+        return resolve(call, METHODS, MethodCallExpr::resolve);
+    }
+
+    private <N extends Node, T> Optional<T> resolve(
+            final N node,
+            final SideTable<Map<Node, Optional<T>>> table,
+            final Function<N, T> resolver) {
+        final CompilationUnit cu = node.findCompilationUnit().orElseThrow(
+                () -> new ClientException("Only nodes of compilation units can be resolved"));
+        final Map<Node, Optional<T>> resolutions = // NOPMD (synchronized)
+                table.computeIfAbsent(cu, c -> new IdentityHashMap<>());
+        synchronized (getSymbolResolver(cu)) {
+            Optional<T> result = resolutions.get(node);
+            if (result == null) { // NOPMD (not yet resolved)
+                try {
+                    result = Optional.of(resolver.apply(node));
+                } catch (RuntimeException e) { // NOPMD
+                    // JavaParser signals unresolvable symbols with various exceptions.
+                    result = Optional.empty();
+                }
+                resolutions.put(node, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Discards all type solvers, and with them anything they have solved.
+     * Memoized resolutions of nodes that have already been parsed are kept.
+     */
+    public void clear() {
+        synchronized (solvers) {
+            solvers.clear();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.spertus.jacquard;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.spertus.jacquard.batch.BatchAutograder;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.coverage.*;
+import com.spertus.jacquard.exceptions.ClientException;
+import com.spertus.jacquard.junittester.JUnitTester;
+import com.spertus.jacquard.syntaxgrader.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+import java.util.zip.*;
+import javax.tools.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAutograderTest {
+    private static final String TARGET_NAME = "Mob.java";
+
+    @TempDir
+    Path tempDir;
+
+    private Path submissions;
+    private BatchAutograder batchAutograder;
+
+    @BeforeAll
+    public static void init() {
+        Autograder.initForTest();
+    }
+
+    @BeforeEach
+    public void setup() throws IOException, URISyntaxException {
+        // Student "alice" overrides toString(); student "bob" does not.
+        submissions = Files.createDirectory(tempDir.resolve("submissions"));
+        copySubmission("alice", "good/Mob.java");
+        copySubmission("bob", "good/NoToStringMethod.java");
+        Grader grader = SyntaxConditionGrader.forNodeType(
+                "toString() test",
+                1,
+                "toString() method",
+                5.0,
+                MethodDeclaration.class,
+                methodDecl -> methodDecl.getNameAsString().equals("toString"));
+        batchAutograder = new BatchAutograder(List.of(grader), List.of(TARGET_NAME));
+    }
+
+    private void copySubmission(String student, String resource) throws IOException, URISyntaxException {
+        Path root = Files.createDirectory(submissions.resolve(student));
+        Files.copy(TestUtilities.getPath(resource), root.resolve(TARGET_NAME));
+    }
+
+    private void checkResults(Map<String, List<Result>> results) {
+        assertEquals(List.of("alice", "bob"), new ArrayList<>(results.keySet()));
+        TestUtilities.assertResultsMatch(results.get("alice"), 1, 5.0, 5.0);
+        TestUtilities.assertResultsMatch(results.get("bob"), 1, 0.0, 5.0);
+    }
+
+    @Test
+    public void testDirectory() {
+        checkResults(batchAutograder.grade(submissions));
+    }
+
+    @Test
+    public void testZipArchive() throws IOException {
+        Path archive = tempDir.resolve("submissions.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (String student : List.of("alice", "bob")) {
+                zos.putNextEntry(new ZipEntry(student + "/" + TARGET_NAME));
+                zos.write(Files.readAllBytes(submissions.resolve(student).resolve(TARGET_NAME)));
+                zos.closeEntry();
+            }
+        }
+        checkResults(batchAutograder.grade(archive));
+    }
+
+    @Test
+    public void testGradeAndWrite() throws IOException {
+        Path outputDir = tempDir.resolve("output");
+        checkResults(batchAutograder.gradeAndWrite(submissions, outputDir));
+        assertTrue(Files.readString(outputDir.resolve("alice.json")).contains("\"score\":5"));
+        assertTrue(Files.readString(outputDir.resolve("bob.json")).contains("\"score\":0"));
+    }
+
+    private static long countExtractedDirectories() throws IOException {
+        try (Stream<Path> paths = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("jacquard-batch")).count();
+        }
+    }
+
+    @Test
+    public void testZipArchiveIsDeleted() throws IOException {
+        Path archive = tempDir.resolve("submissions.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zos.putNextEntry(new ZipEntry("alice/" + TARGET_NAME));
+            zos.write(Files.readAllBytes(submissions.resolve("alice").resolve(TARGET_NAME)));
+            zos.closeEntry();
+        }
+        long before = countExtractedDirectories();
+        batchAutograder.grade(archive);
+        assertEquals(before, countExtractedDirectories());
+    }
+
+    // Compiles a class that returns the answer and a test that expects 1.
+    private void compileSubmission(String student, int answer) throws IOException {
+        Path root = submissions.resolve(student);
+        Path src = Files.createDirectories(root.resolve("src/batchtests"));
+        Files.writeString(src.resolve("Answer.java"), String.format(
+                "package batchtests; public class Answer { public static int get() { return %d; } }",
+                answer));
+        Files.writeString(src.resolve("AnswerTest.java"), String.join("\n",
+                "package batchtests;",
+                "import com.spertus.jacquard.junittester.GradedTest;",
+                "import org.junit.jupiter.api.Test;",
+                "import static org.junit.jupiter.api.Assertions.assertEquals;",
+                "public class AnswerTest {",
+                "    @Test",
+                "    @GradedTest(name = \"answer\", points = 1.0)",
+                "    public void testAnswer() { assertEquals(1, Answer.get()); }",
+                "}"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int status = compiler.run(null, null, null,
+                "-d", root.resolve("classes").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                src.resolve("Answer.java").toString(),
+                src.resolve("AnswerTest.java").toString());
+        assertEquals(0, status);
+    }
+
+    @Test
+    public void testTestersUseSubmissionClasses() throws IOException {
+        compileSubmission("alice", 1);
+        compileSubmission("bob", 2);
+        BatchAutograder autograder = new BatchAutograder(
+                List.of(),
+                List.of(),
+                List.of("classes"),
+                (root, loader) -> List.of(new JUnitTester(loader.loadClass("batchtests.AnswerTest"))),
+                2);
+        Map<String, List<Result>> results = autograder.grade(submissions);
+        TestUtilities.assertResultsMatch(results.get("alice"), 1, 1.0, 1.0);
+        TestUtilities.assertResultsMatch(results.get("bob"), 1, 0.0, 1.0);
+    }
+
+    @Test
+    public void testTestersRunInWorkers() throws IOException {
+        compileSubmission("alice", 1);
+        compileSubmission("bob", 2);
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(0).workerJvms(1).build();
+        try {
+            BatchAutograder autograder = new BatchAutograder(
+                    List.of(),
+                    List.of(),
+                    List.of("classes"),
+                    (root, loader) -> List.of(
+                            new JUnitTester(loader.loadClass("batchtests.AnswerTest")),
+                            new CodeCoverageTester(new LinearScorer(.5, 10),
+                                    loader.loadClass("batchtests.Answer"),
+                                    loader.loadClass("batchtests.AnswerTest"))),
+                    2);
+            Map<String, List<Result>> results = autograder.grade(submissions);
+            TestUtilities.assertResultsMatch(results.get("alice"), 2, 11.0, 11.0);
+            TestUtilities.assertResultsMatch(results.get("bob"), 2, 10.0, 11.0);
+            // Only the wall-clock time of work done in a worker is measured.
+            for (Result result : results.get("bob")) {
+                GradingMetrics metrics = result.getMetrics().orElseThrow();
+                assertEquals(GradingMetrics.UNAVAILABLE, metrics.getCpuNanos());
+            }
+        } finally {
+            Autograder.initForTest();
+        }
+    }
+
+    @Test
+    public void testUnsendableClassesRejectedWithWorkers() throws Exception {
+        compileSubmission("alice", 1);
+        URL[] urls = {submissions.resolve("alice/classes").toUri().toURL()};
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(0).workerJvms(1).build();
+        try (URLClassLoader loader = new URLClassLoader(urls)) {
+            Class<?> answer = loader.loadClass("batchtests.Answer");
+            Class<?> answerTest = loader.loadClass("batchtests.AnswerTest");
+            assertThrows(ClientException.class, () -> new JUnitTester(answerTest).run());
+            assertThrows(ClientException.class,
+                    () -> new CodeCoverageTester(new LinearScorer(.5, 10), answer, answerTest).run());
+        } finally {
+            Autograder.initForTest();
+        }
+    }
+
+    private static class SleepingTester extends Tester {
+        @Override
+        public List<Result> run() {
+            try {
+                Thread.sleep(60_000);
+                return List.of(Result.makeSuccess("sleeper", 1, "woke up"));
+            } catch (InterruptedException e) {
+                return List.of(Result.makeError("sleeper", e));
+            }
+        }
+    }
+
+    @Test
+    public void testTimedOutTesterDoesNotAffectOthers() throws IOException {
+        compileSubmission("alice", 1);
+        compileSubmission("bob", 1);
+        BatchAutograder autograder = new BatchAutograder(
+                List.of(),
+                List.of(),
+                List.of("classes"),
+                (root, loader) -> root.endsWith("bob")
+                        ? List.of(new SleepingTester())
+                        : List.of(new JUnitTester(loader.loadClass("batchtests.AnswerTest"))),
+                2);
+        long start = System.nanoTime();
+        Map<String, List<Result>> results = GradingContext.current().withTimeout(5_000)
+                .apply(() -> autograder.grade(submissions));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 30_000);
+        TestUtilities.assertResultsMatch(results.get("alice"), 1, 1.0, 1.0);
+        assertEquals(1, results.get("bob").size());
+        assertInstanceOf(ExceptionResult.class, results.get("bob").get(0));
+        assertTrue(results.get("bob").get(0).getMessage().contains("timed out"));
+    }
+
+    @Test
+    public void testMissingTargetDoesNotAffectOthers() throws IOException {
+        Files.createDirectory(submissions.resolve("carol"));
+        Map<String, List<Result>> results = batchAutograder.grade(submissions);
+        assertEquals(3, results.size());
+        assertEquals(0.0, TestUtilities.getTotalScore(results.get("carol")));
+        TestUtilities.assertResultsMatch(results.get("alice"), 1, 5.0, 5.0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.spertus.jacquard;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.stmt.*;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.ClientException;
+import com.spertus.jacquard.syntaxgrader.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.URISyntaxException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FusedSyntaxCountGraderTest {
+    private List<SyntaxCountGrader> graders;
+
+    @BeforeAll
+    public static void init() {
+        Autograder.initForTest();
+    }
+
+    @BeforeEach
+    public void setup() {
+        graders = List.of(
+                new StatementCountGrader(1.0, 1, 3, ForStmt.class),
+                new ExpressionCountGrader(2.0, 1, Integer.MAX_VALUE, BinaryExpr.class),
+                new StringInterpolationCountGrader(3, 0, 1),
+                new SyntaxConditionGrader(
+                        1,
+                        "toString() method",
+                        4.0,
+                        node -> node instanceof MethodDeclaration methodDecl
+                                && methodDecl.getNameAsString().equals("toString")),
+                new StatementCountGrader(5.0, 0, 0, WhileStmt.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"good/Mob.java", "good/ForStatements.java", "good/Expressions.java"})
+    public void testSameResultsAsSeparateGraders(String filename) throws URISyntaxException {
+        Target target = TestUtilities.getTargetFromResource(filename);
+        List<Result> expected = new ArrayList<>();
+        for (SyntaxCountGrader grader : graders) {
+            expected.addAll(grader.grade(target));
+        }
+        List<Result> actual = new FusedSyntaxCountGrader(graders).grade(target);
+        assertEquals(expected, actual);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testRepeatability() throws URISyntaxException {
+        TestUtilities.testRepeatability(new FusedSyntaxCountGrader(graders), "good/Mob.java");
+    }
+
+    @Test
+    public void testMaxScore() throws URISyntaxException {
+        TestUtilities.testMaxScore(new FusedSyntaxCountGrader(graders), "good/Mob.java");
+    }
+
+    @Test
+    public void testEmptyGradersThrows() {
+        assertThrows(ClientException.class, () -> new FusedSyntaxCountGrader(List.of()));
+    }
+}
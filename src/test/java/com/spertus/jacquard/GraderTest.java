@@ -1,6 +1,8 @@
 package com.spertus.jacquard;
 
 import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.stmt.ReturnStmt;
 import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.syntaxgrader.*;
 import org.junit.jupiter.api.*;
@@ -37,4 +39,23 @@ public class GraderTest {
         List<Result> resultsAll = Grader.gradeAll(target, grader1, grader2);
         assertEquals(results1, resultsAll);
     }
+
+    @Test
+    public void testGradeAllConcurrentlyPreservesOrder() throws URISyntaxException {
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        Grader[] graders = {
+                new StatementCountGrader(1.0, 1, Integer.MAX_VALUE, ReturnStmt.class),
+                new MethodModifierGrader(
+                        1.0,
+                        List.of("getMinDamage", "getNumHearts"),
+                        List.of(Modifier.publicModifier()),
+                        List.of(),
+                        true),
+                new ExpressionCountGrader(1.0, 0, 0, LambdaExpr.class),
+                new ImportRequiredGrader(1.0, List.of("java.util.Random"))
+        };
+        List<Result> expected = Grader.gradeAll(target, graders);
+        assertEquals(expected, Grader.gradeAllConcurrently(4, target, graders));
+        assertEquals(expected, Grader.gradeAllConcurrently(1, target, graders));
+    }
 }
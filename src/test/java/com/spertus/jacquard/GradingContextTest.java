@@ -0,0 +1,144 @@
+package com.spertus.jacquard;
+
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.syntaxgrader.*;
+import org.junit.jupiter.api.*;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradingContextTest {
+    private static final long SLEEP_MS = 500;
+
+    private Target target;
+
+    private static class SleepingGrader extends Grader {
+        SleepingGrader() {
+            super("sleeping grader");
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                Thread.sleep(SLEEP_MS);
+                return List.of(makeSuccessResult(1, "slept"));
+            };
+        }
+    }
+
+    // Reports the context seen by the thread that does the grading.
+    private static class ContextGrader extends Grader {
+        ContextGrader() {
+            super("context grader");
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> List.of(makeSuccessResult(
+                    1, String.valueOf(GradingContext.current().javaLevel)));
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws URISyntaxException {
+        Autograder.initForTest();
+        target = TestUtilities.getTargetFromResource("good/Mob.java");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        Autograder.resetForTest();
+    }
+
+    @Test
+    public void testDefaultContextIsAutograders() {
+        GradingContext context = GradingContext.current();
+        assertSame(Autograder.getInstance().getContext(), context);
+        assertEquals(Autograder.getInstance().javaLevel, context.javaLevel);
+        assertEquals(Autograder.getInstance().timeoutMillis, context.timeoutMillis);
+        assertEquals(Autograder.getInstance().visibility, context.visibility);
+    }
+
+    @Test
+    public void testContextIsRestored() {
+        GradingContext context = GradingContext.current().withVisibility(Visibility.HIDDEN);
+        Result result = context.apply(() -> Result.makeSuccess("name", 1, "message"));
+        assertEquals(Visibility.HIDDEN, result.getVisibility());
+        assertSame(Autograder.getInstance().getContext(), GradingContext.current());
+        assertEquals(Visibility.VISIBLE, Result.makeSuccess("name", 1, "message").getVisibility());
+    }
+
+    @Test
+    public void testVisibilityFromContext() {
+        GradingContext context = GradingContext.current().withVisibility(Visibility.AFTER_PUBLISHED);
+        List<Result> results = new SleepingGrader().grade(context, target);
+        assertEquals(Visibility.AFTER_PUBLISHED, results.get(0).getVisibility());
+    }
+
+    @Test
+    public void testTimeoutFromContext() {
+        // The Autograder has no timeout, but the context does.
+        List<Result> results = new SleepingGrader().grade(
+                GradingContext.current().withTimeout(SLEEP_MS / 10), target);
+        assertEquals(0, results.get(0).getScore());
+        assertTrue(results.get(0).getMessage().contains("timed out"));
+    }
+
+    @Test
+    public void testContextReachesTimedThread() {
+        GradingContext context = GradingContext.current().withJavaLevel(11).withTimeout(5_000);
+        List<Result> results = new ContextGrader().grade(context, target);
+        assertEquals("11", results.get(0).getMessage());
+    }
+
+    @Test
+    public void testDeadlineFromContext() throws InterruptedException {
+        GradingContext expired = GradingContext.current().withDeadline(1);
+        Thread.sleep(10);
+        List<Result> results = new SleepingGrader().grade(expired, target);
+        assertTrue(results.get(0).getMessage().startsWith("Not run"));
+        // Changing other properties does not restart the deadline.
+        assertEquals(0, expired.withVisibility(Visibility.HIDDEN).getRemainingMillis());
+        // The Autograder has no deadline.
+        assertEquals(Long.MAX_VALUE, Autograder.getInstance().getRemainingMillis());
+    }
+
+    @Test
+    public void testJavaLevelFromContext() throws URISyntaxException {
+        ParseCache.getInstance().clear();
+        Target switchTarget = TestUtilities.getTargetFromResource("good/SwitchExpression.java");
+        Grader grader = new StatementCountGrader(1, 1, Integer.MAX_VALUE, ForStmt.class);
+        // Switch expressions require Java 14.
+        List<Result> java11Results = grader.grade(
+                GradingContext.current().withJavaLevel(11), switchTarget);
+        assertTrue(java11Results.get(0) instanceof ExceptionResult);
+        List<Result> java17Results = grader.grade(switchTarget);
+        assertTrue(java17Results.stream().noneMatch(ExceptionResult.class::isInstance));
+    }
+
+    @Test
+    public void testConcurrentContexts() throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Result>> hidden = pool.submit(() -> new SleepingGrader().grade(
+                    GradingContext.current().withVisibility(Visibility.HIDDEN), target));
+            Future<List<Result>> visible = pool.submit(() -> new SleepingGrader().grade(
+                    GradingContext.current().withVisibility(Visibility.VISIBLE), target));
+            assertEquals(Visibility.HIDDEN, hidden.get().get(0).getVisibility());
+            assertEquals(Visibility.VISIBLE, visible.get().get(0).getVisibility());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testNegativeTimeoutRejected() {
+        assertThrows(ClientException.class,
+                () -> GradingContext.current().withTimeout(-1));
+    }
+}
@@ -0,0 +1,186 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.ClientException;
+import com.spertus.jacquard.syntaxgrader.ImportRequiredGrader;
+import org.junit.jupiter.api.*;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradingGraphTest {
+    private Target goodTarget;
+    private Target unparseableTarget;
+
+    // A grader that counts how many times it is called and returns the
+    // specified score out of 1.
+    private static class CountingGrader extends Grader {
+        private final AtomicInteger count = new AtomicInteger();
+        private final double score;
+
+        CountingGrader(String name, double score) {
+            super(name);
+            this.score = score;
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                count.incrementAndGet();
+                return List.of(makePartialCreditResult(score, 1, ""));
+            };
+        }
+    }
+
+    // A tester that waits for all the testers sharing the latch to start.
+    private static class RendezvousTester extends Tester {
+        private final CountDownLatch latch;
+
+        RendezvousTester(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public List<Result> run() {
+            latch.countDown();
+            try {
+                boolean met = latch.await(5, TimeUnit.SECONDS);
+                return List.of(Result.makeResult("rendezvous", met ? 1 : 0, 1, ""));
+            } catch (InterruptedException e) {
+                return List.of(Result.makeError("rendezvous", e));
+            }
+        }
+    }
+
+    // A tester that sleeps until interrupted.
+    private static class SleepingTester extends Tester {
+        @Override
+        public List<Result> run() {
+            try {
+                Thread.sleep(60_000);
+                return List.of(Result.makeSuccess("sleeper", 1, "woke up"));
+            } catch (InterruptedException e) {
+                return List.of(Result.makeError("sleeper", e));
+            }
+        }
+    }
+
+    @BeforeAll
+    public static void init() {
+        Autograder.initForTest();
+    }
+
+    @BeforeEach
+    public void setup() throws URISyntaxException {
+        goodTarget = TestUtilities.getTargetFromResource("good/Import.java");
+        unparseableTarget = TestUtilities.getTargetFromResource("invalid/Unparseable.java");
+    }
+
+    @Test
+    public void testDependentRunsIfGateSatisfied() {
+        GradingGraph graph = new GradingGraph();
+        GradingGraph.Node syntax = graph.add(
+                new ImportRequiredGrader(1, List.of("java.util.*")), goodTarget);
+        CountingGrader counter = new CountingGrader("counter", 1);
+        graph.add(counter, goodTarget).after(syntax, GradingGraph.Gate.NO_ERRORS);
+        List<Result> results = graph.run();
+        assertEquals(2, results.size());
+        assertEquals(1, counter.count.get());
+    }
+
+    @Test
+    public void testParseFailureSkipsDependents() {
+        GradingGraph graph = new GradingGraph();
+        GradingGraph.Node syntax = graph.add(
+                new ImportRequiredGrader(1, List.of("java.util.*")), unparseableTarget);
+        CountingGrader tests = new CountingGrader("tests", 1);
+        GradingGraph.Node testsNode = graph.add(tests, goodTarget)
+                .after(syntax, GradingGraph.Gate.NO_ERRORS);
+        CountingGrader coverage = new CountingGrader("coverage", 1);
+        graph.add(coverage, goodTarget).after(testsNode, GradingGraph.Gate.COMPLETED);
+
+        List<Result> results = graph.run();
+        assertEquals(3, results.size());
+        assertTrue(results.get(0) instanceof ExceptionResult);
+        assertEquals("tests", results.get(1).getName());
+        assertTrue(results.get(1).getMessage().startsWith("Not run"));
+        assertTrue(results.get(1).getMessage().contains("had errors"));
+        // Skipping is transitive, even through a COMPLETED gate.
+        assertEquals("coverage", results.get(2).getName());
+        assertTrue(results.get(2).getMessage().startsWith("Not run"));
+        assertEquals(0, tests.count.get());
+        assertEquals(0, coverage.count.get());
+    }
+
+    @Test
+    public void testAllPassedGate() {
+        GradingGraph graph = new GradingGraph();
+        GradingGraph.Node passing = graph.add(new CountingGrader("passing", 1), goodTarget);
+        GradingGraph.Node failing = graph.add(new CountingGrader("failing", 0.5), goodTarget);
+        CountingGrader afterPassing = new CountingGrader("after passing", 1);
+        CountingGrader afterFailing = new CountingGrader("after failing", 1);
+        graph.add(afterPassing, goodTarget).after(passing, GradingGraph.Gate.ALL_PASSED);
+        graph.add(afterFailing, goodTarget).after(failing, GradingGraph.Gate.ALL_PASSED);
+
+        List<Result> results = graph.run();
+        assertEquals(4, results.size());
+        assertEquals(1, afterPassing.count.get());
+        assertEquals(0, afterFailing.count.get());
+        assertTrue(results.get(3).getMessage().contains("failing did not fully pass"));
+    }
+
+    @Test
+    public void testIndependentNodesRunInParallel() {
+        CountDownLatch latch = new CountDownLatch(2);
+        GradingGraph graph = new GradingGraph();
+        graph.add(new RendezvousTester(latch));
+        graph.add(new RendezvousTester(latch));
+        List<Result> results = graph.run();
+        assertEquals(2, results.size());
+        results.forEach(result -> assertEquals(1, result.getScore()));
+    }
+
+    @Test
+    public void testSkippedGraderKeepsMaxScore() {
+        GradingGraph graph = new GradingGraph();
+        GradingGraph.Node failing = graph.add(new CountingGrader("failing", 0.5), goodTarget);
+        graph.add(new ImportRequiredGrader(2, List.of("java.util.*")), goodTarget)
+                .after(failing, GradingGraph.Gate.ALL_PASSED);
+        List<Result> results = graph.run();
+        assertEquals(2, results.size());
+        assertEquals(0, results.get(1).getScore());
+        assertEquals(2, results.get(1).getMaxScore());
+    }
+
+    @Test
+    public void testTesterTimesOut() {
+        GradingGraph graph = new GradingGraph();
+        GradingGraph.Node sleeper = graph.add("sleeper", new SleepingTester());
+        CountingGrader after = new CountingGrader("after", 1);
+        graph.add(after, goodTarget).after(sleeper, GradingGraph.Gate.NO_ERRORS);
+        long start = System.nanoTime();
+        List<Result> results = GradingContext.current().withTimeout(200).apply(graph::run);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0) instanceof ExceptionResult);
+        assertTrue(results.get(0).getMessage().contains("timed out"));
+        assertEquals(0, after.count.get());
+    }
+
+    @Test
+    public void testDependencyMustBeEarlierNode() {
+        GradingGraph graph = new GradingGraph();
+        GradingGraph.Node first = graph.add(new CountingGrader("first", 1), goodTarget);
+        GradingGraph.Node second = graph.add(new CountingGrader("second", 1), goodTarget);
+        assertThrows(ClientException.class,
+                () -> first.after(second, GradingGraph.Gate.COMPLETED));
+        GradingGraph otherGraph = new GradingGraph();
+        GradingGraph.Node other = otherGraph.add(new CountingGrader("other", 1), goodTarget);
+        assertThrows(ClientException.class,
+                () -> second.after(other, GradingGraph.Gate.COMPLETED));
+    }
+}
@@ -0,0 +1,139 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.ClientException;
+import org.junit.jupiter.api.*;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradingScheduleTest {
+    private Target target;
+
+    // A grader that sleeps (interruptibly) for the specified time.
+    private static class SleepingGrader extends Grader {
+        private final long sleepMillis;
+
+        SleepingGrader(String name, long sleepMillis) {
+            super(name);
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                Thread.sleep(sleepMillis);
+                return List.of(makeSuccessResult(1, "finished"));
+            };
+        }
+
+        @Override
+        public double getMaxScore(Target... targets) {
+            return 1;
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws URISyntaxException {
+        target = TestUtilities.getTargetFromResource("good/Mob.java");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        Autograder.resetForTest();
+    }
+
+    private static void build(long deadlineMillis) {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(0).deadline(deadlineMillis).build();
+    }
+
+    @Test
+    public void testGradeStopsAtDeadline() {
+        build(200);
+        Grader grader = new SleepingGrader("slow", 60_000);
+        List<Result> results = grader.grade(target);
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).getMessage().contains("timed out"));
+        assertEquals(1, results.get(0).getMaxScore());
+
+        // The deadline has now passed.
+        results = grader.grade(target);
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).getScore());
+        assertEquals(1, results.get(0).getMaxScore());
+        assertTrue(results.get(0).getMessage().startsWith("Not run"));
+    }
+
+    @Test
+    public void testQueuedGraderNotRunAfterDeadline() {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(0).deadline(300).numThreads(1).build();
+        // The second grader waits for the only thread until the deadline.
+        long start = System.currentTimeMillis();
+        List<Result> results = Grader.gradeAllConcurrently(
+                2, target, new SleepingGrader("slow", 60_000), new SleepingGrader("queued", 60_000));
+        // Neither grader waits for its sleep, though a loaded machine may be slow.
+        assertTrue(System.currentTimeMillis() - start < 10_000);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).getMessage().contains("timed out"));
+        assertEquals("queued", results.get(1).getName());
+        assertTrue(results.get(1).getMessage().startsWith("Not run"));
+        assertEquals(1, results.get(1).getMaxScore());
+    }
+
+    @Test
+    public void testLaterGradersNotRun() {
+        build(200);
+        List<Result> results = new GradingSchedule()
+                .addFixed(new SleepingGrader("slow", 60_000), 500)
+                .addWeighted(new SleepingGrader("fast", 0), 1)
+                .grade(target);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).getMessage().contains("timed out"));
+        assertEquals("fast", results.get(1).getName());
+        assertTrue(results.get(1).getMessage().startsWith("Not run"));
+        assertEquals(1, results.get(1).getMaxScore());
+    }
+
+    @Test
+    public void testLeftoverTimeRollsOver() {
+        build(0);
+        // Warm up, so the first grader's budget is not spent loading classes.
+        new SleepingGrader("fast", 0).grade(target);
+        // Without rollover, each grader would get about 333 ms.
+        List<Result> results = new GradingSchedule(1_000)
+                .addWeighted(new SleepingGrader("fast", 0), 1)
+                .addWeighted(new SleepingGrader("medium", 400), 1)
+                .addWeighted(new SleepingGrader("fast", 0), 1)
+                .grade(target);
+        assertEquals(3, results.size());
+        for (Result result : results) {
+            assertEquals("finished", result.getMessage());
+        }
+    }
+
+    @Test
+    public void testFixedBudgetIsReserved() {
+        build(0);
+        List<Result> results = new GradingSchedule(1_000)
+                .addWeighted(new SleepingGrader("slow", 60_000), 1)
+                .addFixed(new SleepingGrader("medium", 300), 500)
+                .grade(target);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).getMessage().contains("timed out"));
+        assertEquals("finished", results.get(1).getMessage());
+    }
+
+    @Test
+    public void testRejectsInvalidBudgets() {
+        build(0);
+        Grader grader = new SleepingGrader("fast", 0);
+        assertThrows(ClientException.class, () -> new GradingSchedule(0));
+        assertThrows(ClientException.class, () -> new GradingSchedule().addWeighted(grader, 0));
+        assertThrows(ClientException.class, () -> new GradingSchedule().addFixed(grader, -1));
+    }
+}
@@ -23,6 +23,13 @@ public class ImportDisallowedGraderTester {
         TestUtilities.testRepeatability(grader, "good/Import.java");
     }
 
+    @Test
+    public void testMaxScore() throws URISyntaxException {
+        ImportDisallowedGrader grader = new ImportDisallowedGrader(
+                1.0, List.of("java.util", "java.lang"));
+        TestUtilities.testMaxScore(grader, "good/Import.java");
+    }
+
     @Test
     public void testNoneForbidden() throws URISyntaxException {
         ImportDisallowedGrader grader = new ImportDisallowedGrader(
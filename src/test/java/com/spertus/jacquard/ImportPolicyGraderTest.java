@@ -0,0 +1,90 @@
+package com.spertus.jacquard;
+
+import com.github.javaparser.ast.Modifier;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.ClientException;
+import com.spertus.jacquard.syntaxgrader.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.URISyntaxException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportPolicyGraderTest {
+    private List<SyntaxCheckGrader> graders;
+
+    @BeforeAll
+    public static void init() {
+        Autograder.initForTest();
+    }
+
+    @BeforeEach
+    public void setup() {
+        graders = List.of(
+                new ImportRequiredGrader(1.0,
+                        List.of("java.util.*", "java.util.Random", "java.util.List", "javax.ejb.EJBContext")),
+                new ImportBlocklistedGrader(2.0, List.of("javax.ejb")),
+                new ImportDisallowedGrader(3.0, List.of("java.util")),
+                new ImportRequiredGrader("second required", 1.0, List.of("java.util.List")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"good/Import.java", "good/ImportWildcards.java", "good/Mob.java"})
+    public void testSameResultsAsSeparateGraders(String filename) throws URISyntaxException {
+        Target target = TestUtilities.getTargetFromResource(filename);
+        List<Result> expected = new ArrayList<>();
+        for (SyntaxCheckGrader grader : graders) {
+            expected.addAll(grader.grade(target));
+        }
+        List<Result> actual = new ImportPolicyGrader(graders).grade(target);
+        assertEquals(expected, actual);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getMessage(), actual.get(i).getMessage());
+        }
+    }
+
+    @Test
+    public void testWildcardSatisfiesClassesInPackageOnly() throws URISyntaxException {
+        ImportRequiredGrader grader = new ImportRequiredGrader(
+                1.0, List.of("java.util.List", "java.util.*", "java.util.concurrent.Future", "java.utilx"));
+        List<Result> results = new ImportPolicyGrader(List.of(grader))
+                .grade(TestUtilities.getTargetFromResource("good/ImportWildcards.java"));
+        TestUtilities.assertResultsMatch(results, 4, 2.0, 4.0);
+    }
+
+    @Test
+    public void testRepeatability() throws URISyntaxException {
+        TestUtilities.testRepeatability(new ImportPolicyGrader(graders), "good/ImportWildcards.java");
+    }
+
+    @Test
+    public void testMaxScore() throws URISyntaxException {
+        TestUtilities.testMaxScore(new ImportPolicyGrader(graders), "good/ImportWildcards.java");
+    }
+
+    @Test
+    public void testParseProfile() {
+        assertEquals(ParseProfile.FULL, new ImportPolicyGrader(graders).getParseProfile());
+        ImportPolicyGrader headerOnly = new ImportPolicyGrader(List.of(
+                new ImportRequiredGrader("required", 1.0, List.of("java.util.List"), true),
+                new ImportDisallowedGrader("allowed", 1.0, List.of("java.util"), true)));
+        assertEquals(ParseProfile.IMPORTS_ONLY, headerOnly.getParseProfile());
+    }
+
+    @Test
+    public void testEmptyGradersThrows() {
+        assertThrows(ClientException.class, () -> new ImportPolicyGrader(List.of()));
+    }
+
+    @Test
+    public void testNonImportGraderThrows() {
+        assertThrows(ClientException.class, () -> new ImportPolicyGrader(List.of(
+                new ImportBlocklistedGrader(1.0, List.of("java.io")),
+                new MethodModifierGrader(1.0, List.of("main"),
+                        List.of(Modifier.publicModifier()), List.of(), false))));
+    }
+}
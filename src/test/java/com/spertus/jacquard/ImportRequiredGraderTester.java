@@ -1,11 +1,14 @@
 package com.spertus.jacquard;
 
 import com.spertus.jacquard.common.*;
-import com.spertus.jacquard.syntaxgrader.ImportRequiredGrader;
+import com.spertus.jacquard.syntaxgrader.*;
 import org.junit.jupiter.api.*;
 
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ImportRequiredGraderTester {
     @BeforeAll
@@ -20,6 +23,57 @@ public class ImportRequiredGraderTester {
         TestUtilities.testRepeatability(grader, "good/Import.java");
     }
 
+    @Test
+    public void testMaxScore() throws URISyntaxException {
+        ImportRequiredGrader grader = new ImportRequiredGrader(
+                1.0, List.of("java.util.Random", "java.util.List"));
+        TestUtilities.testMaxScore(grader, "good/Import.java");
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws URISyntaxException, InterruptedException, ExecutionException {
+        ImportRequiredGrader grader = new ImportRequiredGrader(
+                1.0, List.of("java.util.Random", "java.util.List"));
+        Target match = TestUtilities.getTargetFromResource("good/Import.java");
+        Target noMatch = TestUtilities.getTargetFromResource("good/ForStatements.java");
+        List<Result> expectedMatch = grader.grade(match);
+        List<Result> expectedNoMatch = grader.grade(noMatch);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Result>>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Target target = i % 2 == 0 ? match : noMatch;
+                futures.add(pool.submit(() -> grader.grade(target)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i % 2 == 0 ? expectedMatch : expectedNoMatch, futures.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWholeFileParsedByDefault() throws URISyntaxException {
+        ImportRequiredGrader grader = new ImportRequiredGrader(
+                1.0, List.of("java.util.Random"));
+        assertEquals(ParseProfile.FULL, grader.getParseProfile());
+        List<Result> results = grader.grade(TestUtilities.getTargetFromResource("invalid/Unparseable.java"));
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).getScore());
+        assertInstanceOf(ExceptionResult.class, results.get(0));
+    }
+
+    @Test
+    public void testOnlyImportsParsed() throws URISyntaxException {
+        // The body of the class is not parsed, so its syntax errors do not matter.
+        ImportRequiredGrader grader = new ImportRequiredGrader(
+                "header-only import checker", 1.0, List.of("java.util.Random"), true);
+        List<Result> results = grader.grade(TestUtilities.getTargetFromResource("invalid/Unparseable.java"));
+        TestUtilities.assertResultsMatch(results, 1, 0, 1.0);
+    }
+
     @Test
     public void fullMatch() throws URISyntaxException {
         ImportRequiredGrader grader = new ImportRequiredGrader(
@@ -3,18 +3,26 @@ package com.spertus.jacquard;
 import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.junittester.SampleTest;
 import com.spertus.jacquard.junittester.JUnitTester;
+import com.spertus.jacquard.junittester.OutputCapture;
 import com.spertus.jacquard.junittester.group.GroupTest1;
 import com.spertus.jacquard.junittester.group.GroupTest2;
 import com.spertus.jacquard.junittester.output.OutputTest;
 import com.spertus.jacquard.junittester.visibility.VisibilityLevelsTest;
+import com.spertus.jacquard.outputtests.*;
+import com.spertus.jacquard.paralleltests.ConcurrentOutputTest;
+import com.spertus.jacquard.timeouttests.TimedTest;
 import org.junit.jupiter.api.*;
+import org.junit.platform.launcher.Launcher;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.*;
+import java.util.logging.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JUnitTesterTest {
@@ -57,6 +65,15 @@ public class JUnitTesterTest {
         checkResults(tester);
     }
 
+    @Test
+    public void testLauncherSharedAcrossRuns() {
+        Launcher launcher = Autograder.getInstance().getLauncher();
+        checkResults(new JUnitTester(SampleTest.class));
+        assertEquals(1, new JUnitTester(GroupTest1.class).run().size());
+        checkResults(new JUnitTester(SampleTest.class));
+        assertSame(launcher, Autograder.getInstance().getLauncher());
+    }
+
     @Test
     public void testPackageExcludingSubpackages() {
         JUnitTester tester = new JUnitTester("com.spertus.jacquard.junittester", false);
@@ -127,4 +144,112 @@ public class JUnitTesterTest {
         assertEquals("description1", result1.getMessage());
         assertEquals("description2\nOUTPUT\n======\noutput2", result2.getMessage());
     }
+
+    @Test
+    public void testConcurrentOutputCapturedPerTest() {
+        JUnitTester tester = new JUnitTester(ConcurrentOutputTest.class);
+        List<Result> results = tester.run();
+        assertEquals(4, results.size());
+        for (Result result : results) {
+            String name = result.getName();
+            assertEquals(String.join("\n", "OUTPUT", "======", name, name, name, name, name),
+                    result.getMessage());
+        }
+    }
+
+    @Test
+    public void testParallelOutputCapturedWithoutListenerErrors() {
+        // The launcher logs exceptions thrown by listeners rather than failing.
+        Logger logger = Logger.getLogger("org.junit.platform.launcher");
+        List<LogRecord> warnings = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+                    warnings.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.addHandler(handler);
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(0).parallelTests(true).build();
+        try {
+            for (int i = 0; i < 5; i++) {
+                List<Result> results = new JUnitTester(ConcurrentOutputTest.class).run();
+                assertEquals(4, results.size());
+                for (Result result : results) {
+                    String name = result.getName();
+                    assertEquals(String.join("\n", "OUTPUT", "======", name, name, name, name, name),
+                            result.getMessage());
+                }
+            }
+            assertEquals(List.of(), warnings.stream().map(LogRecord::getMessage).toList());
+        } finally {
+            logger.removeHandler(handler);
+            Autograder.initForTest();
+        }
+    }
+
+    @Test
+    public void testConcurrentTestersOutputCapturedPerTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Result>> future1 = executor.submit(() -> new JUnitTester(OutputTest.class).run());
+            Future<List<Result>> future2 = executor.submit(() -> new JUnitTester(OutputTest.class).run());
+            for (Future<List<Result>> future : List.of(future1, future2)) {
+                Result result = future.get().stream()
+                        .filter(r -> r.getName().equals("test2"))
+                        .findFirst()
+                        .orElseThrow();
+                assertEquals("description2\nOUTPUT\n======\noutput2", result.getMessage());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testChildThreadOutputCaptured() {
+        List<Result> results = new JUnitTester(ChildThreadOutputTest.class).run();
+        assertEquals(1, results.size());
+        assertEquals("OUTPUT\n======\nparent\nchild", results.get(0).getMessage());
+    }
+
+    @Test
+    public void testOutputBounded() {
+        JUnitTester tester = new JUnitTester(VerboseTest.class);
+        Map<String, Result> results = tester.run().stream()
+                .collect(Collectors.toMap(Result::getName, r -> r));
+        String message = results.get("verbose").getMessage();
+        assertTrue(message.startsWith("OUTPUT\n======\nfirst\nmiddle\n"));
+        assertTrue(message.contains(" bytes omitted]..."));
+        assertTrue(message.endsWith("middle\nlast"));
+        assertTrue(message.length() <= OutputCapture.HEAD_BYTES + OutputCapture.TAIL_BYTES + 100);
+        assertEquals("OUTPUT\n======\nerror", results.get("error").getMessage());
+    }
+
+    @Test
+    public void testTimeouts() {
+        JUnitTester tester = new JUnitTester(TimedTest.class);
+        Map<String, Result> results = tester.run().stream()
+                .collect(Collectors.toMap(Result::getName, r -> r));
+        assertEquals(4, results.size());
+        assertEquals(1.0, results.get("fast").getScore());
+        assertEquals("OUTPUT\n======\nfast", results.get("fast").getMessage());
+        assertEquals(0, results.get("failing").getScore());
+        assertTrue(results.get("failing").getMessage().contains("expected failure"));
+        assertEquals(0, results.get("interruptible").getScore());
+        assertEquals("com.spertus.jacquard.exceptions.TimeoutException: Test timed out after 100 ms",
+                results.get("interruptible").getMessage());
+        assertEquals(0, results.get("uninterruptible").getScore());
+        assertTrue(results.get("uninterruptible").getMessage().endsWith("and was abandoned when it did not stop"));
+    }
 }
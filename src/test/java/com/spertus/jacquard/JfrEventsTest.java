@@ -0,0 +1,60 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.syntaxgrader.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.*;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrEventsTest {
+    @BeforeAll
+    public static void setup() {
+        Autograder.initForTest();
+    }
+
+    private static List<RecordedEvent> record(Runnable runnable) throws IOException {
+        Path file = Files.createTempFile("jacquard", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.spertus.jacquard.Grader");
+            recording.enable("com.spertus.jacquard.Parse");
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testGraderAndParseEvents() throws URISyntaxException, IOException {
+        ParseCache.getInstance().clear();
+        Target target = TestUtilities.getTargetFromResource("good/Import.java");
+        Grader grader = new ImportRequiredGrader("imports", 1, List.of("java.util.*"));
+        List<RecordedEvent> events = record(() -> grader.grade(target));
+
+        RecordedEvent graderEvent = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.spertus.jacquard.Grader"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("imports", graderEvent.getString("graderName"));
+        assertEquals(target.toPathString(), graderEvent.getString("targetPath"));
+        assertTrue(graderEvent.getString("outcome").endsWith("points"));
+
+        RecordedEvent parseEvent = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.spertus.jacquard.Parse"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("parsed", parseEvent.getString("outcome"));
+        assertNull(parseEvent.getString("graderName"));
+        assertFalse(parseEvent.getStartTime().isBefore(graderEvent.getStartTime()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.publisher.GradescopePublisher;
+import org.json.*;
+import org.junit.jupiter.api.*;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    private static final long SLEEP_MS = 50;
+
+    private Target target;
+
+    private static class SleepingGrader extends Grader {
+        SleepingGrader() {
+            super("sleeping grader");
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                Thread.sleep(SLEEP_MS);
+                return List.of(makeSuccessResult(1, "slept"));
+            };
+        }
+    }
+
+    private static class AllocatingTester extends Tester {
+        @Override
+        public List<Result> run() {
+            return measure(() -> {
+                byte[] bytes = new byte[1_000_000];
+                return List.of(Result.makeSuccess("allocating tester", bytes.length, ""));
+            });
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws URISyntaxException {
+        target = TestUtilities.getTargetFromResource("good/Mob.java");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        Autograder.resetForTest();
+    }
+
+    private static void checkGraderMetrics() throws URISyntaxException {
+        List<Result> results = new SleepingGrader().grade(
+                TestUtilities.getTargetFromResource("good/Mob.java"));
+        assertEquals(1, results.size());
+        GradingMetrics metrics = results.get(0).getMetrics().orElseThrow();
+        assertEquals("sleeping grader", metrics.getName());
+        assertTrue(metrics.getWallNanos() >= SLEEP_MS * 1_000_000);
+        // Sleeping uses little CPU time.
+        assertTrue(metrics.getCpuNanos() < metrics.getWallNanos());
+        assertEquals(List.of(metrics), Autograder.getInstance().getMetricsReport().getMetrics());
+    }
+
+    @Test
+    public void testUntimedGraderMetrics() throws URISyntaxException {
+        Autograder.initForTest();
+        checkGraderMetrics();
+    }
+
+    @Test
+    public void testTimedGraderMetrics() throws URISyntaxException {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(5_000).build();
+        checkGraderMetrics();
+    }
+
+    @Test
+    public void testTesterMetrics() {
+        Autograder.initForTest();
+        List<Result> results = new AllocatingTester().run();
+        GradingMetrics metrics = results.get(0).getMetrics().orElseThrow();
+        assertEquals("AllocatingTester", metrics.getName());
+        if (metrics.getAllocatedBytes() != GradingMetrics.UNAVAILABLE) {
+            assertTrue(metrics.getAllocatedBytes() >= 1_000_000);
+        }
+    }
+
+    @Test
+    public void testReportIsBounded() {
+        Autograder.initForTest();
+        Grader grader = new Grader("fast grader") {
+            @Override
+            public Callable<List<Result>> getCallableSingleTarget(Target target) {
+                return () -> List.of(makeSuccessResult(1, ""));
+            }
+        };
+        for (int i = 0; i < MetricsReport.CAPACITY + 5; i++) {
+            grader.grade(target);
+        }
+        MetricsReport report = Autograder.getInstance().getMetricsReport();
+        assertEquals(MetricsReport.CAPACITY, report.getMetrics().size());
+        assertEquals(5, report.getDiscardedCount());
+        long keptWallNanos = report.getMetrics().stream().mapToLong(GradingMetrics::getWallNanos).sum();
+        assertTrue(report.getTotalWallNanos() > keptWallNanos);
+    }
+
+    @Test
+    public void testMetricsAreSerializedSeparately() {
+        Autograder.initForTest();
+        List<Result> results = new SleepingGrader().grade(target);
+        GradescopePublisher publisher = new GradescopePublisher();
+
+        // Students must not see the metrics.
+        String serializedResults = publisher.serializeResults(results);
+        assertFalse(serializedResults.contains("nanos"));
+
+        JSONObject json = new JSONObject(
+                publisher.serializeMetrics(Autograder.getInstance().getMetricsReport()));
+        JSONArray graders = json.getJSONArray("graders");
+        assertEquals(1, graders.length());
+        assertEquals("sleeping grader", graders.getJSONObject(0).getString("name"));
+        assertTrue(graders.getJSONObject(0).getLong("wall_nanos") >= SLEEP_MS * 1_000_000);
+    }
+}
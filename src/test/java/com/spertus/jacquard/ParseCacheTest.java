@@ -0,0 +1,109 @@
+package com.spertus.jacquard;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.SubmissionException;
+import com.spertus.jacquard.syntaxgrader.*;
+import org.junit.jupiter.api.*;
+
+import java.net.URISyntaxException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParseCacheTest {
+    @BeforeAll
+    public static void setup() {
+        Autograder.initForTest();
+    }
+
+    @BeforeEach
+    public void clearCache() {
+        ParseCache.getInstance().clear();
+    }
+
+    @Test
+    public void testSameTargetParsedOnce() throws URISyntaxException, SubmissionException {
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        CompilationUnit cu1 = ParseCache.getInstance().parse(target);
+        CompilationUnit cu2 = ParseCache.getInstance().parse(target);
+        assertSame(cu1, cu2);
+        assertTrue(cu1.getStorage().isPresent());
+        assertEquals(target.toPath(), cu1.getStorage().get().getPath());
+    }
+
+    @Test
+    public void testDifferentTargetsParsedSeparately() throws URISyntaxException, SubmissionException {
+        CompilationUnit cu1 = ParseCache.getInstance().parse(
+                TestUtilities.getTargetFromResource("good/Mob.java"));
+        CompilationUnit cu2 = ParseCache.getInstance().parse(
+                TestUtilities.getTargetFromResource("good/Import.java"));
+        assertNotSame(cu1, cu2);
+    }
+
+    @Test
+    public void testClearCausesReparse() throws URISyntaxException, SubmissionException {
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        CompilationUnit cu1 = ParseCache.getInstance().parse(target);
+        ParseCache.getInstance().clear();
+        assertNotSame(cu1, ParseCache.getInstance().parse(target));
+    }
+
+    @Test
+    public void testUnparseableFileThrows() throws URISyntaxException {
+        Target target = TestUtilities.getTargetFromResource("invalid/Unparseable.java");
+        SubmissionException e1 = assertThrows(SubmissionException.class,
+                () -> ParseCache.getInstance().parse(target));
+        SubmissionException e2 = assertThrows(SubmissionException.class,
+                () -> ParseCache.getInstance().parse(target));
+        assertEquals(e1.getMessage(), e2.getMessage());
+    }
+
+    @Test
+    public void testPooledParsersKeepLanguageLevel() throws URISyntaxException, SubmissionException {
+        Target target = TestUtilities.getTargetFromResource("good/SwitchExpression.java");
+        // Switch expressions require Java 14. Alternate levels on one thread.
+        for (int i = 0; i < 2; i++) {
+            assertThrows(SubmissionException.class, () -> new Parser(11).parse(target.toFile()));
+            assertNotNull(new Parser(17).parse(target.toFile()));
+        }
+    }
+
+    @Test
+    public void testMoreExpensiveParseReused() throws URISyntaxException, SubmissionException {
+        Target target = TestUtilities.getTargetFromResource("good/Import.java");
+        CompilationUnit full = ParseCache.getInstance().parse(target, ParseProfile.FULL);
+        assertSame(full, ParseCache.getInstance().parse(target, ParseProfile.NO_COMMENTS));
+        assertSame(full, ParseCache.getInstance().parse(target, ParseProfile.IMPORTS_ONLY));
+    }
+
+    @Test
+    public void testImportsOnlyParse() throws URISyntaxException, SubmissionException {
+        Target target = TestUtilities.getTargetFromResource("good/Import.java");
+        CompilationUnit header = ParseCache.getInstance().parse(target, ParseProfile.IMPORTS_ONLY);
+        assertFalse(header.getImports().isEmpty());
+        assertTrue(header.getTypes().isEmpty());
+        // A cheaper parse does not satisfy a more expensive profile.
+        CompilationUnit full = ParseCache.getInstance().parse(target);
+        assertEquals(header.getImports(), full.getImports());
+        assertFalse(full.getTypes().isEmpty());
+    }
+
+    @Test
+    public void testFailedParseRetriedWithCheaperProfile() throws URISyntaxException {
+        Target target = TestUtilities.getTargetFromResource("invalid/Unparseable.java");
+        assertThrows(SubmissionException.class, () -> ParseCache.getInstance().parse(target));
+        assertDoesNotThrow(() -> ParseCache.getInstance().parse(target, ParseProfile.IMPORTS_ONLY));
+    }
+
+    @Test
+    public void testCheapestProfile() {
+        Grader imports = new ImportRequiredGrader("imports", 1, List.of("java.util.List"), true);
+        Grader counter = new StringInterpolationCountGrader(1, 1, Integer.MAX_VALUE);
+        assertEquals(ParseProfile.IMPORTS_ONLY, ParseProfile.cheapestFor(List.of(imports)));
+        assertEquals(ParseProfile.NO_COMMENTS, ParseProfile.cheapestFor(List.of(imports, counter)));
+        assertEquals(ParseProfile.FULL, ParseProfile.cheapestFor(List.of(imports,
+                SyntaxConditionGrader.forNodeType("loops", 1, "loops", 1, ForStmt.class, node -> true))));
+    }
+}
@@ -38,6 +38,17 @@ public class PmdGraderTest {
         TestUtilities.testRepeatability(grader, missingCommentsTarget);
     }
 
+    @Test
+    public void testConfigurationKeyIncludesRuleSetHash() {
+        PmdGrader pmdGrader = PmdGrader.createFromRules(
+                PENALTY_PER_VIOLATION,
+                MAX_PENALTY,
+                "category/java/documentation.xml",
+                "CommentRequired");
+        String hash = ResultCache.hashFileOrResource("category/java/documentation.xml").orElseThrow();
+        assertTrue(pmdGrader.getConfigurationKey().orElseThrow().contains(hash));
+    }
+
     @Test
     public void testSingleRule() throws ClientException {
         PmdGrader pmdGrader = PmdGrader.createFromRules(
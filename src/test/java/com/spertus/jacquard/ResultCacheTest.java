@@ -0,0 +1,158 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.checkstylegrader.CheckstyleGrader;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.syntaxgrader.ImportRequiredGrader;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+    @TempDir
+    private Path cacheDir;
+    @TempDir
+    private Path submissionDir;
+
+    // Counts the number of targets actually graded.
+    private static class CountingGrader extends Grader {
+        private final AtomicInteger count = new AtomicInteger();
+        private final Optional<String> configurationKey;
+
+        CountingGrader(Optional<String> configurationKey) {
+            super("counting grader");
+            this.configurationKey = configurationKey;
+        }
+
+        @Override
+        public Optional<String> getConfigurationKey() {
+            return configurationKey;
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                count.incrementAndGet();
+                return List.of(makePartialCreditResult(1, 2, target.toPathString()));
+            };
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(0).resultCache(cacheDir).build();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        Autograder.resetForTest();
+    }
+
+    private Target makeTarget(String fileName, String contents) throws IOException {
+        return Target.fromPath(Files.writeString(submissionDir.resolve(fileName), contents));
+    }
+
+    @Test
+    public void testUnchangedTargetNotRegraded() throws IOException {
+        Target target = makeTarget("A.java", "class A {}");
+        CountingGrader grader = new CountingGrader(Optional.of("key"));
+        List<Result> results1 = grader.grade(target);
+        List<Result> results2 = grader.grade(target);
+        assertEquals(1, grader.count.get());
+        assertEquals(1, results2.size());
+        assertEquals(results1.get(0).getName(), results2.get(0).getName());
+        assertEquals(results1.get(0).getScore(), results2.get(0).getScore());
+        assertEquals(results1.get(0).getMaxScore(), results2.get(0).getMaxScore());
+        assertEquals(results1.get(0).getMessage(), results2.get(0).getMessage());
+        assertEquals(results1.get(0).getVisibility(), results2.get(0).getVisibility());
+    }
+
+    @Test
+    public void testChangedTargetRegraded() throws IOException {
+        CountingGrader grader = new CountingGrader(Optional.of("key"));
+        grader.grade(makeTarget("A.java", "class A {}"));
+        grader.grade(makeTarget("A.java", "class A { int x; }"));
+        assertEquals(2, grader.count.get());
+    }
+
+    @Test
+    public void testConfigurationIsPartOfKey() throws IOException {
+        Target target = makeTarget("A.java", "class A {}");
+        CountingGrader grader1 = new CountingGrader(Optional.of("key1"));
+        CountingGrader grader2 = new CountingGrader(Optional.of("key2"));
+        grader1.grade(target);
+        grader2.grade(target);
+        assertEquals(1, grader2.count.get());
+        grader2.grade(GradingContext.current().withVisibility(Visibility.HIDDEN), target);
+        assertEquals(2, grader2.count.get());
+    }
+
+    @Test
+    public void testGraderWithoutKeyNotCached() throws IOException {
+        Target target = makeTarget("A.java", "class A {}");
+        CountingGrader grader = new CountingGrader(Optional.empty());
+        grader.grade(target);
+        grader.grade(target);
+        assertEquals(2, grader.count.get());
+    }
+
+    @Test
+    public void testOnlyChangedFilesRegraded() throws IOException {
+        Target a = makeTarget("A.java", "class A {}");
+        Target b = makeTarget("B.java", "class B {}");
+        CountingGrader grader = new CountingGrader(Optional.of("key"));
+        grader.grade(a, b);
+        assertEquals(2, grader.count.get());
+        Target changedB = makeTarget("B.java", "class B { int x; }");
+        List<Result> results = grader.grade(a, changedB);
+        assertEquals(3, grader.count.get());
+        assertEquals(a.toPathString(), results.get(0).getMessage());
+        assertEquals(changedB.toPathString(), results.get(1).getMessage());
+    }
+
+    @Test
+    public void testSyntaxGraderResultsCached() throws URISyntaxException, IOException {
+        Target target = TestUtilities.getTargetFromResource("good/Import.java");
+        Grader grader = new ImportRequiredGrader("imports", 1, List.of("java.util.*"));
+        List<Result> results1 = grader.grade(target);
+        try (var files = Files.walk(cacheDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        List<Result> results2 = grader.grade(target);
+        assertEquals(results1.size(), results2.size());
+        for (int i = 0; i < results1.size(); i++) {
+            assertEquals(results1.get(i).getScore(), results2.get(i).getScore());
+            assertEquals(results1.get(i).getMessage(), results2.get(i).getMessage());
+        }
+    }
+
+    @Test
+    public void testRuleFileContentsInKey() throws IOException {
+        Path ruleFile = Files.writeString(submissionDir.resolve("rules.xml"), "<module/>");
+        Grader grader = new CheckstyleGrader(ruleFile.toString(), 1, 10);
+        Optional<String> key1 = grader.getConfigurationKey();
+        assertTrue(key1.isPresent());
+        Files.writeString(ruleFile, "<module name=\"Checker\"/>");
+        Optional<String> key2 = grader.getConfigurationKey();
+        assertTrue(key2.isPresent());
+        assertNotEquals(key1, key2);
+        Files.delete(ruleFile);
+        assertTrue(grader.getConfigurationKey().isEmpty());
+    }
+
+    @Test
+    public void testHashResource() {
+        Optional<String> hash = ResultCache.hashFileOrResource("category/java/documentation.xml");
+        assertTrue(hash.isPresent());
+        assertEquals(64, hash.get().length());
+        assertTrue(ResultCache.hashFileOrResource("no/such/rules.xml").isEmpty());
+    }
+}
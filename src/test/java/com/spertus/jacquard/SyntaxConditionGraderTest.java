@@ -1,6 +1,7 @@
 package com.spertus.jacquard;
 
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.stmt.*;
 import com.spertus.jacquard.common.*;
 import com.spertus.jacquard.syntaxgrader.*;
 import org.junit.jupiter.api.*;
@@ -55,6 +56,35 @@ public class SyntaxConditionGraderTest {
         assertEquals(5.0, results.get(0).getMaxScore());
     }
 
+    @Test
+    public void testForNodeTypeMatchesUntypedGrader() throws URISyntaxException {
+        SyntaxConditionGrader typedGrader = SyntaxConditionGrader.forNodeType(
+                "toString() override test",
+                1,
+                "toString() method with override annotation",
+                5.0,
+                MethodDeclaration.class,
+                methodDecl -> methodDecl.getAnnotationByClass(Override.class).isPresent()
+                        && methodDecl.getNameAsString().equals("toString"));
+        for (String filename : List.of("good/Mob.java", "good/NoToStringMethod.java", "good/NoOverrideAnnotation.java")) {
+            Target target = TestUtilities.getTargetFromResource(filename);
+            assertEquals(overrideGrader.grade(target), typedGrader.grade(target));
+        }
+    }
+
+    @Test
+    public void testForNodeTypeIncludesSubtypes() throws URISyntaxException {
+        SyntaxConditionGrader loopGrader = SyntaxConditionGrader.forNodeType(
+                3,
+                "for loops",
+                1.0,
+                Statement.class,
+                stmt -> stmt instanceof ForStmt || stmt instanceof ForEachStmt);
+        List<Result> results = loopGrader.grade(TestUtilities.getTargetFromResource("good/ForStatements.java"));
+        assertEquals(1, results.size());
+        assertEquals(1.0, results.get(0).getScore());
+    }
+
     @Test
     public void testHasToStringOverrideWhenAnnotationMissing() throws URISyntaxException {
         List<Result> results = overrideGrader.grade(TestUtilities.getTargetFromResource("good/NoOverrideAnnotation.java"));
@@ -32,6 +32,14 @@ public class TestUtilities {
         assertEquals(maxScore, getTotalMaxScore(results));
     }
 
+    // Makes sure getMaxScore() agrees with the results and scales with targets.
+    static void testMaxScore(Grader grader, String filename) throws URISyntaxException {
+        Target target = getTargetFromResource(filename);
+        double expected = getTotalMaxScore(grader.grade(target));
+        assertEquals(expected, grader.getMaxScore(target));
+        assertEquals(2 * expected, grader.getMaxScore(target, target));
+    }
+
     // Makes sure the same result is returned by repeated calls.
     static void testRepeatability(Grader grader, Target target) {
         List<Result> results1 = grader.grade(target);
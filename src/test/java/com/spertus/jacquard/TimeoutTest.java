@@ -5,12 +5,86 @@ import com.spertus.jacquard.common.*;
 import org.junit.jupiter.api.*;
 
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TimeoutTest {
+    private static final long TIMEOUT_MS = 100;
+    // Maximum time for a grade() call that times out, including cancellation.
+    private static final long MAX_ELAPSED_MS = 2_000;
+
+    private static volatile boolean released;
+
+    // A grader that sleeps (interruptibly) for much longer than the timeout.
+    private static class SleepingGrader extends Grader {
+        SleepingGrader() {
+            super("sleeping grader");
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                Thread.sleep(60_000);
+                return List.of();
+            };
+        }
+    }
+
+    // A grader that ignores interrupts until released.
+    private static class SpinningGrader extends Grader {
+        SpinningGrader() {
+            super("spinning grader");
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                while (!released) {
+                    Thread.onSpinWait();
+                }
+                return List.of();
+            };
+        }
+    }
+
+    // A grader that records the thread on which it ran.
+    private static class RecordingGrader extends Grader {
+        private final Set<Thread> threads;
+
+        RecordingGrader(Set<Thread> threads) {
+            super("recording grader");
+            this.threads = threads;
+        }
+
+        @Override
+        public Callable<List<Result>> getCallableSingleTarget(Target target) {
+            return () -> {
+                threads.add(Thread.currentThread());
+                return List.of(makeSuccessResult(1, ""));
+            };
+        }
+    }
+
+    // A CPU-intensive grader that records the thread on which it ran.
+    private static class CpuRecordingGrader extends RecordingGrader {
+        CpuRecordingGrader(Set<Thread> threads) {
+            super(threads);
+        }
+
+        @Override
+        public boolean isCpuIntensive() {
+            return true;
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        released = true;
+        Autograder.resetForTest();
+    }
+
     @Test
     public void testTimeout() throws URISyntaxException {
         Autograder.resetForTest();
@@ -24,4 +98,161 @@ public class TimeoutTest {
         assertEquals(0, results.get(0).getScore());
         assertTrue(results.get(0).getMessage().contains("time"));
     }
+
+    private static List<Result> gradeAndCheckElapsedTime(Grader grader, Target target) {
+        long start = System.currentTimeMillis();
+        List<Result> results = grader.grade(target);
+        assertTrue(System.currentTimeMillis() - start < MAX_ELAPSED_MS);
+        return results;
+    }
+
+    @Test
+    public void testInterruptibleTaskIsCancelled() throws URISyntaxException {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(TIMEOUT_MS).build();
+        Grader grader = new SleepingGrader();
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        for (int i = 0; i < 2; i++) {
+            List<Result> results = gradeAndCheckElapsedTime(grader, target);
+            assertEquals(1, results.size());
+            assertTrue(results.get(0).getMessage().contains("timed out"));
+        }
+    }
+
+    @Test
+    public void testUninterruptibleTaskIsAbandoned() throws URISyntaxException {
+        released = false;
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(TIMEOUT_MS).build();
+        Grader grader = new SpinningGrader();
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+
+        // The abandoned thread must not delay the next call to grade().
+        for (int i = 0; i < 2; i++) {
+            List<Result> results = gradeAndCheckElapsedTime(grader, target);
+            assertEquals(1, results.size());
+            assertTrue(results.get(0).getMessage().contains("timed out"));
+            assertTrue(results.get(0).getMessage().contains("abandoned"));
+        }
+    }
+
+    @Test
+    public void testQueuedTaskIsCancelledOnClose() throws Exception {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(60_000).numThreads(1).build();
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // The first grader occupies the only thread, so the second waits.
+            Future<List<Result>> running = callers.submit(() -> new SleepingGrader().grade(target));
+            Thread.sleep(TIMEOUT_MS);
+            Future<List<Result>> queued = callers.submit(() -> new SleepingGrader().grade(target));
+            Thread.sleep(TIMEOUT_MS);
+            Autograder.getInstance().close();
+            assertEquals(1, running.get(MAX_ELAPSED_MS, TimeUnit.MILLISECONDS).size());
+            List<Result> results = queued.get(MAX_ELAPSED_MS, TimeUnit.MILLISECONDS);
+            assertEquals(1, results.size());
+            assertTrue(results.get(0).getMessage().contains("closed"));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInterruptIsPreserved() throws Exception {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(60_000).build();
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> interrupted = callers.submit(() -> {
+                List<Result> results = new SleepingGrader().grade(target);
+                assertEquals(1, results.size());
+                assertTrue(results.get(0).getMessage().contains("interrupted"));
+                return Thread.currentThread().isInterrupted();
+            });
+            Thread.sleep(TIMEOUT_MS * 2);
+            callers.shutdownNow();
+            assertTrue(interrupted.get(MAX_ELAPSED_MS, TimeUnit.MILLISECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGradersShareBoundedPool() throws URISyntaxException {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance().timeout(TIMEOUT_MS).numThreads(2).build();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        List<Grader> graders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            graders.add(new RecordingGrader(threads));
+        }
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        List<Result> results = Grader.gradeAllConcurrently(
+                8, target, graders.toArray(new Grader[0]));
+        assertEquals(20, results.size());
+        assertTrue(threads.size() <= 2);
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testNoThreadsWithoutTimeout() throws URISyntaxException {
+        Autograder.initForTest(); // no timeout
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        for (int i = 0; i < 5; i++) {
+            new RecordingGrader(threads).grade(target);
+        }
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void testVirtualThreadsAreNotBounded() throws URISyntaxException {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance()
+                .timeout(5_000)
+                .numThreads(1)
+                .virtualThreads(true)
+                .build();
+        Grader[] graders = new Grader[20];
+        for (int i = 0; i < graders.length; i++) {
+            graders[i] = new Grader("blocking grader") {
+                @Override
+                public Callable<List<Result>> getCallableSingleTarget(Target target) {
+                    return () -> {
+                        Thread.sleep(200);
+                        return List.of(makeSuccessResult(1, ""));
+                    };
+                }
+            };
+        }
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+
+        // With a single platform thread, this would take 4 seconds.
+        long start = System.currentTimeMillis();
+        List<Result> results = Grader.gradeAllConcurrently(graders.length, target, graders);
+        assertTrue(System.currentTimeMillis() - start < MAX_ELAPSED_MS);
+        assertEquals(graders.length, results.size());
+        results.forEach(result -> assertEquals(1, result.getScore()));
+    }
+
+    @Test
+    public void testCpuIntensiveGradersUsePlatformPool() throws URISyntaxException {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance()
+                .timeout(TIMEOUT_MS)
+                .numThreads(1)
+                .virtualThreads(true)
+                .build();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Grader[] graders = new Grader[10];
+        for (int i = 0; i < graders.length; i++) {
+            graders[i] = new CpuRecordingGrader(threads);
+        }
+        Target target = TestUtilities.getTargetFromResource("good/Mob.java");
+        Grader.gradeAllConcurrently(graders.length, target, graders);
+        assertEquals(1, threads.size());
+        assertTrue(threads.iterator().next().getName().startsWith("jacquard-grader"));
+    }
 }
@@ -0,0 +1,114 @@
+package com.spertus.jacquard;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.exceptions.SubmissionException;
+import com.spertus.jacquard.syntaxgrader.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypeSolverCacheTest {
+    private static final TypeSolverCache CACHE = TypeSolverCache.getInstance();
+
+    private Target target;
+
+    @BeforeAll
+    public static void init() {
+        Autograder.initForTest();
+    }
+
+    @BeforeEach
+    public void setup() throws URISyntaxException {
+        target = TestUtilities.getTargetFromResource("symbols/TypeAware.java");
+    }
+
+    private static Optional<String> getFieldType(FieldDeclaration field) {
+        return CACHE.resolveType(field.getElementType()).map(ResolvedType::describe);
+    }
+
+    @Test
+    public void testFieldTypesResolved() throws SubmissionException {
+        CompilationUnit cu = ParseCache.getInstance().parse(target);
+        List<FieldDeclaration> fields = cu.findAll(FieldDeclaration.class);
+        assertEquals(Optional.of("java.util.List<java.lang.String>"), getFieldType(fields.get(0)));
+        // Helper is another class in the submission's source root.
+        assertEquals(Optional.of("Helper"), getFieldType(fields.get(1)));
+        assertEquals(Optional.of("int"), getFieldType(fields.get(2)));
+    }
+
+    @Test
+    public void testResolutionIsMemoized() throws SubmissionException {
+        CompilationUnit cu = ParseCache.getInstance().parse(target);
+        FieldDeclaration field = cu.findAll(FieldDeclaration.class).get(0);
+        assertSame(CACHE.resolveType(field.getElementType()).get(),
+                CACHE.resolveType(field.getElementType()).get());
+    }
+
+    @Test
+    public void testSharedTreeNotModified() throws SubmissionException {
+        CompilationUnit cu = ParseCache.getInstance().parse(target);
+        Set<?> keys = Set.copyOf(cu.getDataKeys());
+        FieldDeclaration field = cu.findAll(FieldDeclaration.class).get(0);
+        assertTrue(getFieldType(field).isPresent());
+        SyntaxConditionGrader.forNodeType("fields", 1, "fields", 1.0,
+                FieldDeclaration.class, node -> true).grade(target);
+        assertEquals(keys, cu.getDataKeys());
+        assertTrue(field.getElementType().getDataKeys().isEmpty());
+    }
+
+    @Test
+    public void testLibraryCallInLoopGraded() {
+        // Counts calls to List.get() inside loops.
+        Grader grader = SyntaxConditionGrader.forNodeType(
+                "List.get in loop", 1, "calls to List.get() in loops", 1.0,
+                MethodCallExpr.class,
+                call -> call.findAncestor(ForStmt.class).isPresent()
+                        && CACHE.resolveMethod(call)
+                        .map(method -> method.getQualifiedName().equals("java.util.List.get"))
+                        .orElse(false));
+        TestUtilities.assertResultsMatch(grader.grade(target), 1, 1.0, 1.0);
+    }
+
+    @Test
+    public void testUnresolvableSymbolIsEmpty() throws SubmissionException {
+        CompilationUnit cu = ParseCache.getInstance().parse(target);
+        assertTrue(getFieldType(cu.findAll(FieldDeclaration.class).get(3)).isEmpty());
+    }
+
+    @Test
+    public void testSolverSharedAcrossTargets() throws SubmissionException, URISyntaxException {
+        // Helper is in the same source root as TypeAware.
+        Target helper = TestUtilities.getTargetFromResource("symbols/Helper.java");
+        assertSame(CACHE.getTypeSolver(ParseCache.getInstance().parse(target)),
+                CACHE.getTypeSolver(ParseCache.getInstance().parse(helper)));
+    }
+
+    @Test
+    public void testSolverNotSharedAcrossRoots() throws SubmissionException, URISyntaxException {
+        Target other = TestUtilities.getTargetFromResource("good/Import.java");
+        assertNotSame(CACHE.getTypeSolver(ParseCache.getInstance().parse(target)),
+                CACHE.getTypeSolver(ParseCache.getInstance().parse(other)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSolverDiscarded(@TempDir Path dir) throws IOException {
+        Path first = Files.createDirectory(dir.resolve("root0"));
+        TypeSolver solver = CACHE.getTypeSolver(first);
+        for (int i = 1; i <= TypeSolverCache.MAX_ENTRIES; i++) {
+            CACHE.getTypeSolver(Files.createDirectory(dir.resolve("root" + i)));
+        }
+        assertNotSame(solver, CACHE.getTypeSolver(first));
+    }
+}
@@ -0,0 +1,136 @@
+package com.spertus.jacquard;
+
+import com.spertus.jacquard.common.*;
+import com.spertus.jacquard.coverage.*;
+import com.spertus.jacquard.coveragetests.*;
+import com.spertus.jacquard.exceptions.*;
+import com.spertus.jacquard.junittester.JUnitTester;
+import com.spertus.jacquard.junittester.SampleTest;
+import com.spertus.jacquard.workertests.*;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkerPoolTest {
+    @AfterEach
+    public void cleanup() {
+        Autograder.resetForTest();
+    }
+
+    private static void build(int maxRuns, long timeoutMillis) {
+        Autograder.resetForTest();
+        Autograder.Builder.getInstance()
+                .timeout(timeoutMillis)
+                .workerJvms(1)
+                .workerMaxRuns(maxRuns)
+                .build();
+    }
+
+    private static void assertSampleResults(List<Result> results) {
+        assertEquals(2, results.size(), results.get(0).getMessage());
+        assertEquals(2.0, results.stream().mapToDouble(Result::getScore).sum());
+        assertEquals(3.5, results.stream().mapToDouble(Result::getMaxScore).sum());
+    }
+
+    private static void assertUnfinished(String name, double points, String expectedText, Result result) {
+        assertEquals(name, result.getName());
+        assertEquals(0.0, result.getScore());
+        assertEquals(points, result.getMaxScore());
+        assertTrue(result.getMessage().contains(expectedText), result.getMessage());
+    }
+
+    @Test
+    public void testPoolDisabledByDefault() {
+        Autograder.initForTest();
+        assertTrue(Autograder.getInstance().getWorkerPool().isEmpty());
+    }
+
+    @Test
+    public void testJUnitTesterInWorker() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 0);
+        assertTrue(Autograder.getInstance().getWorkerPool().isPresent());
+        assertSampleResults(new JUnitTester(SampleTest.class).run());
+    }
+
+    @Test
+    public void testSystemExitIsolated() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 0);
+        List<Result> results = new JUnitTester(ExitTest.class).run();
+        assertEquals(1, results.size());
+        assertUnfinished("exit", 1.0, "exited", results.get(0));
+        // The worker that exited is replaced.
+        assertSampleResults(new JUnitTester(SampleTest.class).run());
+    }
+
+    @Test
+    public void testTimeoutKillsWorker() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 5000);
+        List<Result> results = new JUnitTester(HangingTest.class).run();
+        assertEquals(1, results.size());
+        assertUnfinished("hang", 1.0, "timed out", results.get(0));
+        assertSampleResults(new JUnitTester(SampleTest.class).run());
+    }
+
+    @Test
+    public void testFinishedTestsKeptWhenWorkerKilled() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 3000);
+        Map<String, Result> results = new JUnitTester(PartialTest.class).run().stream()
+                .collect(Collectors.toMap(Result::getName, r -> r));
+        assertEquals(2, results.size());
+        assertEquals(1.0, results.get("pass").getScore());
+        assertUnfinished("hang", 2.0, "timed out", results.get("hang"));
+    }
+
+    @Test
+    public void testTimeoutAppliesPerTest() {
+        // The tests take longer than the timeout together but not separately.
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 3500);
+        List<Result> results = new JUnitTester(SlowTest.class).run();
+        assertEquals(2, results.size());
+        assertEquals(2.0, results.stream().mapToDouble(Result::getScore).sum());
+    }
+
+    @Test
+    public void testWorkerMetricsAreWallClockOnly() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 0);
+        GradingMetrics metrics = new JUnitTester(SampleTest.class).run().get(0).getMetrics().orElseThrow();
+        assertTrue(metrics.getWallNanos() > 0);
+        assertEquals(GradingMetrics.UNAVAILABLE, metrics.getCpuNanos());
+        assertEquals(GradingMetrics.UNAVAILABLE, metrics.getAllocatedBytes());
+    }
+
+    @Test
+    public void testWorkerReused() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 0);
+        assertEquals(1.0, new JUnitTester(StaticStateTest.class).run().get(0).getScore());
+        assertEquals(0.0, new JUnitTester(StaticStateTest.class).run().get(0).getScore());
+    }
+
+    @Test
+    public void testWorkerRecycled() {
+        build(1, 0);
+        assertEquals(1.0, new JUnitTester(StaticStateTest.class).run().get(0).getScore());
+        assertEquals(1.0, new JUnitTester(StaticStateTest.class).run().get(0).getScore());
+    }
+
+    @Test
+    public void testCodeCoverageTesterInWorker() {
+        build(Autograder.Builder.DEFAULT_WORKER_MAX_RUNS, 0);
+        CodeCoverageTester tester = new CodeCoverageTester(
+                new LinearScorer(.5, 10), PrimeChecker.class, PrimeCheckerTest.class);
+        List<Result> results = tester.run();
+        assertEquals(1, results.size());
+        assertEquals(7.75, results.get(0).getScore());
+        assertEquals(10.0, results.get(0).getMaxScore());
+    }
+
+    @Test
+    public void testNegativeWorkerCountRejected() {
+        Autograder.resetForTest();
+        assertThrows(ClientException.class, () -> Autograder.Builder.getInstance().workerJvms(-1));
+    }
+}
@@ -0,0 +1,67 @@
+package com.spertus.jacquard.junittester;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedOutputStreamTest {
+    private static BoundedOutputStream write(int headCapacity, int tailCapacity, String s) {
+        BoundedOutputStream stream = new BoundedOutputStream(headCapacity, tailCapacity);
+        stream.write(s.getBytes(StandardCharsets.UTF_8), 0, s.getBytes(StandardCharsets.UTF_8).length);
+        return stream;
+    }
+
+    @Test
+    public void testShortOutputKept() {
+        assertEquals("hello", write(4, 4, "hello").toString());
+        assertEquals("hello", write(8, 8, "hello").toString());
+        assertEquals("", write(8, 8, "").toString());
+    }
+
+    @Test
+    public void testLongOutputElided() {
+        BoundedOutputStream stream = write(3, 4, "abcdefghijklmnop");
+        assertEquals(16, stream.size());
+        assertEquals("abc\n...[9 bytes omitted]...\nmnop", stream.toString());
+    }
+
+    @Test
+    public void testSingleBytesWrapAround() {
+        BoundedOutputStream stream = new BoundedOutputStream(2, 3);
+        for (char c : "abcdefghij".toCharArray()) {
+            stream.write(c);
+        }
+        assertEquals("ab\n...[5 bytes omitted]...\nhij", stream.toString());
+    }
+
+    @Test
+    public void testMixedWritesWrapAround() {
+        BoundedOutputStream stream = write(2, 5, "ab");
+        byte[] bytes = "cdefghi".getBytes(StandardCharsets.UTF_8);
+        stream.write(bytes, 0, 4);
+        stream.write(bytes, 4, 3);
+        stream.write('j');
+        assertEquals("ab\n...[3 bytes omitted]...\nfghij", stream.toString());
+    }
+
+    @Test
+    public void testPartialCharactersDropped() {
+        // Each euro sign is 3 bytes in UTF-8.
+        String euros = "\u20ac".repeat(10);
+        assertEquals("\u20ac\n...[22 bytes omitted]...\n\u20ac",
+                write(4, 4, euros).toString());
+    }
+
+    @Test
+    public void testMemoryBounded() {
+        BoundedOutputStream stream = new BoundedOutputStream(16, 16);
+        byte[] line = "0123456789\n".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 1_000_000; i++) {
+            stream.write(line, 0, line.length);
+        }
+        assertEquals(11_000_000L, stream.size());
+        assertTrue(stream.toString().length() < 100);
+    }
+}
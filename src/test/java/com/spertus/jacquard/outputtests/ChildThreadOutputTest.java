@@ -0,0 +1,17 @@
+package com.spertus.jacquard.outputtests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IndirectTest")
+public class ChildThreadOutputTest {
+    @Test
+    @GradedTest(name = "child", includeOutput = true)
+    public void testChildThreadOutput() throws InterruptedException {
+        System.out.println("parent");
+        Thread child = new Thread(() -> System.out.println("child"));
+        child.start();
+        child.join();
+    }
+}
@@ -0,0 +1,24 @@
+package com.spertus.jacquard.outputtests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IndirectTest")
+public class VerboseTest {
+    @Test
+    @GradedTest(name = "verbose", includeOutput = true)
+    public void testVerbose() {
+        System.out.println("first");
+        for (int i = 0; i < 1_000_000; i++) {
+            System.out.println("middle");
+        }
+        System.out.println("last");
+    }
+
+    @Test
+    @GradedTest(name = "error", includeOutput = true)
+    public void testError() {
+        System.err.println("error");
+    }
+}
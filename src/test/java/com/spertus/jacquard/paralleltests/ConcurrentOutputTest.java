@@ -0,0 +1,42 @@
+package com.spertus.jacquard.paralleltests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+@Tag("IndirectTest")
+@Execution(ExecutionMode.CONCURRENT)
+public class ConcurrentOutputTest {
+    private static void print(String s) throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.out.println(s);
+            Thread.sleep(2);
+        }
+    }
+
+    @Test
+    @GradedTest(name = "a", includeOutput = true)
+    public void testA() throws InterruptedException {
+        print("a");
+    }
+
+    @Test
+    @GradedTest(name = "b", includeOutput = true)
+    public void testB() throws InterruptedException {
+        print("b");
+    }
+
+    @Test
+    @GradedTest(name = "c", includeOutput = true)
+    public void testC() throws InterruptedException {
+        print("c");
+    }
+
+    @Test
+    @GradedTest(name = "d", includeOutput = true)
+    public void testD() throws InterruptedException {
+        print("d");
+    }
+}
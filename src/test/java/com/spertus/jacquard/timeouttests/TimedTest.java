@@ -0,0 +1,42 @@
+package com.spertus.jacquard.timeouttests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+@Tag("IndirectTest")
+public class TimedTest {
+    @Test
+    @GradedTest(name = "fast", timeoutMillis = 5000)
+    public void testFast() {
+        System.out.println("fast");
+    }
+
+    @Test
+    @GradedTest(name = "failing", timeoutMillis = 5000, includeOutput = false)
+    public void testFailing() {
+        fail("expected failure");
+    }
+
+    @Test
+    @GradedTest(name = "interruptible", timeoutMillis = 100, includeOutput = false)
+    public void testInterruptible() throws InterruptedException {
+        Thread.sleep(10_000);
+    }
+
+    @Test
+    @GradedTest(name = "uninterruptible", timeoutMillis = 100, includeOutput = false)
+    public void testUninterruptible() {
+        // Ignore interrupts for longer than the grace period.
+        long end = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < end) {
+            try {
+                Thread.sleep(end - System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                // Keep going.
+            }
+        }
+    }
+}
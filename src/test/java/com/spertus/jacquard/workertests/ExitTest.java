@@ -0,0 +1,15 @@
+package com.spertus.jacquard.workertests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+// This must only be run in a worker JVM.
+@Tag("IndirectTest")
+public class ExitTest {
+    @Test
+    @GradedTest(name = "exit")
+    public void testExit() {
+        System.exit(1);
+    }
+}
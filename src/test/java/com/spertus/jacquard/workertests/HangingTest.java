@@ -0,0 +1,14 @@
+package com.spertus.jacquard.workertests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IndirectTest")
+public class HangingTest {
+    @Test
+    @GradedTest(name = "hang")
+    public void testHang() throws InterruptedException {
+        Thread.sleep(60_000);
+    }
+}
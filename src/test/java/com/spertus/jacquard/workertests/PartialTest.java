@@ -0,0 +1,21 @@
+package com.spertus.jacquard.workertests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.*;
+
+@Tag("IndirectTest")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PartialTest {
+    @Test
+    @Order(1)
+    @GradedTest(name = "pass", points = 1.0)
+    public void testPass() {
+    }
+
+    @Test
+    @Order(2)
+    @GradedTest(name = "hang", points = 2.0)
+    public void testHang() throws InterruptedException {
+        Thread.sleep(60_000);
+    }
+}
@@ -0,0 +1,20 @@
+package com.spertus.jacquard.workertests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("IndirectTest")
+public class SlowTest {
+    @Test
+    @GradedTest(name = "slow1")
+    public void testSlow1() throws InterruptedException {
+        Thread.sleep(2000);
+    }
+
+    @Test
+    @GradedTest(name = "slow2")
+    public void testSlow2() throws InterruptedException {
+        Thread.sleep(2000);
+    }
+}
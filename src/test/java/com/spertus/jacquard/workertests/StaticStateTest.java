@@ -0,0 +1,20 @@
+package com.spertus.jacquard.workertests;
+
+import com.spertus.jacquard.junittester.GradedTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("IndirectTest")
+public class StaticStateTest {
+    private static int runs;
+
+    // This passes only the first time it is run in a JVM.
+    @Test
+    @GradedTest(name = "first run")
+    public void testFirstRun() {
+        runs++;
+        assertEquals(1, runs);
+    }
+}
@@ -0,0 +1,20 @@
+import java.util.*;
+
+public class TypeAware {
+    private List<String> names = new ArrayList<>();
+    private Helper helper;
+    private int size;
+    private Missing missing;
+
+    public int totalLength() {
+        int total = 0;
+        for (int i = 0; i < names.size(); i++) {
+            total += names.get(i).length();
+        }
+        return total + getSize();
+    }
+
+    private int getSize() {
+        return size;
+    }
+}